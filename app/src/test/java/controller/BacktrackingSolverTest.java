@@ -0,0 +1,65 @@
+package controller;
+
+import model.*;
+import org.junit.jupiter.api.Test;
+import java.util.*;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class BacktrackingSolverTest {
+    private final TestCatalogue catalogue = new TestCatalogue();
+
+    private BacktrackingSolver solver() {
+        BacktrackingSolver solver = new BacktrackingSolver(catalogue.classrooms, catalogue.courses,
+                                                           catalogue.instructors, catalogue.instructorCourses);
+        solver.setRandomSeed(3);
+        solver.setTimeBudgetMillis(60000);
+        return solver;
+    }
+
+    // One cohort with more lectures per pattern day than there are periods
+    private void makeInfeasible() {
+        for (int i = 0; i < 12; i++) {
+            catalogue.courses.add(new Course("CSF1" + (10 + i), "Elective " + i, "Computer Science", 1, 40, 3, 0,
+                                             String.valueOf(1 + i % 3), "0", "MWF"));
+        }
+    }
+
+    @Test
+    void solvesFeasibleCatalogue() {
+        BacktrackingSolver solver = solver();
+
+        List<TimetableEntry> timetable = solver.generateTimetable();
+
+        assertTrue(solver.getConflicts().isEmpty(), solver.getConflicts().summary());
+        assertTrue(catalogue.check(timetable).isEmpty(), catalogue.check(timetable).summary());
+    }
+
+    @Test
+    void keepsBestAssignmentOfInfeasibleCatalogue() {
+        makeInfeasible();
+        BacktrackingSolver solver = solver();
+        solver.setTimeBudgetMillis(300);
+
+        List<TimetableEntry> timetable = solver.generateTimetable();
+
+        assertFalse(solver.getConflicts().isEmpty());
+        assertEquals(0, solver.getConflicts().count(Conflict.Kind.UNSCHEDULED_LAB));
+        ConflictReport conflicts = new TimetableValidator(catalogue.classrooms, catalogue.courses,
+                                                          catalogue.instructors).validate(timetable);
+        assertTrue(conflicts.isEmpty(), conflicts.summary());
+    }
+
+    @Test
+    void stopConditionEndsSearchBeforeBudget() {
+        makeInfeasible();
+        BacktrackingSolver solver = solver();
+        long stopAt = System.currentTimeMillis() + 200;
+        solver.setStopCondition(() -> System.currentTimeMillis() >= stopAt);
+
+        long start = System.currentTimeMillis();
+        solver.generateTimetable();
+
+        assertTrue(System.currentTimeMillis() - start < 10000);
+    }
+}
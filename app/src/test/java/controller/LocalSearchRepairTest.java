@@ -0,0 +1,65 @@
+package controller;
+
+import model.*;
+import org.junit.jupiter.api.Test;
+import java.util.*;
+
+import static controller.TestCatalogue.entriesOf;
+import static controller.TestCatalogue.placements;
+import static org.junit.jupiter.api.Assertions.*;
+
+class LocalSearchRepairTest {
+    private final TestCatalogue catalogue = new TestCatalogue();
+
+    private List<TimetableEntry> improve(List<TimetableEntry> timetable) {
+        LocalSearchRepair repair = new LocalSearchRepair(catalogue.classrooms, catalogue.courses, catalogue.instructors);
+        repair.setRandomSeed(7);
+        repair.setTimeBudgetMillis(500);
+        return repair.improve(timetable);
+    }
+
+    private static void assertLecturesOnDistinctDays(List<TimetableEntry> timetable, String courseCode) {
+        Set<String> days = new HashSet<>();
+        for (TimetableEntry entry : entriesOf(timetable, courseCode)) {
+            if (entry.getSessionType().equals("Lecture")) {
+                assertTrue(days.add(entry.getDay()), courseCode + " has two lectures on " + entry.getDay());
+            }
+        }
+    }
+
+    private static TimetableEntry labOf(List<TimetableEntry> timetable, String courseCode) {
+        for (TimetableEntry entry : entriesOf(timetable, courseCode)) {
+            if (entry.getSessionType().equals("Lab")) {
+                return entry;
+            }
+        }
+        throw new AssertionError(courseCode + " has no lab");
+    }
+
+    @Test
+    void schedulesEverythingFromEmptyTimetable() {
+        List<TimetableEntry> timetable = improve(new ArrayList<TimetableEntry>());
+
+        assertTrue(catalogue.check(timetable).isEmpty(), catalogue.check(timetable).summary());
+        for (Course course : catalogue.courses) {
+            assertLecturesOnDistinctDays(timetable, course.getCode());
+        }
+    }
+
+    @Test
+    void repairsClashesWithoutChangingInput() {
+        List<TimetableEntry> input = new ArrayList<>(catalogue.generator().generateTimetable());
+        TimetableEntry lab = labOf(input, "CSF101");
+        TimetableEntry entry = labOf(input, "MAF201");
+        // Same room and time as the other lab
+        input.set(input.indexOf(entry), new TimetableEntry(lab.getDay(), lab.getTime(), "MAF201",
+                                                           lab.getRoomId(), 5, "Lab"));
+        assertFalse(catalogue.check(input).isEmpty());
+        Set<String> before = placements(input);
+
+        List<TimetableEntry> timetable = improve(input);
+
+        assertEquals(before, placements(input));
+        assertTrue(catalogue.check(timetable).isEmpty(), catalogue.check(timetable).summary());
+    }
+}
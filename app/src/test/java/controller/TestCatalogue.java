@@ -0,0 +1,65 @@
+package controller;
+
+import model.*;
+import java.util.*;
+
+/**
+ * Small catalogue that the greedy pass schedules without conflicts: two
+ * lecture rooms, two lab rooms and three courses in two cohorts.
+ */
+final class TestCatalogue {
+    final List<Classroom> classrooms = new ArrayList<>(Arrays.asList(
+        new Classroom(101, 60, true, 0, "Lecture"),
+        new Classroom(102, 60, true, 0, "Lecture"),
+        new Classroom(201, 40, true, 40, "Lab"),
+        new Classroom(202, 40, true, 40, "Lab")));
+    final List<Course> courses = new ArrayList<>(Arrays.asList(
+        new Course("CSF101", "Introduction to Programming", "Computer Science", 1, 40, 3, 1, "1", "2", "MWF"),
+        new Course("CSF102", "Discrete Mathematics", "Computer Science", 1, 40, 3, 0, "3", "0", "TTS"),
+        new Course("MAF201", "Linear Algebra", "Mathematics", 2, 40, 3, 1, "4", "5", "MWF")));
+    final List<Instructor> instructors = new ArrayList<>(Arrays.asList(
+        new Instructor(1, "John", "Smith", "Computer Science"),
+        new Instructor(2, "Alice", "Johnson", "Computer Science"),
+        new Instructor(3, "Bob", "Williams", "Computer Science"),
+        new Instructor(4, "Emmy", "Noether", "Mathematics"),
+        new Instructor(5, "Ada", "Lovelace", "Mathematics"),
+        new Instructor(6, "Marie", "Curie", "Physics")));
+    final List<InstructorCourse> instructorCourses = new ArrayList<>(Arrays.asList(
+        new InstructorCourse(1, "CSF101", "Lecture"),
+        new InstructorCourse(2, "CSF101", "Lab"),
+        new InstructorCourse(3, "CSF102", "Lecture"),
+        new InstructorCourse(4, "MAF201", "Lecture"),
+        new InstructorCourse(5, "MAF201", "Lab")));
+
+    TimetableGenerator generator() {
+        return new TimetableGenerator(classrooms, courses, instructors, instructorCourses);
+    }
+
+    // Hard-constraint conflicts plus missing sessions, as the service reports them
+    ConflictReport check(List<TimetableEntry> timetable) {
+        ConflictReport conflicts = new ConflictReport();
+        TimetableGenerator.reportUnscheduled(courses, timetable, conflicts);
+        new TimetableValidator(classrooms, courses, instructors).validate(timetable, conflicts);
+        return conflicts;
+    }
+
+    static List<TimetableEntry> entriesOf(List<TimetableEntry> timetable, String courseCode) {
+        List<TimetableEntry> entries = new ArrayList<>();
+        for (TimetableEntry entry : timetable) {
+            if (entry.getCourseCode().equals(courseCode)) {
+                entries.add(entry);
+            }
+        }
+        return entries;
+    }
+
+    // Entries as comparable strings, so placements can be compared across copies
+    static Set<String> placements(Collection<TimetableEntry> entries) {
+        Set<String> placements = new TreeSet<>();
+        for (TimetableEntry e : entries) {
+            placements.add(e.getDay() + "|" + e.getTime() + "|" + e.getCourseCode() + "|" + e.getRoomId() + "|" +
+                           e.getInstructorId() + "|" + e.getSessionType());
+        }
+        return placements;
+    }
+}
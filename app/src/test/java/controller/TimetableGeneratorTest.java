@@ -0,0 +1,242 @@
+package controller;
+
+import model.*;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import java.util.*;
+
+import static controller.TestCatalogue.entriesOf;
+import static controller.TestCatalogue.placements;
+import static org.junit.jupiter.api.Assertions.*;
+
+class TimetableGeneratorTest {
+    private TestCatalogue catalogue;
+    private List<TimetableEntry> generated;
+
+    @BeforeEach
+    void setUp() {
+        catalogue = new TestCatalogue();
+        generated = new ArrayList<>(catalogue.generator().generateTimetable());
+    }
+
+    // A rescheduler over the generated timetable, as the service builds one
+    private TimetableGenerator rescheduler() {
+        TimetableGenerator rescheduler = catalogue.generator();
+        rescheduler.loadTimetable(generated);
+        return rescheduler;
+    }
+
+    private Set<String> placementsExcept(List<TimetableEntry> timetable, String courseCode) {
+        List<TimetableEntry> others = new ArrayList<>(timetable);
+        others.removeAll(entriesOf(timetable, courseCode));
+        return placements(others);
+    }
+
+    private Set<String> placementsOutside(List<TimetableEntry> timetable, int roomId) {
+        List<TimetableEntry> others = new ArrayList<>();
+        for (TimetableEntry entry : timetable) {
+            if (entry.getRoomId() != roomId) {
+                others.add(entry);
+            }
+        }
+        return placements(others);
+    }
+
+    private void replaceCourse(Course course) {
+        for (int i = 0; i < catalogue.courses.size(); i++) {
+            if (catalogue.courses.get(i).getCode().equals(course.getCode())) {
+                catalogue.courses.set(i, course);
+                return;
+            }
+        }
+        catalogue.courses.add(course);
+    }
+
+    private void replaceClassroom(int roomId, Classroom replacement) {
+        for (Iterator<Classroom> it = catalogue.classrooms.iterator(); it.hasNext(); ) {
+            if (it.next().getId() == roomId) {
+                it.remove();
+            }
+        }
+        if (replacement != null) {
+            catalogue.classrooms.add(replacement);
+        }
+    }
+
+    // Hands the rescheduler fresh copies of the lists, as a service edit does
+    private void switchCatalogue(TimetableGenerator rescheduler) {
+        rescheduler.setCatalogue(new ArrayList<>(catalogue.classrooms), new ArrayList<>(catalogue.courses),
+                                 new ArrayList<>(catalogue.instructors));
+    }
+
+    @Test
+    void generatesCompleteTimetableWithoutConflicts() {
+        ConflictReport conflicts = catalogue.check(generated);
+
+        assertTrue(conflicts.isEmpty(), conflicts.summary());
+        assertEquals(4, entriesOf(generated, "CSF101").size());
+        assertEquals(3, entriesOf(generated, "CSF102").size());
+    }
+
+    @Test
+    void sameSeedGivesSameTimetable() {
+        TimetableGenerator first = catalogue.generator();
+        first.setRandomSeed(42);
+        TimetableGenerator second = catalogue.generator();
+        second.setRandomSeed(42);
+
+        assertEquals(placements(first.generateTimetable()), placements(second.generateTimetable()));
+    }
+
+    @Test
+    void loadingKeepsValidTimetableAsIs() {
+        TimetableGenerator rescheduler = rescheduler();
+
+        assertEquals(placements(generated), placements(rescheduler.getTimetable()));
+        assertTrue(rescheduler.getConflicts().isEmpty(), rescheduler.getConflicts().summary());
+    }
+
+    @Test
+    void loadingDropsClashingEntries() {
+        List<TimetableEntry> entries = new ArrayList<>(generated);
+        TimetableEntry lecture = entriesOf(generated, "CSF102").get(0);
+        entries.add(new TimetableEntry(lecture.getDay(), lecture.getTime(), "CSF102", lecture.getRoomId(),
+                                       lecture.getInstructorId(), "Lecture"));
+
+        TimetableGenerator rescheduler = catalogue.generator();
+        rescheduler.loadTimetable(entries);
+
+        assertEquals(placements(generated), placements(rescheduler.getTimetable()));
+    }
+
+    @Test
+    void rescheduleCourseLeavesOtherCoursesInPlace() {
+        TimetableGenerator rescheduler = rescheduler();
+        Course edited = new Course("CSF101", "Introduction to Programming", "Computer Science", 1, 40, 2, 2,
+                                   "1", "2", "TTS");
+        replaceCourse(edited);
+        switchCatalogue(rescheduler);
+
+        rescheduler.rescheduleCourse(edited);
+
+        List<TimetableEntry> timetable = rescheduler.getTimetable();
+        assertEquals(placementsExcept(generated, "CSF101"), placementsExcept(timetable, "CSF101"));
+        int lectures = 0;
+        for (TimetableEntry entry : entriesOf(timetable, "CSF101")) {
+            if (entry.getSessionType().equals("Lecture")) {
+                lectures++;
+                assertTrue(Arrays.asList("Tuesday", "Thursday", "Saturday").contains(entry.getDay()));
+            }
+        }
+        assertEquals(2, lectures);
+        assertEquals(4, entriesOf(timetable, "CSF101").size());
+        assertTrue(rescheduler.getConflicts().isEmpty(), rescheduler.getConflicts().summary());
+        assertTrue(catalogue.check(timetable).isEmpty(), catalogue.check(timetable).summary());
+    }
+
+    @Test
+    void rescheduleCourseSchedulesCourseInNewCohort() {
+        TimetableGenerator rescheduler = rescheduler();
+        // Neither the cohort nor the instructor is in the indices built on load
+        Course added = new Course("PHF101", "Mechanics", "Physics", 1, 30, 3, 1, "6", "6", "TTS");
+        replaceCourse(added);
+        switchCatalogue(rescheduler);
+
+        rescheduler.rescheduleCourse(added);
+
+        List<TimetableEntry> timetable = rescheduler.getTimetable();
+        assertEquals(placements(generated), placementsExcept(timetable, "PHF101"));
+        assertEquals(4, entriesOf(timetable, "PHF101").size());
+        assertTrue(rescheduler.getConflicts().isEmpty(), rescheduler.getConflicts().summary());
+        assertTrue(catalogue.check(timetable).isEmpty(), catalogue.check(timetable).summary());
+    }
+
+    @Test
+    void rescheduleCourseReportsWhatDoesNotFit() {
+        TimetableGenerator rescheduler = rescheduler();
+        Course tooLarge = new Course("CSF102", "Discrete Mathematics", "Computer Science", 1, 100, 3, 0,
+                                     "3", "0", "TTS");
+        replaceCourse(tooLarge);
+        switchCatalogue(rescheduler);
+
+        rescheduler.rescheduleCourse(tooLarge);
+
+        assertTrue(entriesOf(rescheduler.getTimetable(), "CSF102").isEmpty());
+        assertEquals(placementsExcept(generated, "CSF102"), placements(rescheduler.getTimetable()));
+        assertEquals(1, rescheduler.getConflicts().count(Conflict.Kind.UNSCHEDULED_LECTURE));
+    }
+
+    @Test
+    void releaseCourseDropsOnlyItsEntries() {
+        TimetableGenerator rescheduler = rescheduler();
+        catalogue.courses.remove(2);
+        switchCatalogue(rescheduler);
+
+        rescheduler.releaseCourse("MAF201");
+
+        assertEquals(placementsExcept(generated, "MAF201"), placements(rescheduler.getTimetable()));
+        assertTrue(rescheduler.getConflicts().isEmpty(), rescheduler.getConflicts().summary());
+    }
+
+    @Test
+    void rescheduleRoomsMovesEntriesOutOfRemovedRoom() {
+        int removed = generated.get(0).getRoomId();
+        TimetableGenerator rescheduler = rescheduler();
+        replaceClassroom(removed, null);
+        switchCatalogue(rescheduler);
+
+        rescheduler.rescheduleRooms();
+
+        List<TimetableEntry> timetable = rescheduler.getTimetable();
+        assertEquals(generated.size(), timetable.size());
+        assertTrue(placements(timetable).containsAll(placementsOutside(generated, removed)));
+        for (TimetableEntry entry : timetable) {
+            assertNotEquals(removed, entry.getRoomId());
+        }
+        assertTrue(catalogue.check(timetable).isEmpty(), catalogue.check(timetable).summary());
+    }
+
+    @Test
+    void rescheduleRoomsMovesEntriesOutOfShrunkRoom() {
+        TimetableGenerator rescheduler = rescheduler();
+        replaceClassroom(201, new Classroom(201, 20, true, 20, "Lab"));
+        switchCatalogue(rescheduler);
+
+        rescheduler.rescheduleRooms();
+
+        List<TimetableEntry> timetable = rescheduler.getTimetable();
+        assertTrue(placements(timetable).containsAll(placementsOutside(generated, 201)));
+        for (TimetableEntry entry : timetable) {
+            assertNotEquals(201, entry.getRoomId());
+        }
+        assertEquals(4, entriesOf(timetable, "CSF101").size());
+        assertEquals(4, entriesOf(timetable, "MAF201").size());
+        assertTrue(catalogue.check(timetable).isEmpty(), catalogue.check(timetable).summary());
+    }
+
+    @Test
+    void rescheduleRoomsKeepsEverythingWhenRoomIsAdded() {
+        TimetableGenerator rescheduler = rescheduler();
+        catalogue.classrooms.add(new Classroom(103, 200, true, 0, "Lecture"));
+        switchCatalogue(rescheduler);
+
+        rescheduler.rescheduleRooms();
+
+        assertEquals(placements(generated), placements(rescheduler.getTimetable()));
+    }
+
+    @Test
+    void rescheduleRoomsReportsSessionsLeftWithoutRoom() {
+        TimetableGenerator rescheduler = rescheduler();
+        replaceClassroom(201, null);
+        replaceClassroom(202, null);
+        switchCatalogue(rescheduler);
+
+        rescheduler.rescheduleRooms();
+
+        for (TimetableEntry entry : rescheduler.getTimetable()) {
+            assertEquals("Lecture", entry.getSessionType());
+        }
+        assertEquals(2, rescheduler.getConflicts().count(Conflict.Kind.UNSCHEDULED_LAB));
+    }
+}
@@ -0,0 +1,137 @@
+package controller;
+
+import model.*;
+import org.junit.jupiter.api.Test;
+import java.util.*;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class TimetableValidatorTest {
+    private final TestCatalogue catalogue = new TestCatalogue();
+    private final TimetableValidator validator =
+        new TimetableValidator(catalogue.classrooms, catalogue.courses, catalogue.instructors);
+
+    private static TimetableEntry entry(String day, String time, String course, int room, int instructor, String type) {
+        return new TimetableEntry(day, time, course, room, instructor, type);
+    }
+
+    private ConflictReport validate(TimetableEntry... entries) {
+        return validator.validate(Arrays.asList(entries));
+    }
+
+    @Test
+    void acceptsValidTimetable() {
+        ConflictReport conflicts = validate(
+            entry("Monday", "8:00 - 9:00", "CSF101", 101, 1, "Lecture"),
+            entry("Monday", "8:00 - 9:00", "MAF201", 102, 4, "Lecture"),
+            entry("Monday", "9:00 - 11:00", "CSF101", 201, 2, "Lab"),
+            entry("Tuesday", "8:00 - 9:00", "CSF102", 101, 3, "Lecture"));
+
+        assertTrue(conflicts.isEmpty(), conflicts.summary());
+    }
+
+    @Test
+    void findsRoomClash() {
+        ConflictReport conflicts = validate(
+            entry("Monday", "8:00 - 9:00", "CSF101", 101, 1, "Lecture"),
+            entry("Monday", "8:00 - 9:00", "MAF201", 101, 4, "Lecture"));
+
+        assertEquals(1, conflicts.size());
+        assertEquals(1, conflicts.count(Conflict.Kind.ROOM_CLASH));
+    }
+
+    @Test
+    void findsInstructorClash() {
+        ConflictReport conflicts = validate(
+            entry("Monday", "8:00 - 9:00", "CSF101", 101, 1, "Lecture"),
+            entry("Monday", "8:00 - 9:00", "MAF201", 102, 1, "Lecture"));
+
+        assertEquals(1, conflicts.size());
+        assertEquals(1, conflicts.count(Conflict.Kind.INSTRUCTOR_CLASH));
+    }
+
+    @Test
+    void findsCohortClash() {
+        ConflictReport conflicts = validate(
+            entry("Tuesday", "8:00 - 9:00", "CSF101", 101, 1, "Lecture"),
+            entry("Tuesday", "8:00 - 9:00", "CSF102", 102, 3, "Lecture"));
+
+        assertEquals(1, conflicts.size());
+        assertEquals(1, conflicts.count(Conflict.Kind.COHORT_CLASH));
+    }
+
+    @Test
+    void findsClashInSecondPeriodOfLab() {
+        ConflictReport conflicts = validate(
+            entry("Monday", "8:00 - 10:00", "CSF101", 201, 2, "Lab"),
+            entry("Monday", "9:00 - 11:00", "MAF201", 201, 5, "Lab"));
+
+        assertEquals(1, conflicts.count(Conflict.Kind.ROOM_CLASH));
+        assertEquals(1, conflicts.size());
+    }
+
+    @Test
+    void acceptsBackToBackSessions() {
+        ConflictReport conflicts = validate(
+            entry("Monday", "8:00 - 10:00", "CSF101", 201, 2, "Lab"),
+            entry("Monday", "10:00 - 12:00", "MAF201", 201, 2, "Lab"));
+
+        assertTrue(conflicts.isEmpty(), conflicts.summary());
+    }
+
+    @Test
+    void findsRoomsThatDoNotSuitTheSession() {
+        catalogue.classrooms.add(new Classroom(103, 20, false, 0, "Lecture"));
+        TimetableValidator validator =
+            new TimetableValidator(catalogue.classrooms, catalogue.courses, catalogue.instructors);
+
+        ConflictReport conflicts = validator.validate(Arrays.asList(
+            entry("Monday", "8:00 - 9:00", "CSF101", 103, 1, "Lecture"),
+            entry("Tuesday", "8:00 - 9:00", "CSF102", 201, 3, "Lecture"),
+            entry("Wednesday", "8:00 - 10:00", "CSF101", 101, 2, "Lab"),
+            entry("Thursday", "8:00 - 9:00", "MAF201", 102, 4, "Seminar")));
+
+        assertEquals(1, conflicts.count(Conflict.Kind.CAPACITY));
+        assertEquals(2, conflicts.count(Conflict.Kind.ROOM_TYPE));
+        assertEquals(1, conflicts.count(Conflict.Kind.UNKNOWN_SESSION_TYPE));
+        assertEquals(4, conflicts.size());
+    }
+
+    @Test
+    void findsEntriesOutsideTheCatalogue() {
+        ConflictReport conflicts = validate(
+            entry("Monday", "8:00 - 9:00", "XXX999", 101, 1, "Lecture"),
+            entry("Monday", "8:00 - 9:00", "CSF101", 999, 1, "Lecture"),
+            entry("Sunday", "8:00 - 9:00", "CSF101", 101, 1, "Lecture"),
+            entry("Monday", "7:00 - 8:00", "CSF101", 101, 1, "Lecture"));
+
+        assertEquals(1, conflicts.count(Conflict.Kind.UNKNOWN_COURSE));
+        assertEquals(1, conflicts.count(Conflict.Kind.UNKNOWN_ROOM));
+        assertEquals(2, conflicts.count(Conflict.Kind.UNKNOWN_TIME));
+        assertEquals(4, conflicts.size());
+    }
+
+    @Test
+    void acceptsDifferentlySpacedTimeLabels() {
+        ConflictReport conflicts = validate(
+            entry("Monday", "8:00  -  10:00", "CSF101", 201, 2, "Lab"),
+            entry("Monday", "9:00 - 10:00", "CSF101", 101, 1, "Lecture"));
+
+        assertEquals(1, conflicts.count(Conflict.Kind.COHORT_CLASH));
+        assertEquals(1, conflicts.size());
+    }
+
+    @Test
+    void addsToExistingReport() {
+        ConflictReport conflicts = new ConflictReport();
+        TimetableGenerator.reportUnscheduled(catalogue.courses, new ArrayList<TimetableEntry>(), conflicts);
+        int unscheduled = conflicts.size();
+
+        validator.validate(Arrays.asList(
+            entry("Monday", "8:00 - 9:00", "CSF101", 101, 1, "Lecture"),
+            entry("Monday", "8:00 - 9:00", "MAF201", 101, 4, "Lecture")), conflicts);
+
+        assertTrue(unscheduled > 0);
+        assertEquals(unscheduled + 1, conflicts.size());
+    }
+}
@@ -0,0 +1,108 @@
+package database;
+
+import model.*;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.*;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class BinarySnapshotTest {
+    @TempDir
+    File directory;
+
+    private BinarySnapshot snapshot;
+    private File file;
+
+    @BeforeEach
+    void setUp() {
+        snapshot = new BinarySnapshot(
+            Arrays.asList(new Classroom(101, 60, true, 0, "Lecture"), new Classroom(202, 30, false, 30, "Lab")),
+            Arrays.asList(new Course("CSF101", "Programming, \"Part 1\"", "Computer Science", 1, 60, 3, 2,
+                                     "1", "2", "MWF"),
+                          new Course("MAF201", "Linear Algebra", "Mathematics", 2, 45, 3, 0, "1", "0", "TTS")),
+            Arrays.asList(new Instructor(1, "Ada", "Lovelace", "Computer Science"),
+                          new Instructor(2, "Zoë", "Müller", "Computer Science")),
+            Arrays.asList(new InstructorCourse(1, "CSF101", "Lecture"), new InstructorCourse(2, "CSF101", "Lab")),
+            Arrays.asList(new TimetableEntry("Monday", "9:00 - 10:00", "CSF101", 101, 1, "Lecture"),
+                          new TimetableEntry("Tuesday", "2:00 - 4:00", "CSF101", 202, 2, "Lab")));
+        file = new File(directory, "catalogue.snapshot");
+    }
+
+    // One line per record, in the CSV format where there is one
+    private static String describe(BinarySnapshot snapshot) {
+        StringBuilder sb = new StringBuilder();
+        for (Classroom c : snapshot.getClassrooms()) {
+            sb.append(CSVHandler.formatClassroom(c)).append('\n');
+        }
+        for (Course c : snapshot.getCourses()) {
+            sb.append(CSVHandler.formatCourse(c)).append('\n');
+        }
+        for (Instructor i : snapshot.getInstructors()) {
+            sb.append(CSVHandler.formatInstructor(i)).append('\n');
+        }
+        for (InstructorCourse ic : snapshot.getInstructorCourses()) {
+            sb.append(ic.getInstructorId()).append(',').append(ic.getCourseCode()).append(',')
+              .append(ic.getType()).append('\n');
+        }
+        for (TimetableEntry e : snapshot.getTimetable()) {
+            sb.append(e.getDay()).append(',').append(e.getTime()).append(',').append(e.getCourseCode()).append(',')
+              .append(e.getRoomId()).append(',').append(e.getInstructorId()).append(',')
+              .append(e.getSessionType()).append('\n');
+        }
+        return sb.toString();
+    }
+
+    @Test
+    void roundTripsThroughBinaryFile() throws IOException {
+        snapshot.write(file, BinarySnapshot.stamps(directory.getPath()));
+
+        assertEquals(describe(snapshot), describe(BinarySnapshot.read(file)));
+    }
+
+    @Test
+    void roundTripsThroughCsvFiles() {
+        assertTrue(snapshot.toCsv(directory.getPath()));
+
+        assertEquals(describe(snapshot), describe(BinarySnapshot.fromCsv(directory.getPath())));
+    }
+
+    @Test
+    void isCurrentUntilSourceChanges() throws IOException {
+        assertTrue(snapshot.toCsv(directory.getPath()));
+        snapshot.write(file, BinarySnapshot.stamps(directory.getPath()));
+        assertNotNull(BinarySnapshot.readIfCurrent(file, directory.getPath()));
+
+        CSVHandler.saveCourses(snapshot.getCourses().subList(0, 1), new File(directory, "courses.csv").getPath());
+        assertNull(BinarySnapshot.readIfCurrent(file, directory.getPath()));
+    }
+
+    @Test
+    void isStaleAfterSameLengthEditWithinTimestampGranularity() throws IOException {
+        assertTrue(snapshot.toCsv(directory.getPath()));
+        snapshot.write(file, BinarySnapshot.stamps(directory.getPath()));
+
+        File courses = new File(directory, "courses.csv");
+        long modified = courses.lastModified();
+        long length = courses.length();
+        String content = new String(Files.readAllBytes(courses.toPath()), StandardCharsets.UTF_8);
+        Files.write(courses.toPath(), content.replace(",45,", ",46,").getBytes(StandardCharsets.UTF_8));
+        assertTrue(courses.setLastModified(modified));
+        assertEquals(length, courses.length());
+
+        assertNull(BinarySnapshot.readIfCurrent(file, directory.getPath()));
+    }
+
+    @Test
+    void ignoresFileThatIsNotASnapshot() throws IOException {
+        Files.write(file.toPath(), "day,time\n".getBytes(StandardCharsets.UTF_8));
+
+        assertNull(BinarySnapshot.readIfCurrent(file, directory.getPath()));
+        assertThrows(IOException.class, () -> BinarySnapshot.read(file));
+    }
+}
@@ -0,0 +1,188 @@
+package database;
+
+import model.*;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.*;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ChangeJournalTest {
+    @TempDir
+    File directory;
+
+    private File journalFile;
+    private File compactingFile;
+    private final List<Classroom> classrooms = new ArrayList<>();
+    private final List<Course> courses = new ArrayList<>();
+    private final List<Instructor> instructors = new ArrayList<>();
+
+    @BeforeEach
+    void setUp() {
+        journalFile = new File(directory, "catalogue.journal");
+        compactingFile = new File(directory, "catalogue.journal.compacting");
+    }
+
+    private static Course course(String code, String subject) {
+        return new Course(code, subject, "Computer Science", 1, 60, 3, 2, "1", "2", "MWF");
+    }
+
+    // Replays the files on disk into empty lists, as a restart would
+    private int replayFromDisk() {
+        classrooms.clear();
+        courses.clear();
+        instructors.clear();
+        return new ChangeJournal(directory.getPath()).replay(classrooms, courses, instructors);
+    }
+
+    private void appendRaw(String text) throws IOException {
+        try (FileOutputStream out = new FileOutputStream(journalFile, true)) {
+            out.write(text.getBytes(StandardCharsets.UTF_8));
+        }
+    }
+
+    @Test
+    void replaysMultilineAndUtf8Records() {
+        Course course = course("CSF101", "Programming, \"Part 1\"\nwith labs");
+        Instructor instructor = new Instructor(7, "Zoë", "Müller", "Computer Science");
+        ChangeJournal journal = new ChangeJournal(directory.getPath());
+        journal.put(course);
+        journal.put(instructor);
+        assertEquals(2, journal.getRecordCount());
+
+        assertEquals(2, replayFromDisk());
+        assertEquals(CSVHandler.formatCourse(course), CSVHandler.formatCourse(courses.get(0)));
+        assertEquals(CSVHandler.formatInstructor(instructor), CSVHandler.formatInstructor(instructors.get(0)));
+    }
+
+    @Test
+    void laterRecordsReplaceAndDeleteEarlierOnes() {
+        ChangeJournal journal = new ChangeJournal(directory.getPath());
+        journal.put(new Classroom(101, 40, false, 0, "Lecture"));
+        journal.put(new Classroom(101, 80, true, 0, "Lecture"));
+        journal.put(new Classroom(102, 30, true, 30, "Lab"));
+        journal.deleteClassroom(102);
+
+        assertEquals(4, replayFromDisk());
+        assertEquals(1, classrooms.size());
+        assertEquals(80, classrooms.get(0).getCapacity());
+    }
+
+    @Test
+    void replayUpdatesLoadedSnapshotInPlace() {
+        classrooms.add(new Classroom(101, 40, false, 0, "Lecture"));
+        classrooms.add(new Classroom(102, 30, true, 30, "Lab"));
+        new ChangeJournal(directory.getPath()).put(new Classroom(101, 90, false, 0, "Lecture"));
+
+        new ChangeJournal(directory.getPath()).replay(classrooms, courses, instructors);
+
+        assertEquals(2, classrooms.size());
+        assertEquals(101, classrooms.get(0).getId());
+        assertEquals(90, classrooms.get(0).getCapacity());
+    }
+
+    @Test
+    void deletesCourseCodesWithQuotesAndBlanks() {
+        ChangeJournal journal = new ChangeJournal(directory.getPath());
+        journal.put(course("CS\"1", "Quoted"));
+        journal.put(course(" CS2 ", "Padded"));
+        journal.deleteCourse("CS\"1");
+        journal.deleteCourse(" CS2 ");
+        journal.put(new Instructor(3, "Ada", "Lovelace", "Computer Science"));
+
+        assertEquals(5, replayFromDisk());
+        assertTrue(courses.isEmpty());
+        assertEquals(1, instructors.size());
+    }
+
+    @Test
+    void ignoresRecordTornByCrash() throws IOException {
+        ChangeJournal journal = new ChangeJournal(directory.getPath());
+        journal.put(course("CSF101", "Programming"));
+        journal.put(new Instructor(7, "Ada", "Lovelace", "Computer Science"));
+        byte[] complete = Files.readAllBytes(journalFile.toPath());
+        appendRaw("PUT,COURSES,CSF102,\"Unfinished");
+
+        byte[] torn = Files.readAllBytes(journalFile.toPath());
+        assertEquals(complete.length, ChangeJournal.completeLength(torn));
+        assertEquals(2, ChangeJournal.records(torn).size());
+        assertEquals(2, replayFromDisk());
+        assertEquals(1, courses.size());
+    }
+
+    @Test
+    void appendAfterCrashTrimsTornRecordFirst() throws IOException {
+        new ChangeJournal(directory.getPath()).put(new Instructor(7, "Ada", "Lovelace", "Computer Science"));
+        appendRaw("PUT,COURSES,CSF102,\"Unfinished");
+
+        // Without the trim the open quote would swallow both new records
+        ChangeJournal restarted = new ChangeJournal(directory.getPath());
+        restarted.replay(classrooms, courses, instructors);
+        restarted.deleteInstructor(7);
+        restarted.put(new Classroom(101, 60, true, 0, "Lecture"));
+
+        assertEquals(3, replayFromDisk());
+        assertTrue(instructors.isEmpty());
+        assertEquals(1, classrooms.size());
+        assertTrue(courses.isEmpty());
+        assertEquals(Files.size(journalFile.toPath()),
+                     ChangeJournal.completeLength(Files.readAllBytes(journalFile.toPath())));
+    }
+
+    @Test
+    void skipsUnreadableRecords() throws IOException {
+        appendRaw("PUT,ROOMS,1\nDELETE,CLASSROOMS,abc\n");
+        new ChangeJournal(directory.getPath()).put(new Classroom(5, 20, false, 0, "Lecture"));
+
+        assertEquals(1, replayFromDisk());
+        assertEquals(1, classrooms.size());
+    }
+
+    @Test
+    void compactionMovesJournalAsideUntilLatestRoundFinishes() {
+        ChangeJournal journal = new ChangeJournal(directory.getPath());
+        journal.put(new Classroom(1, 40, false, 0, "Lecture"));
+        int first = journal.beginCompaction();
+        assertTrue(compactingFile.exists());
+        assertFalse(journalFile.exists());
+        assertEquals(EnumSet.of(WriteBehindStore.Entity.CLASSROOMS), journal.getCompactingEntities());
+        assertEquals(0, journal.getRecordCount());
+
+        // A second round before the first finishes merges both journals
+        journal.put(new Classroom(2, 30, true, 30, "Lab"));
+        journal.deleteClassroom(1);
+        int second = journal.beginCompaction();
+        assertTrue(compactingFile.exists());
+        assertFalse(journalFile.exists());
+
+        assertEquals(3, replayFromDisk());
+        assertEquals(1, classrooms.size());
+        assertEquals(2, classrooms.get(0).getId());
+
+        journal.finishCompaction(first);
+        assertTrue(compactingFile.exists());
+        journal.finishCompaction(second);
+        assertFalse(compactingFile.exists());
+        assertTrue(journal.getCompactingEntities().isEmpty());
+    }
+
+    @Test
+    void replayIncludesUnfinishedCompaction() {
+        ChangeJournal journal = new ChangeJournal(directory.getPath());
+        journal.put(new Classroom(1, 40, false, 0, "Lecture"));
+        journal.beginCompaction();
+        journal.put(new Classroom(2, 30, true, 30, "Lab"));
+
+        // Restart before the snapshots were written: both files are replayed
+        ChangeJournal restarted = new ChangeJournal(directory.getPath());
+        assertEquals(2, restarted.replay(classrooms, courses, instructors));
+        assertEquals(2, classrooms.size());
+        assertEquals(EnumSet.of(WriteBehindStore.Entity.CLASSROOMS), restarted.getCompactingEntities());
+    }
+}
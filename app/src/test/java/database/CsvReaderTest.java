@@ -0,0 +1,93 @@
+package database;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class CsvReaderTest {
+    @TempDir
+    File directory;
+
+    private CsvReader open(String content) throws IOException {
+        File file = new File(directory, "reader.csv");
+        Files.write(file.toPath(), content.getBytes(StandardCharsets.UTF_8));
+        return CsvReader.open(file.getPath());
+    }
+
+    @Test
+    void readsQuotedCommasAndDoubledQuotesAfterByteOrderMark() throws IOException {
+        CsvReader reader = open("\uFEFFplain , \"a,b\",\"say \"\"hi\"\"\"\r\n");
+
+        assertTrue(reader.next());
+        CsvReader.Row row = reader.row();
+        assertEquals(3, row.size());
+        assertEquals("plain", row.getString(0));
+        assertEquals("a,b", row.getString(1));
+        assertEquals("say \"hi\"", row.getString(2));
+        assertNull(row.getError());
+        assertFalse(reader.next());
+    }
+
+    @Test
+    void keepsLineBreaksInsideQuotesAndCountsPhysicalLines() throws IOException {
+        CsvReader reader = open("first,1\r\n\"two\nlines\",42\r\nlast,3\n");
+
+        assertTrue(reader.next());
+        assertTrue(reader.next());
+        assertEquals(2, reader.getLineNumber());
+        assertEquals("two\nlines", reader.row().getString(0));
+        assertEquals(42, reader.row().getInt(1));
+        assertTrue(reader.next());
+        assertEquals(4, reader.getLineNumber());
+        assertEquals("last", reader.row().getString(0));
+    }
+
+    @Test
+    void reportsBlankLines() throws IOException {
+        CsvReader reader = open("a,b\n\nc,d\n");
+
+        assertTrue(reader.next());
+        assertTrue(reader.next());
+        assertTrue(reader.row().isBlank());
+        assertTrue(reader.next());
+        assertEquals("c", reader.row().getString(0));
+    }
+
+    @Test
+    void reportsRecordCutOffInsideQuotes() throws IOException {
+        CsvReader reader = open("ok,1\nlast,\"cut off");
+
+        assertTrue(reader.next());
+        assertNull(reader.row().getError());
+        assertTrue(reader.next());
+        assertNotNull(reader.row().getError());
+        assertFalse(reader.next());
+    }
+
+    @Test
+    void reportsTextAfterClosingQuote() {
+        assertNotNull(CsvReader.parseLine("x,\"y\" z").getError());
+    }
+
+    @Test
+    void rejectsMalformedNumbers() {
+        CsvReader.Row row = CsvReader.parseLine("12x,99999999999");
+
+        assertThrows(NumberFormatException.class, () -> row.getInt(0));
+        assertThrows(NumberFormatException.class, () -> row.getInt(1));
+        assertThrows(IllegalArgumentException.class, () -> row.getString(2));
+    }
+
+    @Test
+    void quotedValuesRoundTrip() {
+        for (String value : new String[] {"plain", "comma, \"quote\" and\nbreak", " padded ", "\tlead"}) {
+            assertEquals(value, CsvReader.parseLine(CsvReader.quote(value)).getString(0));
+        }
+        assertEquals("plain", CsvReader.quote("plain"));
+    }
+}
@@ -0,0 +1,102 @@
+package database;
+
+import database.WriteBehindStore.Entity;
+import model.*;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import java.io.File;
+import java.io.IOException;
+import java.util.*;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class WriteBehindStoreTest {
+    @TempDir
+    File directory;
+
+    private WriteBehindStore store;
+
+    @AfterEach
+    void tearDown() {
+        if (store != null) {
+            store.close();
+        }
+    }
+
+    private static List<Classroom> rooms(int... ids) {
+        List<Classroom> rooms = new ArrayList<>();
+        for (int id : ids) {
+            rooms.add(new Classroom(id, 40, false, 0, "Lecture"));
+        }
+        return rooms;
+    }
+
+    @Test
+    void flushWritesPendingFiles() {
+        store = new WriteBehindStore(directory.getPath(), 60000);
+        store.markDirty(Entity.CLASSROOMS, rooms(101, 102));
+        assertTrue(store.isDirty(Entity.CLASSROOMS));
+
+        assertTrue(store.flush());
+        assertFalse(store.isDirty(Entity.CLASSROOMS));
+        assertEquals(2, CSVHandler.loadClassrooms(store.getFile(Entity.CLASSROOMS)).size());
+    }
+
+    @Test
+    void listIsCopiedWhenMarked() {
+        store = new WriteBehindStore(directory.getPath(), 60000);
+        List<Classroom> rooms = rooms(101);
+        store.markDirty(Entity.CLASSROOMS, rooms);
+        rooms.add(new Classroom(102, 40, false, 0, "Lecture"));
+
+        assertTrue(store.flush());
+        assertEquals(1, CSVHandler.loadClassrooms(store.getFile(Entity.CLASSROOMS)).size());
+    }
+
+    @Test
+    void failedWriteStaysPendingUntilItSucceeds() throws IOException {
+        store = new WriteBehindStore(directory.getPath(), 60000);
+        // A directory where the temporary file would go makes the save fail;
+        // the file inside keeps the failed save from deleting it
+        File blocker = new File(directory, "classrooms.csv.tmp");
+        File content = new File(blocker, "keep");
+        assertTrue(blocker.mkdir());
+        assertTrue(content.createNewFile());
+        store.markDirty(Entity.CLASSROOMS, rooms(101));
+
+        assertFalse(store.flush());
+        assertTrue(store.isDirty(Entity.CLASSROOMS));
+
+        assertTrue(content.delete());
+        assertTrue(blocker.delete());
+        assertTrue(store.flush());
+        assertFalse(store.isDirty(Entity.CLASSROOMS));
+        assertEquals(1, CSVHandler.loadClassrooms(store.getFile(Entity.CLASSROOMS)).size());
+    }
+
+    @Test
+    void writesInBackgroundAfterDebounce() throws InterruptedException {
+        store = new WriteBehindStore(directory.getPath(), 10);
+        store.markDirty(Entity.CLASSROOMS, rooms(101));
+        CountDownLatch flushed = new CountDownLatch(1);
+
+        store.flushInBackground(flushed::countDown);
+
+        assertTrue(flushed.await(10, TimeUnit.SECONDS));
+        assertEquals(1, CSVHandler.loadClassrooms(store.getFile(Entity.CLASSROOMS)).size());
+    }
+
+    @Test
+    void closeWritesPendingFiles() {
+        store = new WriteBehindStore(directory.getPath(), 60000);
+        store.markDirty(Entity.CLASSROOMS, rooms(101, 102, 103));
+
+        store.close();
+        store = null;
+
+        assertEquals(3, CSVHandler.loadClassrooms(new File(directory, "classrooms.csv").getPath()).size());
+    }
+}
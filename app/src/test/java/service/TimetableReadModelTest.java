@@ -0,0 +1,103 @@
+package service;
+
+import model.*;
+import service.TimetableReadModel.Response;
+import org.junit.jupiter.api.Test;
+import java.nio.charset.StandardCharsets;
+import java.util.*;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class TimetableReadModelTest {
+    private final List<Classroom> classrooms = Arrays.asList(
+        new Classroom(102, 60, true, 0, "Lecture"),
+        new Classroom(101, 40, true, 0, "Lecture"),
+        new Classroom(201, 30, true, 30, "Lab"));
+    private final List<Course> courses = Arrays.asList(
+        new Course("CSF101", "Programming \"1\"", "Computer Science", 1, 30, 2, 1, "1", "2", "MWF"),
+        new Course("MAF201", "Linear Algebra", "Mathematics", 2, 30, 1, 0, "3", "0", "TTS"));
+    private final List<Instructor> instructors = Arrays.asList(
+        new Instructor(1, "Ada", "Lovelace", "Computer Science"),
+        new Instructor(2, "Alan", "Turing", "Computer Science"),
+        new Instructor(3, "Emmy", "Noether", "Mathematics"),
+        new Instructor(4, "Idle", "Person", "Mathematics"));
+
+    private TimetableReadModel model(long version, TimetableEntry... entries) {
+        return new TimetableReadModel(version, Arrays.asList(entries), new ConflictReport(),
+                                      new CatalogueIndex(classrooms, courses, instructors),
+                                      classrooms, courses, instructors);
+    }
+
+    private static String body(Response response) {
+        return new String(response.getBody(), StandardCharsets.UTF_8);
+    }
+
+    @Test
+    void groupsEntriesInDayAndPeriodOrder() {
+        TimetableReadModel model = model(1,
+            new TimetableEntry("Wednesday", "9:00 - 10:00", "CSF101", 101, 1, "Lecture"),
+            new TimetableEntry("Monday", "10:00 - 11:00", "CSF101", 101, 1, "Lecture"),
+            new TimetableEntry("Monday", "8:00 - 10:00", "CSF101", 201, 2, "Lab"),
+            new TimetableEntry("Tuesday", "8:00 - 9:00", "MAF201", 102, 3, "Lecture"));
+
+        String room = body(model.room(101));
+        assertTrue(room.indexOf("Monday") < room.indexOf("Wednesday"), room);
+        assertFalse(room.contains("Lab"), room);
+
+        String cohort = body(model.cohort("Computer Science", 1));
+        assertTrue(cohort.indexOf("8:00 - 10:00") < cohort.indexOf("10:00 - 11:00"), cohort);
+        assertTrue(cohort.contains("\"subject\":\"Programming \\\"1\\\"\""), cohort);
+        assertFalse(cohort.contains("MAF201"), cohort);
+    }
+
+    @Test
+    void answersCatalogueMembersWithoutEntries() {
+        TimetableReadModel model = model(1);
+
+        assertEquals(200, model.instructor(4).getStatus());
+        assertTrue(body(model.instructor(4)).endsWith("\"entries\":[]}"));
+        assertEquals(200, model.room(201).getStatus());
+        assertEquals(200, model.cohort("Mathematics", 2).getStatus());
+        assertEquals(404, model.instructor(99).getStatus());
+        assertEquals(404, model.room(999).getStatus());
+        assertEquals(404, model.cohort("Mathematics", 1).getStatus());
+    }
+
+    @Test
+    void findsRoomsFreeForWholeSpan() {
+        TimetableReadModel model = model(1,
+            new TimetableEntry("Monday", "9:00 - 10:00", "CSF101", 101, 1, "Lecture"),
+            new TimetableEntry("Monday", "8:00 - 10:00", "CSF101", 201, 2, "Lab"));
+
+        String free = body(model.freeRooms("Monday", "8:00 - 9:00", null, 0));
+        assertTrue(free.contains("\"id\":101"), free);
+        assertTrue(free.contains("\"id\":102"), free);
+        assertFalse(free.contains("\"id\":201"), free);
+
+        free = body(model.freeRooms("Monday", "8:00 - 10:00", null, 0));
+        assertFalse(free.contains("\"id\":101"), free);
+        assertTrue(free.indexOf("\"id\":102") > 0, free);
+
+        free = body(model.freeRooms("Monday", "10:00 - 11:00", "Lecture", 50));
+        assertTrue(free.contains("\"id\":102"), free);
+        assertFalse(free.contains("\"id\":101"), free);
+        assertFalse(free.contains("\"id\":201"), free);
+
+        assertEquals(400, model.freeRooms("Sunday", "8:00 - 9:00", null, 0).getStatus());
+        assertEquals(400, model.freeRooms("Monday", "7:00 - 8:00", null, 0).getStatus());
+    }
+
+    @Test
+    void cachesResponsesAndKeepsEtagOfUnchangedSchedule() {
+        TimetableEntry lecture = new TimetableEntry("Monday", "9:00 - 10:00", "CSF101", 101, 1, "Lecture");
+        TimetableReadModel before = model(1, lecture,
+            new TimetableEntry("Tuesday", "8:00 - 9:00", "MAF201", 102, 3, "Lecture"));
+        TimetableReadModel after = model(2, lecture,
+            new TimetableEntry("Thursday", "8:00 - 9:00", "MAF201", 102, 3, "Lecture"));
+
+        assertSame(before.instructor(1), before.instructor(1));
+        assertEquals(before.instructor(1).getEtag(), after.instructor(1).getEtag());
+        assertNotEquals(before.instructor(3).getEtag(), after.instructor(3).getEtag());
+        assertNotEquals(before.status().getEtag(), after.status().getEtag());
+    }
+}
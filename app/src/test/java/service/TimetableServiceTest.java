@@ -0,0 +1,173 @@
+package service;
+
+import controller.SolverMode;
+import database.CSVHandler;
+import model.*;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import java.io.File;
+import java.util.*;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class TimetableServiceTest {
+    @TempDir
+    File directory;
+
+    private final List<TimetableService> services = new ArrayList<>();
+
+    @BeforeEach
+    void setUp() {
+        assertTrue(CSVHandler.saveClassrooms(Arrays.asList(
+            new Classroom(101, 60, true, 0, "Lecture"),
+            new Classroom(102, 60, true, 0, "Lecture"),
+            new Classroom(201, 40, true, 40, "Lab"),
+            new Classroom(202, 40, true, 40, "Lab")), file("classrooms.csv")));
+        assertTrue(CSVHandler.saveCourses(Arrays.asList(
+            new Course("CSF101", "Introduction to Programming", "Computer Science", 1, 40, 3, 1, "1", "2", "MWF"),
+            new Course("CSF102", "Discrete Mathematics", "Computer Science", 1, 40, 3, 0, "3", "0", "TTS"),
+            new Course("MAF201", "Linear Algebra", "Mathematics", 2, 40, 3, 1, "4", "5", "MWF")),
+            file("courses.csv")));
+        assertTrue(CSVHandler.saveInstructors(Arrays.asList(
+            new Instructor(1, "John", "Smith", "Computer Science"),
+            new Instructor(2, "Alice", "Johnson", "Computer Science"),
+            new Instructor(3, "Bob", "Williams", "Computer Science"),
+            new Instructor(4, "Emmy", "Noether", "Mathematics"),
+            new Instructor(5, "Ada", "Lovelace", "Mathematics"),
+            new Instructor(6, "Marie", "Curie", "Physics")), file("instructors.csv")));
+        assertTrue(CSVHandler.saveInstructorCourses(new ArrayList<InstructorCourse>(), file("instructorCourse.csv")));
+    }
+
+    @AfterEach
+    void tearDown() {
+        for (TimetableService service : services) {
+            service.close();
+        }
+    }
+
+    private String file(String name) {
+        return new File(directory, name).getPath();
+    }
+
+    private TimetableService open() {
+        TimetableService service = new TimetableService(directory.getPath());
+        services.add(service);
+        service.setAttempts(4);
+        service.setParallelism(2);
+        service.setRandomSeed(1);
+        return service;
+    }
+
+    private static Set<String> placements(Collection<TimetableEntry> entries) {
+        Set<String> placements = new TreeSet<>();
+        for (TimetableEntry e : entries) {
+            placements.add(e.getDay() + "|" + e.getTime() + "|" + e.getCourseCode() + "|" + e.getRoomId() + "|" +
+                           e.getInstructorId() + "|" + e.getSessionType());
+        }
+        return placements;
+    }
+
+    private static int countEntries(List<TimetableEntry> timetable, String courseCode) {
+        int count = 0;
+        for (TimetableEntry entry : timetable) {
+            if (entry.getCourseCode().equals(courseCode)) {
+                count++;
+            }
+        }
+        return count;
+    }
+
+    @Test
+    void generatesConflictFreeTimetable() {
+        TimetableService service = open();
+
+        service.generateTimetable();
+
+        assertTrue(service.getConflicts().isEmpty(), service.getConflicts().summary());
+        assertEquals(11, service.getTimetable().size());
+    }
+
+    @Test
+    void backtrackingGeneratesConflictFreeTimetable() {
+        TimetableService service = open();
+        service.setSolverMode(SolverMode.BACKTRACKING);
+        service.setTimeBudgetMillis(5000);
+
+        service.generateTimetable();
+
+        assertTrue(service.getConflicts().isEmpty(), service.getConflicts().summary());
+        assertEquals(11, service.getTimetable().size());
+    }
+
+    @Test
+    void addingCourseKeepsPublishedSnapshotAndOtherEntries() {
+        TimetableService service = open();
+        service.generateTimetable();
+        ServiceSnapshot before = service.getSnapshot();
+        Set<String> placed = placements(before.getTimetable());
+
+        service.addCourse(new Course("PHF101", "Mechanics", "Physics", 1, 30, 3, 1, "6", "6", "TTS"));
+
+        ServiceSnapshot after = service.getSnapshot();
+        assertEquals(placed, placements(before.getTimetable()));
+        assertEquals(3, before.getCourses().size());
+        assertTrue(after.getVersion() > before.getVersion());
+        assertTrue(placements(after.getTimetable()).containsAll(placed));
+        assertEquals(4, countEntries(after.getTimetable(), "PHF101"));
+        assertTrue(after.getConflicts().isEmpty(), after.getConflicts().summary());
+    }
+
+    @Test
+    void deletingClassroomMovesItsEntries() {
+        TimetableService service = open();
+        service.generateTimetable();
+        int entries = service.getTimetable().size();
+
+        service.deleteClassroom(201);
+
+        for (TimetableEntry entry : service.getTimetable()) {
+            assertNotEquals(201, entry.getRoomId());
+        }
+        assertEquals(entries, service.getTimetable().size());
+        assertTrue(service.getConflicts().isEmpty(), service.getConflicts().summary());
+    }
+
+    @Test
+    void deletingCourseReleasesItsEntries() {
+        TimetableService service = open();
+        service.generateTimetable();
+
+        service.deleteCourse("MAF201");
+
+        assertEquals(0, countEntries(service.getTimetable(), "MAF201"));
+        assertEquals(7, service.getTimetable().size());
+        assertTrue(service.getConflicts().isEmpty(), service.getConflicts().summary());
+    }
+
+    @Test
+    void editsSurviveRestartBeforeCompaction() {
+        TimetableService service = open();
+        service.addCourse(new Course("PHF101", "Mechanics", "Physics", 1, 30, 3, 1, "6", "6", "TTS"));
+        service.deleteClassroom(202);
+        service.updateInstructor(new Instructor(6, "Marie", "Skłodowska-Curie", "Physics"));
+
+        // Opened while the first service still runs, so only the journal has the edits
+        TimetableService restarted = open();
+
+        assertEquals(4, restarted.getAllCourses().size());
+        assertEquals(3, restarted.getAllClassrooms().size());
+        assertEquals("Skłodowska-Curie", restarted.getCatalogueIndex().getInstructor(6).getLastName());
+    }
+
+    @Test
+    void flushWritesEditsToCatalogueFiles() {
+        TimetableService service = open();
+        service.deleteCourse("CSF102");
+        service.flush();
+
+        assertEquals(2, CSVHandler.loadCourses(file("courses.csv")).size());
+        assertFalse(new File(directory, "catalogue.journal").exists());
+    }
+}
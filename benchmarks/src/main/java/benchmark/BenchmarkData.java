@@ -0,0 +1,32 @@
+package benchmark;
+
+import database.CatalogueGenerator;
+import java.io.File;
+
+// Synthetic catalogues for the benchmarks and cleanup for the files they write
+public final class BenchmarkData {
+    private static final long SEED = 42;
+
+    private BenchmarkData() {
+    }
+
+    // Same catalogue for every run at a given scale, so scores stay comparable
+    public static CatalogueGenerator catalogue(int courses, int rooms) {
+        CatalogueGenerator generator = new CatalogueGenerator();
+        generator.setCourseCount(courses);
+        generator.setRoomCount(rooms);
+        generator.setSeed(SEED);
+        generator.generate();
+        return generator;
+    }
+
+    static void deleteDirectory(File directory) {
+        File[] files = directory.listFiles();
+        if (files != null) {
+            for (File file : files) {
+                file.delete();
+            }
+        }
+        directory.delete();
+    }
+}
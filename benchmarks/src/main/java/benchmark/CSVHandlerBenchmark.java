@@ -0,0 +1,44 @@
+package benchmark;
+
+import database.CSVHandler;
+import model.Course;
+import org.openjdk.jmh.annotations.*;
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Parsing cost of courses.csv at different catalogue sizes.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class CSVHandlerBenchmark {
+    @Param({"50", "500", "5000"})
+    public int courses;
+
+    private File directory;
+    private String coursesFile;
+
+    @Setup(Level.Trial)
+    public void setUp() throws IOException {
+        directory = Files.createTempDirectory("timetable-bench").toFile();
+        BenchmarkData.catalogue(courses, 20).writeTo(directory);
+        coursesFile = new File(directory, "courses.csv").getPath();
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        BenchmarkData.deleteDirectory(directory);
+    }
+
+    @Benchmark
+    public List<Course> loadCourses() {
+        return CSVHandler.loadCourses(coursesFile);
+    }
+}
@@ -0,0 +1,52 @@
+package benchmark;
+
+import model.TimetableEntry;
+import org.openjdk.jmh.annotations.*;
+import service.TimetableService;
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * End-to-end generation as the UI runs it: up to MAX_ATTEMPTS parallel
+ * greedy attempts over a catalogue loaded from CSV. A single run at the
+ * larger scales takes seconds, so this measures single shots.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 2)
+@Measurement(iterations = 5)
+@Fork(1)
+public class TimetableServiceBenchmark {
+    @Param({"50", "500", "5000"})
+    public int courses;
+
+    @Param({"20", "100", "500"})
+    public int rooms;
+
+    private File directory;
+    private TimetableService service;
+
+    @Setup(Level.Trial)
+    public void setUp() throws IOException {
+        directory = Files.createTempDirectory("timetable-bench").toFile();
+        BenchmarkData.catalogue(courses, rooms).writeTo(directory);
+        service = new TimetableService(directory.getPath());
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        // Stops the background writer before its files are deleted under it
+        service.close();
+        BenchmarkData.deleteDirectory(directory);
+    }
+
+    @Benchmark
+    public List<TimetableEntry> generateTimetable() {
+        service.generateTimetable();
+        return service.getTimetable();
+    }
+}
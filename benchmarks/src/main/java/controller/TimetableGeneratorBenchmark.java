@@ -0,0 +1,106 @@
+package controller;
+
+import benchmark.BenchmarkData;
+import database.CatalogueGenerator;
+import model.*;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Benchmarks for the greedy generator and the pieces of its inner loop.
+ *
+ * Lives in the controller package so it can call the package-private
+ * findSuitableRoom and verifyNoConflicts directly. The per-call benchmarks
+ * run against the occupancy left behind by a full generation, which is the
+ * state those methods see in practice.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class TimetableGeneratorBenchmark {
+    @Param({"50", "500", "5000"})
+    public int courses;
+
+    @Param({"20", "100", "500"})
+    public int rooms;
+
+    private CatalogueGenerator catalogue;
+    private TimetableGenerator generator;
+    private List<Course> courseList;
+
+    // Half-full grid for the cohort check that replaced isDomainYearConflict
+    private ResourceIndex resourceIndex;
+    private OccupancyGrid occupancy;
+    private int[] courseCohorts;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        catalogue = BenchmarkData.catalogue(courses, rooms);
+        courseList = catalogue.getCourses();
+        generator = new TimetableGenerator(catalogue.getClassrooms(), courseList,
+                                           catalogue.getInstructors(), catalogue.getInstructorCourses());
+        generator.generateTimetable();
+
+        resourceIndex = new ResourceIndex(catalogue.getClassrooms(), courseList, catalogue.getInstructors());
+        int days = TimetableGenerator.getAllDays().length;
+        int periods = TimetableGenerator.getLectureTimeSlots().length;
+        occupancy = new OccupancyGrid(days, periods, resourceIndex.getRoomCount(),
+                                      resourceIndex.getInstructorCount(), resourceIndex.getCohortCount());
+        Random random = new Random(7);
+        for (int slot = 0; slot < occupancy.getSlotCount(); slot++) {
+            for (int cohort = 0; cohort < resourceIndex.getCohortCount(); cohort++) {
+                if (random.nextBoolean()) {
+                    occupancy.occupy(slot, 0, 0, cohort);
+                }
+            }
+        }
+        courseCohorts = new int[courseList.size()];
+        for (int i = 0; i < courseCohorts.length; i++) {
+            courseCohorts[i] = resourceIndex.cohortIndex(courseList.get(i));
+        }
+    }
+
+    @Benchmark
+    @OutputTimeUnit(TimeUnit.MILLISECONDS)
+    public List<TimetableEntry> generateTimetable() {
+        return generator.generateTimetable();
+    }
+
+    // One room lookup per course, for a single-period lecture and a lab block
+    @Benchmark
+    public void findSuitableRoom(Blackhole blackhole) {
+        int periods = TimetableGenerator.getLectureTimeSlots().length;
+        for (int i = 0; i < courseList.size(); i++) {
+            Course course = courseList.get(i);
+            int day = i % 6;
+            blackhole.consume(generator.findSuitableRoom(course, "Lecture", day, i % periods, 1));
+            blackhole.consume(generator.findSuitableRoom(course, "Lab", day, i % (periods - 1), 2));
+        }
+    }
+
+    // Domain/year clash check for every course in every slot
+    @Benchmark
+    public int cohortConflict() {
+        int busy = 0;
+        for (int slot = 0; slot < occupancy.getSlotCount(); slot++) {
+            for (int cohort : courseCohorts) {
+                if (!occupancy.isCohortFree(slot, cohort)) {
+                    busy++;
+                }
+            }
+        }
+        return busy;
+    }
+
+    @Benchmark
+    public ConflictReport verifyNoConflicts() {
+        generator.verifyNoConflicts();
+        return generator.getConflicts();
+    }
+}
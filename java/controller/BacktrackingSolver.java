@@ -0,0 +1,676 @@
+package controller;
+
+import model.*;
+import java.util.*;
+import java.util.function.BooleanSupplier;
+
+/**
+ * Backtracking search engine for dense catalogues where the greedy pass gives up.
+ *
+ * Every lecture block (one period on up to three pattern days) and every lab
+ * session becomes a variable whose values are start periods. The search is
+ * forward checking with conflict-directed backjumping:
+ * <ul>
+ *   <li>the next variable is the one with the fewest viable values left,
+ *       ties going to the one sharing an instructor or cohort with most others;</li>
+ *   <li>after each placement the viable values of all open variables are
+ *       updated for the touched slots, and a wiped-out variable rejects the
+ *       placement straight away;</li>
+ *   <li>when a variable runs out of values the search jumps back to the most
+ *       recent placement that actually blocked it, not just the previous one.</li>
+ * </ul>
+ * Rooms are picked best-fit at placement time, like the greedy pass, and are
+ * never revisited, so the search is not complete: running out of values
+ * does not prove that no timetable exists. If the time budget runs out, the
+ * deepest partial assignment seen is kept and any sessions that still fit
+ * are added to it.
+ */
+public class BacktrackingSolver implements TimetableSolver {
+    private static final long DEFAULT_TIME_BUDGET_MILLIS = 10000;
+    private static final int LAB_DURATION = 2;
+
+    private List<Classroom> classrooms;
+    private List<Course> courses;
+    private List<Instructor> instructors;
+    private List<TimetableEntry> timetable;
+    private ConflictReport conflicts;
+    private Random random;
+    private int strategyVariant;
+    private long timeBudgetMillis = DEFAULT_TIME_BUDGET_MILLIS;
+    private BooleanSupplier stopCondition = () -> false;
+
+    // Search state, rebuilt for every run
+    private ResourceIndex resourceIndex;
+    private OccupancyGrid occupancy;
+    private Session[] sessions;
+    private int periods;
+    private int days;
+    private int[] roomOwner;       // slot * rooms + room -> session
+    private int[] instructorOwner; // slot * instructors + instructor -> session
+    private int[] cohortOwner;     // slot * cohorts + cohort -> session
+    private int[] labDayOwner;     // course * days + day -> lab session
+    private int[] stack;
+    private int depth;
+    private boolean solved;
+    private boolean stopped;
+
+    public BacktrackingSolver(List<Classroom> classrooms, List<Course> courses,
+                              List<Instructor> instructors, List<InstructorCourse> instructorCourses) {
+        this.classrooms = classrooms;
+        this.courses = courses;
+        this.instructors = instructors;
+        this.timetable = new ArrayList<>();
+        this.conflicts = new ConflictReport();
+        this.random = new Random();
+    }
+
+    @Override
+    public void setRandomSeed(long seed) {
+        this.random = new Random(seed);
+    }
+
+    // Variant 0 tries periods earliest first; any other variant shuffles value order
+    @Override
+    public void setStrategyVariant(int variant) {
+        this.strategyVariant = variant;
+    }
+
+    @Override
+    public void setStopCondition(BooleanSupplier stopCondition) {
+        this.stopCondition = stopCondition;
+    }
+
+    public void setTimeBudgetMillis(long timeBudgetMillis) {
+        this.timeBudgetMillis = timeBudgetMillis;
+    }
+
+    @Override
+    public List<TimetableEntry> generateTimetable() {
+        System.out.println("Starting backtracking timetable generation...");
+
+        timetable.clear();
+        conflicts.clear();
+        buildSessions();
+
+        int[] best = search(System.currentTimeMillis() + timeBudgetMillis);
+        if (stopped) {
+            return timetable;
+        }
+
+        if (!solved) {
+            // Budget ran out or the catalogue is infeasible: keep the deepest
+            // assignment and add whatever still fits around it
+            restore(best);
+            fillRemaining();
+        }
+
+        buildTimetable();
+        TimetableGenerator.reportUnscheduled(courses, timetable, conflicts);
+
+        return timetable;
+    }
+
+    @Override
+    public ConflictReport getConflicts() {
+        return conflicts;
+    }
+
+    private void buildSessions() {
+        String[] allDays = TimetableGenerator.getAllDays();
+        days = allDays.length;
+        periods = TimetableGenerator.getLectureTimeSlots().length;
+
+        resourceIndex = new ResourceIndex(classrooms, courses, instructors);
+        occupancy = new OccupancyGrid(days, periods, resourceIndex.getRoomCount(),
+                                      resourceIndex.getInstructorCount(), resourceIndex.getCohortCount());
+
+        List<Session> created = new ArrayList<>();
+        for (int c = 0; c < courses.size(); c++) {
+            Course course = courses.get(c);
+
+            if (course.getLabHours() > 0 && !course.getLabInstructor().equals("0")) {
+                int instructorId = Integer.parseInt(course.getLabInstructor());
+                // One lab per day, so at most one lab session per weekday
+                for (int i = 0; i < Math.min(course.getLabHours(), days); i++) {
+                    created.add(new Session(c, course, "Lab", instructorId, null, labValues()));
+                }
+            }
+
+            if (course.getLectureHours() > 0 && !course.getLectureInstructor().equals("0")) {
+                int instructorId = Integer.parseInt(course.getLectureInstructor());
+                int[] patternDays = TimetableGenerator.patternDayIndices(course.getSchedulePattern());
+                int remaining = course.getLectureHours();
+                // Blocks share the cohort, so no more blocks than periods in a day
+                for (int block = 0; block < periods && remaining > 0; block++) {
+                    int blockDays = Math.min(patternDays.length, remaining);
+                    created.add(new Session(c, course, "Lecture", instructorId,
+                                            Arrays.copyOf(patternDays, blockDays), lectureValues()));
+                    remaining -= blockDays;
+                }
+            }
+        }
+        sessions = created.toArray(new Session[0]);
+
+        int slotCount = occupancy.getSlotCount();
+        roomOwner = filled(slotCount * resourceIndex.getRoomCount());
+        instructorOwner = filled(slotCount * resourceIndex.getInstructorCount());
+        cohortOwner = filled(slotCount * resourceIndex.getCohortCount());
+        labDayOwner = filled(courses.size() * days);
+        stack = new int[sessions.length];
+        depth = 0;
+
+        // Degree: how many other sessions compete for the same instructor or cohort
+        int[] instructorLoad = new int[resourceIndex.getInstructorCount()];
+        int[] cohortLoad = new int[resourceIndex.getCohortCount()];
+        for (Session s : sessions) {
+            instructorLoad[s.instructor]++;
+            cohortLoad[s.cohort]++;
+        }
+        for (Session s : sessions) {
+            s.degree = instructorLoad[s.instructor] + cohortLoad[s.cohort] - 2;
+            refreshAll(s);
+            // Nothing blocks it yet, so no placement order will help
+            s.impossible = s.viableCount == 0;
+        }
+    }
+
+    private int[] lectureValues() {
+        int[] values = new int[periods];
+        for (int p = 0; p < periods; p++) {
+            values[p] = p;
+        }
+        return shuffled(values);
+    }
+
+    // Lab values are start slots, every day crossed with every start period
+    private int[] labValues() {
+        int starts = periods - (LAB_DURATION - 1);
+        int[] values = new int[days * starts];
+        for (int d = 0; d < days; d++) {
+            for (int p = 0; p < starts; p++) {
+                values[d * starts + p] = occupancy.slot(d, p);
+            }
+        }
+        return shuffled(values);
+    }
+
+    private int[] shuffled(int[] values) {
+        if (strategyVariant != 0) {
+            for (int i = values.length - 1; i > 0; i--) {
+                int j = random.nextInt(i + 1);
+                int tmp = values[i];
+                values[i] = values[j];
+                values[j] = tmp;
+            }
+        }
+        return values;
+    }
+
+    private static int[] filled(int size) {
+        int[] owners = new int[size];
+        Arrays.fill(owners, -1);
+        return owners;
+    }
+
+    /**
+     * Runs the search until every session is placed, no start period is left
+     * to try for the chosen rooms or the deadline passes. Returns the deepest assignment seen as
+     * (session, value) pairs in placement order.
+     */
+    private int[] search(long deadline) {
+        int[] best = new int[0];
+        int steps = 0;
+        solved = false;
+        stopped = false;
+
+        int current = selectNext();
+        if (current >= 0) {
+            begin(current);
+        }
+
+        while (current >= 0) {
+            if ((++steps & 255) == 0) {
+                if (System.currentTimeMillis() > deadline) {
+                    System.out.println("Backtracking search stopped after reaching its time budget");
+                    break;
+                }
+                if (stopCondition.getAsBoolean()) {
+                    stopped = true;
+                    break;
+                }
+            }
+
+            Session x = sessions[current];
+            boolean placed = false;
+
+            while (x.nextValue < x.values.length) {
+                int value = x.nextValue++;
+                if (!x.viable[value]) {
+                    addBlockers(x, value, x.conflictSet);
+                    continue;
+                }
+
+                int wiped = place(current, value);
+                if (wiped < 0) {
+                    placed = true;
+                    break;
+                }
+
+                // Forward check failed: whatever blocks the wiped session is to blame too
+                addCulprits(sessions[wiped], x.conflictSet);
+                x.conflictSet.clear(current);
+                unplace(current);
+            }
+
+            if (placed) {
+                x.depth = depth;
+                stack[depth++] = current;
+                if (depth > best.length / 2) {
+                    best = snapshot();
+                }
+
+                current = selectNext();
+                if (current >= 0) {
+                    begin(current);
+                } else {
+                    solved = true;
+                }
+                continue;
+            }
+
+            // Out of values: jump back to the deepest placement that blocked us
+            int target = -1;
+            for (int s = x.conflictSet.nextSetBit(0); s >= 0; s = x.conflictSet.nextSetBit(s + 1)) {
+                if (sessions[s].depth >= 0 && (target < 0 || sessions[s].depth > sessions[target].depth)) {
+                    target = s;
+                }
+            }
+
+            if (target < 0) {
+                System.out.println("Backtracking search exhausted: no complete timetable found with greedy room choice");
+                break;
+            }
+
+            x.conflictSet.clear(target);
+            sessions[target].conflictSet.or(x.conflictSet);
+
+            int targetDepth = sessions[target].depth;
+            while (depth > targetDepth) {
+                int undone = stack[--depth];
+                unplace(undone);
+                sessions[undone].depth = -1;
+            }
+            current = target;
+        }
+
+        return best;
+    }
+
+    private void begin(int index) {
+        sessions[index].nextValue = 0;
+        sessions[index].conflictSet.clear();
+    }
+
+    // Open session with the fewest viable values, ties to the highest degree
+    private int selectNext() {
+        int best = -1;
+        for (int i = 0; i < sessions.length; i++) {
+            Session s = sessions[i];
+            if (s.depth >= 0 || s.impossible) {
+                continue;
+            }
+            if (best < 0 || s.viableCount < sessions[best].viableCount ||
+                (s.viableCount == sessions[best].viableCount && s.degree > sessions[best].degree)) {
+                best = i;
+            }
+        }
+        return best;
+    }
+
+    private int[] snapshot() {
+        int[] assignment = new int[depth * 2];
+        for (int i = 0; i < depth; i++) {
+            assignment[i * 2] = stack[i];
+            assignment[i * 2 + 1] = sessions[stack[i]].value;
+        }
+        return assignment;
+    }
+
+    private void restore(int[] assignment) {
+        while (depth > 0) {
+            int undone = stack[--depth];
+            unplace(undone);
+            sessions[undone].depth = -1;
+        }
+
+        for (int i = 0; i < assignment.length; i += 2) {
+            int index = assignment[i];
+            place(index, assignment[i + 1]);
+            sessions[index].depth = depth;
+            stack[depth++] = index;
+        }
+    }
+
+    // Greedily place open sessions that still have a viable value, fewest first
+    private void fillRemaining() {
+        while (true) {
+            int next = -1;
+            for (int i = 0; i < sessions.length; i++) {
+                Session s = sessions[i];
+                if (s.depth < 0 && s.viableCount > 0 &&
+                    (next < 0 || s.viableCount < sessions[next].viableCount)) {
+                    next = i;
+                }
+            }
+            if (next < 0) {
+                break;
+            }
+
+            Session s = sessions[next];
+            for (int value = 0; value < s.values.length; value++) {
+                if (s.viable[value]) {
+                    place(next, value);
+                    break;
+                }
+            }
+            s.depth = depth;
+            stack[depth++] = next;
+        }
+    }
+
+    /**
+     * Places a session on one of its values and updates the viable values of
+     * every open session. Returns an open session that has no viable value
+     * left, or -1 if forward checking passed.
+     */
+    private int place(int index, int value) {
+        Session s = sessions[index];
+        s.value = value;
+
+        if (s.isLab()) {
+            int start = s.values[value];
+            int room = occupancy.nextFreeRoom(start, LAB_DURATION, s.firstFit,
+                                              s.candidates.getEnd(), s.candidates.getEligible());
+            s.rooms[0] = room;
+            for (int i = 0; i < LAB_DURATION; i++) {
+                claim(index, start + i, room);
+            }
+            labDayOwner[s.courseIndex * days + start / periods] = index;
+        } else {
+            int period = s.values[value];
+            for (int d = 0; d < s.days.length; d++) {
+                int slot = occupancy.slot(s.days[d], period);
+                int room = occupancy.nextFreeRoom(slot, 1, s.firstFit,
+                                                  s.candidates.getEnd(), s.candidates.getEligible());
+                s.rooms[d] = room;
+                claim(index, slot, room);
+            }
+        }
+
+        return refreshAffected(index);
+    }
+
+    private void unplace(int index) {
+        Session s = sessions[index];
+
+        if (s.isLab()) {
+            int start = s.values[s.value];
+            for (int i = 0; i < LAB_DURATION; i++) {
+                unclaim(start + i, s.rooms[0], s.instructor, s.cohort);
+            }
+            labDayOwner[s.courseIndex * days + start / periods] = -1;
+        } else {
+            int period = s.values[s.value];
+            for (int d = 0; d < s.days.length; d++) {
+                unclaim(occupancy.slot(s.days[d], period), s.rooms[d], s.instructor, s.cohort);
+            }
+        }
+
+        refreshAffected(index);
+        s.value = -1;
+        refreshAll(s);
+    }
+
+    private void claim(int index, int slot, int room) {
+        Session s = sessions[index];
+        occupancy.occupy(slot, room, s.instructor, s.cohort);
+        roomOwner[slot * resourceIndex.getRoomCount() + room] = index;
+        instructorOwner[slot * resourceIndex.getInstructorCount() + s.instructor] = index;
+        cohortOwner[slot * resourceIndex.getCohortCount() + s.cohort] = index;
+    }
+
+    private void unclaim(int slot, int room, int instructor, int cohort) {
+        occupancy.release(slot, room, instructor, cohort);
+        roomOwner[slot * resourceIndex.getRoomCount() + room] = -1;
+        instructorOwner[slot * resourceIndex.getInstructorCount() + instructor] = -1;
+        cohortOwner[slot * resourceIndex.getCohortCount() + cohort] = -1;
+    }
+
+    // Re-check the values of open sessions that touch the slots of the given session
+    private int refreshAffected(int index) {
+        Session changed = sessions[index];
+        int wiped = -1;
+
+        for (int i = 0; i < sessions.length; i++) {
+            Session s = sessions[i];
+            if (s.depth >= 0 || s.impossible || i == index) {
+                continue;
+            }
+
+            if (changed.isLab() && s.isLab() && s.courseIndex == changed.courseIndex) {
+                // Sibling labs also depend on which days are taken
+                refreshAll(s);
+            } else if (changed.isLab()) {
+                int start = changed.values[changed.value];
+                for (int k = 0; k < LAB_DURATION; k++) {
+                    refreshAt(s, start + k);
+                }
+            } else {
+                int period = changed.values[changed.value];
+                for (int d = 0; d < changed.days.length; d++) {
+                    refreshAt(s, occupancy.slot(changed.days[d], period));
+                }
+            }
+
+            if (s.viableCount == 0 && wiped < 0) {
+                wiped = i;
+            }
+        }
+
+        return wiped;
+    }
+
+    // Re-check the values of a session that use the given slot
+    private void refreshAt(Session s, int slot) {
+        int day = slot / periods;
+        int period = slot % periods;
+
+        if (s.isLab()) {
+            for (int k = 0; k < LAB_DURATION; k++) {
+                int start = period - k;
+                if (start >= 0 && start + LAB_DURATION <= periods) {
+                    refresh(s, s.positions[occupancy.slot(day, start)]);
+                }
+            }
+        } else if (s.usesDay(day)) {
+            refresh(s, s.positions[period]);
+        }
+    }
+
+    private void refreshAll(Session s) {
+        for (int value = 0; value < s.values.length; value++) {
+            refresh(s, value);
+        }
+    }
+
+    private void refresh(Session s, int value) {
+        boolean viable = isViable(s, value);
+        if (viable != s.viable[value]) {
+            s.viable[value] = viable;
+            s.viableCount += viable ? 1 : -1;
+        }
+    }
+
+    private boolean isViable(Session s, int value) {
+        if (s.isLab()) {
+            int start = s.values[value];
+            if (labDayOwner[s.courseIndex * days + start / periods] >= 0) {
+                return false;
+            }
+            for (int i = 0; i < LAB_DURATION; i++) {
+                if (!occupancy.isInstructorFree(start + i, s.instructor) ||
+                    !occupancy.isCohortFree(start + i, s.cohort)) {
+                    return false;
+                }
+            }
+            return occupancy.nextFreeRoom(start, LAB_DURATION, s.firstFit,
+                                          s.candidates.getEnd(), s.candidates.getEligible()) >= 0;
+        }
+
+        int period = s.values[value];
+        for (int d = 0; d < s.days.length; d++) {
+            int slot = occupancy.slot(s.days[d], period);
+            if (!occupancy.isInstructorFree(slot, s.instructor) ||
+                !occupancy.isCohortFree(slot, s.cohort) ||
+                occupancy.nextFreeRoom(slot, 1, s.firstFit,
+                                       s.candidates.getEnd(), s.candidates.getEligible()) < 0) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    // Sessions whose placements make any value of the given session unusable
+    private void addCulprits(Session s, BitSet into) {
+        for (int value = 0; value < s.values.length; value++) {
+            addBlockers(s, value, into);
+        }
+    }
+
+    // Sessions whose placements make one value of the given session unusable
+    private void addBlockers(Session s, int value, BitSet into) {
+        if (s.isLab()) {
+            int start = s.values[value];
+            addOwner(labDayOwner[s.courseIndex * days + start / periods], into);
+            for (int i = 0; i < LAB_DURATION; i++) {
+                addResourceBlockers(s, start + i, into);
+            }
+            if (occupancy.nextFreeRoom(start, LAB_DURATION, s.firstFit,
+                                       s.candidates.getEnd(), s.candidates.getEligible()) < 0) {
+                for (int i = 0; i < LAB_DURATION; i++) {
+                    addRoomBlockers(s, start + i, into);
+                }
+            }
+        } else {
+            int period = s.values[value];
+            for (int d = 0; d < s.days.length; d++) {
+                int slot = occupancy.slot(s.days[d], period);
+                addResourceBlockers(s, slot, into);
+                if (occupancy.nextFreeRoom(slot, 1, s.firstFit,
+                                           s.candidates.getEnd(), s.candidates.getEligible()) < 0) {
+                    addRoomBlockers(s, slot, into);
+                }
+            }
+        }
+    }
+
+    private void addResourceBlockers(Session s, int slot, BitSet into) {
+        addOwner(instructorOwner[slot * resourceIndex.getInstructorCount() + s.instructor], into);
+        addOwner(cohortOwner[slot * resourceIndex.getCohortCount() + s.cohort], into);
+    }
+
+    // Every session holding a room the given session could have used
+    private void addRoomBlockers(Session s, int slot, BitSet into) {
+        int base = slot * resourceIndex.getRoomCount();
+        for (int room = s.firstFit; room < s.candidates.getEnd(); room++) {
+            addOwner(roomOwner[base + room], into);
+        }
+    }
+
+    private static void addOwner(int owner, BitSet into) {
+        if (owner >= 0) {
+            into.set(owner);
+        }
+    }
+
+    private void buildTimetable() {
+        String[] allDays = TimetableGenerator.getAllDays();
+        String[] timeSlots = TimetableGenerator.getLectureTimeSlots();
+
+        for (int i = 0; i < depth; i++) {
+            Session s = sessions[stack[i]];
+
+            if (s.isLab()) {
+                int start = s.values[s.value];
+                timetable.add(new TimetableEntry(
+                    allDays[start / periods], TimetableGenerator.timeRange(start % periods, LAB_DURATION),
+                    s.course.getCode(), resourceIndex.getRoom(s.rooms[0]).getId(), s.instructorId, "Lab"
+                ));
+            } else {
+                int period = s.values[s.value];
+                for (int d = 0; d < s.days.length; d++) {
+                    timetable.add(new TimetableEntry(
+                        allDays[s.days[d]], timeSlots[period], s.course.getCode(),
+                        resourceIndex.getRoom(s.rooms[d]).getId(), s.instructorId, "Lecture"
+                    ));
+                }
+            }
+        }
+    }
+
+    // One search variable: a lecture block or a single lab session
+    private class Session {
+        private final int courseIndex;
+        private final Course course;
+        private final int instructorId;
+        private final int instructor;
+        private final int cohort;
+        private final int[] days;      // pattern days of a lecture block, null for labs
+        private final int[] values;    // lecture: period, lab: start slot
+        private final int[] positions; // lecture: period -> value, lab: start slot -> value
+        private final ResourceIndex.RoomCandidates candidates;
+        private final int firstFit;
+        private final int[] rooms;
+        private final boolean[] viable;
+        private final BitSet conflictSet = new BitSet();
+        private int viableCount;
+        private int degree;
+        private boolean impossible;
+        private int value = -1;
+        private int nextValue;
+        private int depth = -1;
+
+        Session(int courseIndex, Course course, String sessionType, int instructorId, int[] days, int[] values) {
+            this.courseIndex = courseIndex;
+            this.course = course;
+            this.instructorId = instructorId;
+            this.instructor = resourceIndex.instructorIndex(instructorId);
+            this.cohort = resourceIndex.cohortIndex(course);
+            this.days = days;
+            this.values = values;
+            this.candidates = resourceIndex.roomCandidates(sessionType);
+            this.firstFit = candidates.firstFit(course.getStudents());
+            this.rooms = new int[days != null ? days.length : 1];
+            this.viable = new boolean[values.length];
+
+            this.positions = new int[days != null ? periods : occupancy.getSlotCount()];
+            Arrays.fill(positions, -1);
+            for (int v = 0; v < values.length; v++) {
+                positions[values[v]] = v;
+            }
+        }
+
+        boolean isLab() {
+            return days == null;
+        }
+
+        boolean usesDay(int day) {
+            for (int d : days) {
+                if (d == day) {
+                    return true;
+                }
+            }
+            return false;
+        }
+    }
+}
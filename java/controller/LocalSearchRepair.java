@@ -0,0 +1,639 @@
+package controller;
+
+import model.*;
+import java.util.*;
+
+/**
+ * Improvement phase that starts from an existing timetable, usually the
+ * greedy one, and repairs it with simulated annealing under a wall-clock
+ * budget instead of generating a new timetable from scratch.
+ *
+ * Every required lecture hour and lab session is a unit that is either placed
+ * (start slot plus room) or unscheduled. The search only ever visits clash-free
+ * states and applies four moves:
+ * <ul>
+ *   <li>shift a session to another slot,</li>
+ *   <li>swap the slots of two sessions,</li>
+ *   <li>move a session to another free room,</li>
+ *   <li>insert an unscheduled session, kicking out whatever blocks it and
+ *       reinserting the evicted sessions elsewhere if they fit.</li>
+ * </ul>
+ * Like the greedy generator, lecture i of a course may only be placed on
+ * pattern day i. The cost is dominated by unscheduled sessions; soft costs are
+ * lectures of one course spread over different periods and seats wasted in
+ * oversized rooms.
+ */
+public class LocalSearchRepair {
+    private static final int LAB_DURATION = 2;
+    private static final int UNSCHEDULED_WEIGHT = 1000;
+    private static final int SPLIT_PERIOD_WEIGHT = 10;
+    private static final int SEATS_PER_WASTE_POINT = 10;
+    private static final double START_TEMPERATURE = 50.0;
+    private static final int REINSERT_TRIES = 20;
+    // Stop early once everything is placed and the soft cost stops improving
+    private static final int STALE_ITERATIONS = 50000;
+
+    private List<Classroom> classrooms;
+    private List<Course> courses;
+    private List<Instructor> instructors;
+    private ConflictReport conflicts;
+    private Random random;
+    private long timeBudgetMillis;
+
+    // Search state, rebuilt for every run
+    private ResourceIndex resourceIndex;
+    private OccupancyGrid occupancy;
+    private int days;
+    private int periods;
+    private Unit[] units;
+    private int[][] courseUnits;     // course -> units
+    private int[] roomOwner;         // slot * rooms + room -> unit
+    private int[] instructorOwner;   // slot * instructors + instructor -> unit
+    private int[] cohortOwner;       // slot * cohorts + cohort -> unit
+    private int[] labDayOwner;       // course * days + day -> lab unit
+    private int[] unscheduled;       // unscheduled units in no particular order
+    private int unscheduledCount;
+    private int[] courseCost;
+    private int softCost;
+    private int[] journal = new int[48]; // (unit, old start, old room) triples of the current move
+    private int journalSize;
+
+    public LocalSearchRepair(List<Classroom> classrooms, List<Course> courses, List<Instructor> instructors) {
+        this.classrooms = classrooms;
+        this.courses = courses;
+        this.instructors = instructors;
+        this.conflicts = new ConflictReport();
+        this.random = new Random();
+    }
+
+    public void setRandomSeed(long seed) {
+        this.random = new Random(seed);
+    }
+
+    public void setTimeBudgetMillis(long timeBudgetMillis) {
+        this.timeBudgetMillis = timeBudgetMillis;
+    }
+
+    public ConflictReport getConflicts() {
+        return conflicts;
+    }
+
+    /**
+     * Returns an improved copy of the given timetable. Entries that clash with
+     * earlier ones, or that do not match any required session, are dropped
+     * and their sessions rescheduled if possible.
+     */
+    public List<TimetableEntry> improve(List<TimetableEntry> timetable) {
+        buildUnits();
+        loadEntries(timetable);
+
+        int startUnscheduled = unscheduledCount;
+        int bestCost = cost();
+        int[] bestStarts = new int[units.length];
+        int[] bestRooms = new int[units.length];
+        saveState(bestStarts, bestRooms);
+
+        long startTime = System.currentTimeMillis();
+        long deadline = startTime + timeBudgetMillis;
+        int iterations = 0;
+        int lastImprovement = 0;
+        double temperature = START_TEMPERATURE;
+
+        while (units.length > 0) {
+            if ((++iterations & 255) == 0) {
+                long now = System.currentTimeMillis();
+                if (now >= deadline) {
+                    break;
+                }
+                temperature = START_TEMPERATURE * (deadline - now) / Math.max(1, timeBudgetMillis);
+            }
+            if (unscheduledCount == 0 && iterations - lastImprovement > STALE_ITERATIONS) {
+                break;
+            }
+
+            int before = cost();
+            journalSize = 0;
+            if (!tryMove()) {
+                undo();
+                continue;
+            }
+
+            int delta = cost() - before;
+            if (delta > 0 && random.nextDouble() >= Math.exp(-delta / Math.max(temperature, 1e-3))) {
+                undo();
+                continue;
+            }
+
+            if (cost() < bestCost) {
+                bestCost = cost();
+                saveState(bestStarts, bestRooms);
+                lastImprovement = iterations;
+            }
+        }
+
+        restoreState(bestStarts, bestRooms);
+
+        List<TimetableEntry> repaired = buildTimetable();
+        conflicts.clear();
+        TimetableGenerator.reportUnscheduled(courses, repaired, conflicts);
+
+        System.out.println("Local search repair: " + startUnscheduled + " -> " + unscheduledCount +
+                           " unscheduled sessions after " + iterations + " iterations in " +
+                           (System.currentTimeMillis() - startTime) + " ms");
+        return repaired;
+    }
+
+    private void buildUnits() {
+        days = TimetableGenerator.getAllDays().length;
+        periods = TimetableGenerator.getLectureTimeSlots().length;
+        resourceIndex = new ResourceIndex(classrooms, courses, instructors);
+        occupancy = new OccupancyGrid(days, periods, resourceIndex.getRoomCount(),
+                                      resourceIndex.getInstructorCount(), resourceIndex.getCohortCount());
+
+        List<Unit> created = new ArrayList<>();
+        courseUnits = new int[courses.size()][];
+        for (int c = 0; c < courses.size(); c++) {
+            Course course = courses.get(c);
+            int first = created.size();
+
+            if (course.getLabHours() > 0 && !course.getLabInstructor().equals("0")) {
+                int instructorId = Integer.parseInt(course.getLabInstructor());
+                // One lab per day, so at most one lab session per weekday
+                for (int i = 0; i < Math.min(course.getLabHours(), days); i++) {
+                    created.add(new Unit(c, course, instructorId, LAB_DURATION, labStarts()));
+                }
+            }
+
+            if (course.getLectureHours() > 0 && !course.getLectureInstructor().equals("0")) {
+                int instructorId = Integer.parseInt(course.getLectureInstructor());
+                int[] patternDays = TimetableGenerator.patternDayIndices(course.getSchedulePattern());
+                // Lecture i keeps to pattern day i, as in the greedy generator,
+                // so no two lectures of a course share a day unless it has
+                // more lectures than pattern days
+                int[][] dayStarts = new int[patternDays.length][];
+                for (int d = 0; d < patternDays.length; d++) {
+                    dayStarts[d] = lectureStarts(patternDays[d]);
+                }
+                for (int i = 0; i < course.getLectureHours(); i++) {
+                    created.add(new Unit(c, course, instructorId, 1, dayStarts[i % patternDays.length]));
+                }
+            }
+
+            courseUnits[c] = new int[created.size() - first];
+            for (int i = 0; i < courseUnits[c].length; i++) {
+                courseUnits[c][i] = first + i;
+            }
+        }
+        units = created.toArray(new Unit[0]);
+
+        int slotCount = occupancy.getSlotCount();
+        roomOwner = filled(slotCount * resourceIndex.getRoomCount());
+        instructorOwner = filled(slotCount * resourceIndex.getInstructorCount());
+        cohortOwner = filled(slotCount * resourceIndex.getCohortCount());
+        labDayOwner = filled(courses.size() * days);
+
+        unscheduled = new int[units.length];
+        unscheduledCount = 0;
+        for (int i = 0; i < units.length; i++) {
+            units[i].position = unscheduledCount;
+            unscheduled[unscheduledCount++] = i;
+        }
+
+        courseCost = new int[courses.size()];
+        softCost = 0;
+    }
+
+    private int[] lectureStarts(int day) {
+        int[] starts = new int[periods];
+        for (int p = 0; p < periods; p++) {
+            starts[p] = occupancy.slot(day, p);
+        }
+        return starts;
+    }
+
+    private int[] labStarts() {
+        int perDay = periods - (LAB_DURATION - 1);
+        int[] starts = new int[days * perDay];
+        for (int d = 0; d < days; d++) {
+            for (int p = 0; p < perDay; p++) {
+                starts[d * perDay + p] = occupancy.slot(d, p);
+            }
+        }
+        return starts;
+    }
+
+    private static int[] filled(int size) {
+        int[] owners = new int[size];
+        Arrays.fill(owners, -1);
+        return owners;
+    }
+
+    // Map existing entries onto units; anything unusable stays unscheduled
+    private void loadEntries(List<TimetableEntry> timetable) {
+        Map<String, Integer> courseIndices = new HashMap<>();
+        for (int c = courses.size() - 1; c >= 0; c--) {
+            courseIndices.put(courses.get(c).getCode(), c);
+        }
+
+        for (TimetableEntry entry : timetable) {
+            Integer course = courseIndices.get(entry.getCourseCode());
+            int day = TimetableGenerator.getDayIndex(entry.getDay());
+            PeriodRange range = TimetableGenerator.getPeriodRange(entry.getTime());
+            int room = resourceIndex.roomIndex(entry.getRoomId());
+            if (course == null || day < 0 || range == null || room < 0) {
+                continue;
+            }
+
+            int span = entry.getSessionType().equals("Lab") ? LAB_DURATION : 1;
+            int start = occupancy.slot(day, range.getStart());
+            for (int u : courseUnits[course]) {
+                Unit unit = units[u];
+                if (unit.start < 0 && unit.span == span && unit.allows(start) && fits(u, start, room)) {
+                    put(u, start, room);
+                    break;
+                }
+            }
+        }
+        journalSize = 0;
+    }
+
+    private int cost() {
+        return unscheduledCount * UNSCHEDULED_WEIGHT + softCost;
+    }
+
+    // Applies one random move; returns false if it could not be completed
+    private boolean tryMove() {
+        int roll = random.nextInt(4);
+        if (unscheduledCount > 0 && (roll == 0 || random.nextInt(4) == 0)) {
+            return insert(unscheduled[random.nextInt(unscheduledCount)]);
+        }
+
+        int u = random.nextInt(units.length);
+        if (units[u].start < 0) {
+            return insert(u);
+        }
+
+        switch (roll) {
+            case 1:
+                return shift(u);
+            case 2:
+                return swap(u, random.nextInt(units.length));
+            default:
+                return changeRoom(u);
+        }
+    }
+
+    private boolean shift(int u) {
+        Unit unit = units[u];
+        int start = unit.starts[random.nextInt(unit.starts.length)];
+        if (start == unit.start) {
+            return false;
+        }
+
+        int room = unit.room;
+        take(u);
+        if (!fits(u, start, room)) {
+            room = bestRoom(u, start);
+        }
+        if (room < 0) {
+            return false;
+        }
+        put(u, start, room);
+        return true;
+    }
+
+    private boolean swap(int a, int b) {
+        Unit first = units[a];
+        Unit second = units[b];
+        if (a == b || second.start < 0 || first.span != second.span || first.start == second.start ||
+            !first.allows(second.start) || !second.allows(first.start)) {
+            return false;
+        }
+
+        int firstStart = first.start;
+        int firstRoom = first.room;
+        int secondStart = second.start;
+        int secondRoom = second.room;
+        take(a);
+        take(b);
+
+        int room = fits(a, secondStart, secondRoom) ? secondRoom : bestRoom(a, secondStart);
+        if (room < 0) {
+            return false;
+        }
+        put(a, secondStart, room);
+
+        room = fits(b, firstStart, firstRoom) ? firstRoom : bestRoom(b, firstStart);
+        if (room < 0) {
+            return false;
+        }
+        put(b, firstStart, room);
+        return true;
+    }
+
+    private boolean changeRoom(int u) {
+        Unit unit = units[u];
+        int start = unit.start;
+        int end = unit.candidates.getEnd();
+        if (unit.firstFit >= end) {
+            return false;
+        }
+
+        int oldRoom = unit.room;
+        take(u);
+
+        // Scan from a random point so every free room has a chance
+        int from = unit.firstFit + random.nextInt(end - unit.firstFit);
+        int room = occupancy.nextFreeRoom(start, unit.span, from, end, unit.candidates.getEligible());
+        if (room < 0) {
+            room = occupancy.nextFreeRoom(start, unit.span, unit.firstFit, from, unit.candidates.getEligible());
+        }
+        if (room < 0 || room == oldRoom) {
+            return false;
+        }
+        put(u, start, room);
+        return true;
+    }
+
+    // Place an unscheduled unit directly if possible, otherwise evict its blockers
+    private boolean insert(int u) {
+        Unit unit = units[u];
+        if (unit.start >= 0) {
+            return false;
+        }
+
+        int start = unit.starts[random.nextInt(unit.starts.length)];
+        int room = bestRoom(u, start);
+        if (room >= 0) {
+            put(u, start, room);
+            return true;
+        }
+
+        if (unit.firstFit >= unit.candidates.getEnd()) {
+            return false;
+        }
+
+        // Kick out: take a random suitable room plus the instructor and cohort at that time
+        room = unit.firstFit + random.nextInt(unit.candidates.getEnd() - unit.firstFit);
+        if ((unit.candidates.getEligible()[room >>> 6] & (1L << room)) == 0) {
+            return false;
+        }
+
+        int evictedFrom = journalSize;
+        if (unit.span > 1) {
+            // Only labs are limited to one per day
+            evict(labDayOwner[unit.courseIndex * days + start / periods], unit);
+        }
+        for (int i = 0; i < unit.span; i++) {
+            int slot = start + i;
+            evict(roomOwner[slot * resourceIndex.getRoomCount() + room], unit);
+            evict(instructorOwner[slot * resourceIndex.getInstructorCount() + unit.instructor], unit);
+            evict(cohortOwner[slot * resourceIndex.getCohortCount() + unit.cohort], unit);
+        }
+        int evictedTo = journalSize;
+
+        if (!fits(u, start, room)) {
+            return false;
+        }
+        put(u, start, room);
+
+        // Give every evicted unit a few chances to land somewhere else
+        for (int j = evictedFrom; j < evictedTo; j += 3) {
+            int evicted = journal[j];
+            Unit other = units[evicted];
+            for (int attempt = 0; attempt < REINSERT_TRIES && other.start < 0; attempt++) {
+                int otherStart = other.starts[random.nextInt(other.starts.length)];
+                int otherRoom = bestRoom(evicted, otherStart);
+                if (otherRoom >= 0) {
+                    put(evicted, otherStart, otherRoom);
+                }
+            }
+        }
+        return true;
+    }
+
+    private void evict(int owner, Unit keep) {
+        if (owner >= 0 && units[owner] != keep && units[owner].start >= 0) {
+            take(owner);
+        }
+    }
+
+    private int bestRoom(int u, int start) {
+        Unit unit = units[u];
+        if (!timeFits(u, start)) {
+            return -1;
+        }
+        return occupancy.nextFreeRoom(start, unit.span, unit.firstFit,
+                                      unit.candidates.getEnd(), unit.candidates.getEligible());
+    }
+
+    private boolean fits(int u, int start, int room) {
+        Unit unit = units[u];
+        if (room < unit.firstFit || room >= unit.candidates.getEnd() ||
+            (unit.candidates.getEligible()[room >>> 6] & (1L << room)) == 0 || !timeFits(u, start)) {
+            return false;
+        }
+        for (int i = 0; i < unit.span; i++) {
+            if (!occupancy.isRoomFree(start + i, room)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    // Instructor, cohort and lab-day checks for an unplaced unit
+    private boolean timeFits(int u, int start) {
+        Unit unit = units[u];
+        if (unit.span > 1 && labDayOwner[unit.courseIndex * days + start / periods] >= 0) {
+            return false;
+        }
+        for (int i = 0; i < unit.span; i++) {
+            if (!occupancy.isInstructorFree(start + i, unit.instructor) ||
+                !occupancy.isCohortFree(start + i, unit.cohort)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private void put(int u, int start, int room) {
+        record(u);
+        place(u, start, room);
+        updateCourseCost(units[u].courseIndex);
+    }
+
+    private void take(int u) {
+        record(u);
+        remove(u);
+        updateCourseCost(units[u].courseIndex);
+    }
+
+    private void record(int u) {
+        if (journalSize + 3 > journal.length) {
+            journal = Arrays.copyOf(journal, journal.length * 2);
+        }
+        journal[journalSize++] = u;
+        journal[journalSize++] = units[u].start;
+        journal[journalSize++] = units[u].room;
+    }
+
+    // Roll back the current move in reverse order
+    private void undo() {
+        while (journalSize > 0) {
+            int room = journal[--journalSize];
+            int start = journal[--journalSize];
+            int u = journal[--journalSize];
+            if (units[u].start >= 0) {
+                remove(u);
+            }
+            if (start >= 0) {
+                place(u, start, room);
+            }
+            updateCourseCost(units[u].courseIndex);
+        }
+    }
+
+    private void place(int u, int start, int room) {
+        Unit unit = units[u];
+        for (int i = 0; i < unit.span; i++) {
+            int slot = start + i;
+            occupancy.occupy(slot, room, unit.instructor, unit.cohort);
+            roomOwner[slot * resourceIndex.getRoomCount() + room] = u;
+            instructorOwner[slot * resourceIndex.getInstructorCount() + unit.instructor] = u;
+            cohortOwner[slot * resourceIndex.getCohortCount() + unit.cohort] = u;
+        }
+        if (unit.span > 1) {
+            labDayOwner[unit.courseIndex * days + start / periods] = u;
+        }
+        unit.start = start;
+        unit.room = room;
+
+        // Swap-remove from the unscheduled list
+        int last = unscheduled[--unscheduledCount];
+        unscheduled[unit.position] = last;
+        units[last].position = unit.position;
+        unit.position = -1;
+    }
+
+    private void remove(int u) {
+        Unit unit = units[u];
+        for (int i = 0; i < unit.span; i++) {
+            int slot = unit.start + i;
+            occupancy.release(slot, unit.room, unit.instructor, unit.cohort);
+            roomOwner[slot * resourceIndex.getRoomCount() + unit.room] = -1;
+            instructorOwner[slot * resourceIndex.getInstructorCount() + unit.instructor] = -1;
+            cohortOwner[slot * resourceIndex.getCohortCount() + unit.cohort] = -1;
+        }
+        if (unit.span > 1) {
+            labDayOwner[unit.courseIndex * days + unit.start / periods] = -1;
+        }
+        unit.start = -1;
+        unit.room = -1;
+
+        unit.position = unscheduledCount;
+        unscheduled[unscheduledCount++] = u;
+    }
+
+    // Lectures spread over several periods plus seats wasted by oversized rooms
+    private void updateCourseCost(int c) {
+        int periodMask = 0;
+        int cost = 0;
+        for (int u : courseUnits[c]) {
+            Unit unit = units[u];
+            if (unit.start < 0) {
+                continue;
+            }
+            if (unit.span == 1) {
+                periodMask |= 1 << (unit.start % periods);
+            }
+            cost += (resourceIndex.getRoom(unit.room).getCapacity() - unit.course.getStudents()) / SEATS_PER_WASTE_POINT;
+        }
+        if (periodMask != 0) {
+            cost += SPLIT_PERIOD_WEIGHT * (Integer.bitCount(periodMask) - 1);
+        }
+
+        softCost += cost - courseCost[c];
+        courseCost[c] = cost;
+    }
+
+    private void saveState(int[] starts, int[] rooms) {
+        for (int u = 0; u < units.length; u++) {
+            starts[u] = units[u].start;
+            rooms[u] = units[u].room;
+        }
+    }
+
+    private void restoreState(int[] starts, int[] rooms) {
+        for (int u = 0; u < units.length; u++) {
+            if (units[u].start >= 0) {
+                remove(u);
+            }
+        }
+        for (int u = 0; u < units.length; u++) {
+            if (starts[u] >= 0) {
+                place(u, starts[u], rooms[u]);
+            }
+        }
+    }
+
+    private List<TimetableEntry> buildTimetable() {
+        String[] allDays = TimetableGenerator.getAllDays();
+        String[] timeSlots = TimetableGenerator.getLectureTimeSlots();
+        List<TimetableEntry> timetable = new ArrayList<>();
+
+        for (Unit unit : units) {
+            if (unit.start < 0) {
+                continue;
+            }
+            int day = unit.start / periods;
+            int period = unit.start % periods;
+            boolean lab = unit.span > 1;
+            timetable.add(new TimetableEntry(
+                allDays[day],
+                lab ? TimetableGenerator.timeRange(period, unit.span) : timeSlots[period],
+                unit.course.getCode(),
+                resourceIndex.getRoom(unit.room).getId(),
+                unit.instructorId,
+                lab ? "Lab" : "Lecture"
+            ));
+        }
+        return timetable;
+    }
+
+    // One lecture hour or one lab session of a course
+    private class Unit {
+        private final int courseIndex;
+        private final Course course;
+        private final int instructorId;
+        private final int instructor;
+        private final int cohort;
+        private final int span;
+        private final int[] starts; // allowed start slots
+        private final ResourceIndex.RoomCandidates candidates;
+        private final int firstFit;
+        private int start = -1;
+        private int room = -1;
+        private int position = -1; // index in the unscheduled list, -1 while placed
+
+        Unit(int courseIndex, Course course, int instructorId, int span, int[] starts) {
+            this.courseIndex = courseIndex;
+            this.course = course;
+            this.instructorId = instructorId;
+            this.instructor = resourceIndex.instructorIndex(instructorId);
+            this.cohort = resourceIndex.cohortIndex(course);
+            this.span = span;
+            this.starts = starts;
+            this.candidates = resourceIndex.roomCandidates(span > 1 ? "Lab" : "Lecture");
+            this.firstFit = candidates.firstFit(course.getStudents());
+        }
+
+        boolean allows(int slot) {
+            for (int s : starts) {
+                if (s == slot) {
+                    return true;
+                }
+            }
+            return false;
+        }
+    }
+}
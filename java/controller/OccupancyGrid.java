@@ -0,0 +1,117 @@
+package controller;
+
+import java.util.Arrays;
+
+/**
+ * Dense occupancy tracking for rooms, instructors and domain/year cohorts.
+ *
+ * Every (day, period) pair is flattened into a slot index, and for each slot
+ * the grid keeps one bitset per resource kind. Resources are addressed by the
+ * small int indices handed out by {@link ResourceIndex}, so checking whether a
+ * room, instructor or cohort is free is a single AND on a {@code long}.
+ */
+public class OccupancyGrid {
+    private final int periodsPerDay;
+    private final int slotCount;
+    private final int roomWords;
+    private final int instructorWords;
+    private final int cohortWords;
+
+    // Slot-major bitsets: bits for slot s start at s * words
+    private final long[] roomBusy;
+    private final long[] instructorBusy;
+    private final long[] cohortBusy;
+
+    public OccupancyGrid(int days, int periodsPerDay, int rooms, int instructors, int cohorts) {
+        this.periodsPerDay = periodsPerDay;
+        this.slotCount = days * periodsPerDay;
+        this.roomWords = wordsFor(rooms);
+        this.instructorWords = wordsFor(instructors);
+        this.cohortWords = wordsFor(cohorts);
+        this.roomBusy = new long[slotCount * roomWords];
+        this.instructorBusy = new long[slotCount * instructorWords];
+        this.cohortBusy = new long[slotCount * cohortWords];
+    }
+
+    private static int wordsFor(int bits) {
+        return Math.max(1, (bits + 63) >>> 6);
+    }
+
+    // Flattened slot index for a day and a period within that day
+    public int slot(int day, int period) {
+        return day * periodsPerDay + period;
+    }
+
+    public int getSlotCount() {
+        return slotCount;
+    }
+
+    public int getPeriodsPerDay() {
+        return periodsPerDay;
+    }
+
+    public boolean isRoomFree(int slot, int room) {
+        return (roomBusy[slot * roomWords + (room >>> 6)] & (1L << room)) == 0;
+    }
+
+    public boolean isInstructorFree(int slot, int instructor) {
+        return (instructorBusy[slot * instructorWords + (instructor >>> 6)] & (1L << instructor)) == 0;
+    }
+
+    public boolean isCohortFree(int slot, int cohort) {
+        return (cohortBusy[slot * cohortWords + (cohort >>> 6)] & (1L << cohort)) == 0;
+    }
+
+    // Mark a room, instructor and cohort as busy for one slot
+    public void occupy(int slot, int room, int instructor, int cohort) {
+        roomBusy[slot * roomWords + (room >>> 6)] |= 1L << room;
+        instructorBusy[slot * instructorWords + (instructor >>> 6)] |= 1L << instructor;
+        cohortBusy[slot * cohortWords + (cohort >>> 6)] |= 1L << cohort;
+    }
+
+    // Free a room, instructor and cohort again for one slot
+    public void release(int slot, int room, int instructor, int cohort) {
+        roomBusy[slot * roomWords + (room >>> 6)] &= ~(1L << room);
+        instructorBusy[slot * instructorWords + (instructor >>> 6)] &= ~(1L << instructor);
+        cohortBusy[slot * cohortWords + (cohort >>> 6)] &= ~(1L << cohort);
+    }
+
+    /**
+     * Scans for the first room index in [from, to) that is set in {@code eligible}
+     * and free for {@code span} consecutive slots starting at {@code firstSlot}.
+     * Returns -1 if there is none.
+     */
+    public int nextFreeRoom(int firstSlot, int span, int from, int to, long[] eligible) {
+        if (from >= to) {
+            return -1;
+        }
+        
+        int lastWord = (to - 1) >>> 6;
+        for (int word = from >>> 6; word <= lastWord; word++) {
+            long busy = 0L;
+            for (int i = 0; i < span; i++) {
+                busy |= roomBusy[(firstSlot + i) * roomWords + word];
+            }
+            
+            long free = eligible[word] & ~busy;
+            if (word == from >>> 6) {
+                free &= -1L << from;
+            }
+            if (word == lastWord && (to & 63) != 0) {
+                free &= -1L >>> (64 - (to & 63));
+            }
+            
+            if (free != 0) {
+                return (word << 6) + Long.numberOfTrailingZeros(free);
+            }
+        }
+        
+        return -1;
+    }
+    
+    public void clear() {
+        Arrays.fill(roomBusy, 0L);
+        Arrays.fill(instructorBusy, 0L);
+        Arrays.fill(cohortBusy, 0L);
+    }
+}
@@ -0,0 +1,197 @@
+package controller;
+
+import model.*;
+import java.util.*;
+
+/**
+ * Interns room IDs, instructor IDs and domain/year cohorts to dense ints so
+ * they can be used as bit positions in an {@link OccupancyGrid}.
+ *
+ * The index is built once per generation run; lookups by ID are only needed
+ * while preparing the run, the scheduling loops work on the ints directly.
+ *
+ * Rooms are interned in (room type, capacity) order, so all rooms of one type
+ * form a contiguous index range sorted by capacity. {@link RoomCandidates}
+ * describes such a range and lets the generator find the best-fitting free
+ * room with a binary search followed by a bitset scan of the occupancy grid.
+ */
+public class ResourceIndex {
+    private final Map<Integer, Integer> roomIndices = new HashMap<>();
+    private final List<Classroom> rooms = new ArrayList<>(); // room index -> classroom
+    private final Map<String, RoomCandidates> roomCandidates = new HashMap<>(); // session type -> rooms
+    private final Map<Integer, Integer> instructorIndices = new HashMap<>();
+    private final Map<String, Map<Integer, Integer>> cohortIndices = new HashMap<>();
+    private int cohortCount;
+
+    public ResourceIndex(List<Classroom> classrooms, List<Course> courses, List<Instructor> instructors) {
+        // Stable sort keeps catalogue order between rooms of equal capacity
+        List<Classroom> sortedRooms = new ArrayList<>(classrooms);
+        Collections.sort(sortedRooms, Comparator.comparing(Classroom::getRoomType)
+                                                .thenComparingInt(Classroom::getCapacity));
+        for (Classroom room : sortedRooms) {
+            internRoom(room);
+        }
+        
+        roomCandidates.put("Lecture", buildCandidates("Lecture", false));
+        roomCandidates.put("Lab", buildCandidates("Lab", true));
+
+        for (Instructor instructor : instructors) {
+            internInstructor(instructor.getId());
+        }
+
+        // Courses may reference instructors that are missing from instructors.csv
+        for (Course course : courses) {
+            internInstructor(course.getLectureInstructor());
+            internInstructor(course.getLabInstructor());
+            internCohort(course.getDomain(), course.getYear());
+        }
+    }
+
+    private void internRoom(Classroom room) {
+        if (!roomIndices.containsKey(room.getId())) {
+            roomIndices.put(room.getId(), rooms.size());
+            rooms.add(room);
+        }
+    }
+    
+    // Contiguous range of rooms with the given type; labs also need computers
+    private RoomCandidates buildCandidates(String roomType, boolean needsComputers) {
+        int start = 0;
+        while (start < rooms.size() && !rooms.get(start).getRoomType().equals(roomType)) {
+            start++;
+        }
+        int end = start;
+        while (end < rooms.size() && rooms.get(end).getRoomType().equals(roomType)) {
+            end++;
+        }
+        
+        int[] capacities = new int[end - start];
+        long[] eligible = new long[Math.max(1, (rooms.size() + 63) >>> 6)];
+        for (int i = start; i < end; i++) {
+            Classroom room = rooms.get(i);
+            capacities[i - start] = room.getCapacity();
+            if (!needsComputers || room.getComputers() > 0) {
+                eligible[i >>> 6] |= 1L << i;
+            }
+        }
+        
+        return new RoomCandidates(start, end, capacities, eligible);
+    }
+
+    private void internInstructor(String instructorId) {
+        if (instructorId == null || instructorId.equals("0")) {
+            return;
+        }
+        try {
+            internInstructor(Integer.parseInt(instructorId.trim()));
+        } catch (NumberFormatException e) {
+            // Not schedulable anyway; the generator reports it when it parses the ID
+        }
+    }
+
+    private int internInstructor(int instructorId) {
+        Integer index = instructorIndices.get(instructorId);
+        if (index == null) {
+            index = instructorIndices.size();
+            instructorIndices.put(instructorId, index);
+        }
+        return index;
+    }
+
+    private int internCohort(String domain, int year) {
+        Map<Integer, Integer> years = cohortIndices.get(domain);
+        if (years == null) {
+            years = new HashMap<>();
+            cohortIndices.put(domain, years);
+        }
+        Integer index = years.get(year);
+        if (index == null) {
+            index = cohortCount++;
+            years.put(year, index);
+        }
+        return index;
+    }
+
+    // Returns -1 if the room is not part of the catalogue
+    public int roomIndex(int roomId) {
+        Integer index = roomIndices.get(roomId);
+        return index != null ? index : -1;
+    }
+
+    // Returns -1 if the instructor is not known to any course or the instructor list
+    public int instructorIndex(int instructorId) {
+        Integer index = instructorIndices.get(instructorId);
+        return index != null ? index : -1;
+    }
+
+    // Returns -1 if no course belongs to this domain and year
+    public int cohortIndex(String domain, int year) {
+        Map<Integer, Integer> years = cohortIndices.get(domain);
+        if (years == null) {
+            return -1;
+        }
+        Integer index = years.get(year);
+        return index != null ? index : -1;
+    }
+
+    public Classroom getRoom(int roomIndex) {
+        return rooms.get(roomIndex);
+    }
+    
+    // Rooms usable for a "Lecture" or "Lab" session, sorted by capacity
+    public RoomCandidates roomCandidates(String sessionType) {
+        return roomCandidates.get(sessionType);
+    }
+    
+    public int cohortIndex(Course course) {
+        return cohortIndex(course.getDomain(), course.getYear());
+    }
+
+    public int getRoomCount() {
+        return roomIndices.size();
+    }
+
+    public int getInstructorCount() {
+        return instructorIndices.size();
+    }
+
+    public int getCohortCount() {
+        return cohortCount;
+    }
+    
+    /**
+     * Room indices [start, end) of one room type in ascending capacity order,
+     * plus a bitmask of the rooms in that range that suit the session type.
+     */
+    public static class RoomCandidates {
+        private final int start;
+        private final int end;
+        private final int[] capacities;
+        private final long[] eligible;
+        
+        RoomCandidates(int start, int end, int[] capacities, long[] eligible) {
+            this.start = start;
+            this.end = end;
+            this.capacities = capacities;
+            this.eligible = eligible;
+        }
+        
+        // Lowest room index whose capacity holds the given number of students
+        public int firstFit(int students) {
+            int low = 0;
+            int high = capacities.length;
+            while (low < high) {
+                int mid = (low + high) >>> 1;
+                if (capacities[mid] < students) {
+                    low = mid + 1;
+                } else {
+                    high = mid;
+                }
+            }
+            return start + low;
+        }
+        
+        public int getEnd() { return end; }
+        public long[] getEligible() { return eligible; }
+    }
+}
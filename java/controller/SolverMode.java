@@ -0,0 +1,7 @@
+package controller;
+
+// Which engine TimetableService uses to build a timetable
+public enum SolverMode {
+    GREEDY,
+    BACKTRACKING
+}
@@ -2,34 +2,87 @@ package controller;
 
 import model.*;
 import java.util.*;
+import java.util.function.BooleanSupplier;
 
-public class TimetableGenerator {
+public class TimetableGenerator implements TimetableSolver {
     private List<Classroom> classrooms;
     private List<Course> courses;
     private List<Instructor> instructors;
     private List<InstructorCourse> instructorCourses;
     private List<TimetableEntry> timetable;
-    private List<String> conflicts;
+    private ConflictReport conflicts;
     private Random random;
     private long randomSeed;
     private int strategyVariant;
+    private BooleanSupplier stopCondition = () -> false;
     
-    // Track resource availability by timeslot
-    private Map<String, Map<String, Set<Integer>>> roomAvailability;       // day -> time -> room IDs
-    private Map<String, Map<String, Set<Integer>>> instructorAvailability; // day -> time -> instructor IDs
-    private Map<String, Map<String, Map<String, Map<Integer, Set<String>>>>> domainYearAvailability; // day -> time -> domain -> year -> course codes
+    // Dense resource indices and slot occupancy, rebuilt for every generation run
+    private ResourceIndex resourceIndex;
+    private OccupancyGrid occupancy;
+    
+    // Sessions placed so far, kept in step with the timetable list
+    private Map<String, int[]> scheduledSessions = new HashMap<>(); // course code -> {lectures, labs}
+    private static final int LECTURE_COUNT = 0;
+    private static final int LAB_COUNT = 1;
+    
+    // Cohort each course was placed under, so its entries can be released
+    // even after the course's domain or year has been edited
+    private Map<String, Integer> placedCohorts = new HashMap<>();
+    
+    // Catalogue lookups for the final validation; built from the lists if not supplied
+    private CatalogueIndex catalogueIndex;
+    
+    // Randomized restarts pick among this many best-fitting free rooms
+    private static final int ROOM_CHOICE_WIDTH = 3;
+    private final int[] roomChoices = new int[ROOM_CHOICE_WIDTH];
     
     // Day patterns
     private static final String[] MWF_DAYS = {"Monday", "Wednesday", "Friday"};
     private static final String[] TTS_DAYS = {"Tuesday", "Thursday", "Saturday"};
     private static final String[] ALL_DAYS = {"Monday", "Tuesday", "Wednesday", "Thursday", "Friday", "Saturday"};
     
+    // Positions of the pattern days within ALL_DAYS
+    private static final int[] MWF_DAY_INDICES = {0, 2, 4};
+    private static final int[] TTS_DAY_INDICES = {1, 3, 5};
+    
     // Time slots - ensuring we start from 8:00 AM
     private static final String[] LECTURE_TIME_SLOTS = {
         "8:00 - 9:00", "9:00 - 10:00", "10:00 - 11:00", "11:00 - 12:00", 
         "12:00 - 1:00", "1:00 - 2:00", "2:00 - 3:00", "3:00 - 4:00", "4:00 - 5:00"
     };
     
+    // Lookups from the labels stored in entries back to day and period indices
+    private static final Map<String, Integer> DAY_INDICES = new HashMap<>();
+    private static final Map<String, Integer> START_PERIODS = new HashMap<>();
+    private static final Map<String, Integer> END_PERIODS = new HashMap<>();
+    
+    // Every well-formed time label by start period and length, and back; built
+    // once so placing and reading entries never splits strings
+    private static final String[][] TIME_RANGES = new String[LECTURE_TIME_SLOTS.length][];
+    private static final Map<String, PeriodRange> PERIOD_RANGES = new HashMap<>();
+    static {
+        for (int d = 0; d < ALL_DAYS.length; d++) {
+            DAY_INDICES.put(ALL_DAYS[d], d);
+        }
+        String[] starts = new String[LECTURE_TIME_SLOTS.length];
+        String[] ends = new String[LECTURE_TIME_SLOTS.length];
+        for (int p = 0; p < LECTURE_TIME_SLOTS.length; p++) {
+            String[] bounds = LECTURE_TIME_SLOTS[p].split(" - ");
+            starts[p] = bounds[0];
+            ends[p] = bounds[1];
+            START_PERIODS.put(bounds[0], p);
+            END_PERIODS.put(bounds[1], p);
+        }
+        for (int p = 0; p < LECTURE_TIME_SLOTS.length; p++) {
+            TIME_RANGES[p] = new String[LECTURE_TIME_SLOTS.length - p];
+            for (int e = p; e < LECTURE_TIME_SLOTS.length; e++) {
+                String label = p == e ? LECTURE_TIME_SLOTS[p] : starts[p] + " - " + ends[e];
+                TIME_RANGES[p][e - p] = label;
+                PERIOD_RANGES.put(label, new PeriodRange(p, e - p + 1));
+            }
+        }
+    }
+    
     public TimetableGenerator(List<Classroom> classrooms, List<Course> courses, 
                             List<Instructor> instructors, List<InstructorCourse> instructorCourses) {
         this.classrooms = classrooms;
@@ -37,22 +90,35 @@ public class TimetableGenerator {
         this.instructors = instructors;
         this.instructorCourses = instructorCourses;
         this.timetable = new ArrayList<>();
-        this.conflicts = new ArrayList<>();
+        this.conflicts = new ConflictReport();
         this.random = new Random();
         
         // Initialize availability tracking
-        initializeAvailabilityMaps();
+        initializeAvailability();
     }
     
+    @Override
     public void setRandomSeed(long seed) {
         this.randomSeed = seed;
         this.random = new Random(seed);
     }
     
+    // Variant 0 is the plain greedy pass; any other variant shuffles the search
+    // order with the random seed and picks a tie-break rule for course ordering
+    @Override
     public void setStrategyVariant(int variant) {
         this.strategyVariant = variant;
     }
     
+    @Override
+    public void setStopCondition(BooleanSupplier stopCondition) {
+        this.stopCondition = stopCondition;
+    }
+    
+    private boolean isRandomized() {
+        return strategyVariant != 0;
+    }
+    
     public static String[] getLectureTimeSlots() {
         return LECTURE_TIME_SLOTS;
     }
@@ -65,35 +131,68 @@ public class TimetableGenerator {
         return ALL_DAYS;
     }
     
-    private void initializeAvailabilityMaps() {
-        roomAvailability = new HashMap<>();
-        instructorAvailability = new HashMap<>();
-        domainYearAvailability = new HashMap<>();
+    // Indices into ALL_DAYS for a course's schedule pattern ("MWF" or "TTS")
+    static int[] patternDayIndices(String schedulePattern) {
+        return "TTS".equals(schedulePattern) ? TTS_DAY_INDICES : MWF_DAY_INDICES;
+    }
+    
+    // Time label spanning consecutive periods, e.g. "8:00 - 10:00" for a 2-hour lab
+    public static String timeRange(int startPeriod, int span) {
+        return TIME_RANGES[startPeriod][span - 1];
+    }
+    
+    // Position of a day label in getAllDays(), or -1
+    public static int getDayIndex(String day) {
+        Integer index = DAY_INDICES.get(day);
+        return index != null ? index : -1;
+    }
+    
+    // Periods covered by a time label, or null if it does not line up with the periods
+    public static PeriodRange getPeriodRange(String time) {
+        PeriodRange range = PERIOD_RANGES.get(time);
+        if (range != null) {
+            return range;
+        }
         
-        for (String day : ALL_DAYS) {
-            roomAvailability.put(day, new HashMap<>());
-            instructorAvailability.put(day, new HashMap<>());
-            domainYearAvailability.put(day, new HashMap<>());
-            
-            for (String timeSlot : LECTURE_TIME_SLOTS) {
-                roomAvailability.get(day).put(timeSlot, new HashSet<>());
-                instructorAvailability.get(day).put(timeSlot, new HashSet<>());
-                domainYearAvailability.get(day).put(timeSlot, new HashMap<>());
-                // Now domainYearAvailability.get(day).get(timeSlot) is a Map<String, Map<Integer, Set<String>>>
-            }
+        // Hand-edited files may space the label differently
+        String[] bounds = time.split(" - ");
+        if (bounds.length != 2) {
+            return null;
+        }
+        Integer start = START_PERIODS.get(bounds[0].trim());
+        Integer end = END_PERIODS.get(bounds[1].trim());
+        if (start == null || end == null || end < start) {
+            return null;
         }
+        return PERIOD_RANGES.get(TIME_RANGES[start][end - start]);
+    }
+    
+    private void initializeAvailability() {
+        resourceIndex = new ResourceIndex(classrooms, courses, instructors);
+        occupancy = new OccupancyGrid(ALL_DAYS.length, LECTURE_TIME_SLOTS.length,
+                                      resourceIndex.getRoomCount(),
+                                      resourceIndex.getInstructorCount(),
+                                      resourceIndex.getCohortCount());
     }
 
+    @Override
     public List<TimetableEntry> generateTimetable() {
         System.out.println("Starting domain and year based timetable generation...");
         
         // Clear previous data
         timetable.clear();
+        scheduledSessions.clear();
+        placedCohorts.clear();
         conflicts.clear();
-        initializeAvailabilityMaps();
+        initializeAvailability();
         
-        // Sort courses by constraints to prioritize the most constrained courses first
+        // Sort courses by constraints to prioritize the most constrained courses first.
+        // Randomized restarts shuffle first so equally constrained courses change order.
         List<Course> sortedCourses = new ArrayList<>(courses);
+        if (isRandomized()) {
+            Collections.shuffle(sortedCourses, random);
+        }
+        final Comparator<Course> tieBreak = courseTieBreak();
         Collections.sort(sortedCourses, (a, b) -> {
             // First prioritize by total hours (more hours = more constrained)
             int totalA = a.getLectureHours() + a.getLabHours();
@@ -107,17 +206,23 @@ public class TimetableGenerator {
             if (a.getLabHours() > 0 && b.getLabHours() == 0) return -1;
             if (a.getLabHours() == 0 && b.getLabHours() > 0) return 1;
             
-            return 0;
+            return tieBreak.compare(a, b);
         });
         
         // First schedule all labs, then lectures (labs have more constraints)
         for (Course course : sortedCourses) {
+            if (stopCondition.getAsBoolean()) {
+                return timetable;
+            }
             if (course.getLabHours() > 0 && !course.getLabInstructor().equals("0")) {
                 scheduleLabs(course);
             }
         }
         
         for (Course course : sortedCourses) {
+            if (stopCondition.getAsBoolean()) {
+                return timetable;
+            }
             if (course.getLectureHours() > 0 && !course.getLectureInstructor().equals("0")) {
                 scheduleLectures(course);
             }
@@ -129,65 +234,273 @@ public class TimetableGenerator {
         return timetable;
     }
     
+    public List<TimetableEntry> getTimetable() {
+        return timetable;
+    }
+    
+    /**
+     * Loads an existing timetable as the starting point for incremental
+     * rescheduling. Entries that reference unknown courses, rooms or times,
+     * that no longer fit their room, or that clash with earlier entries are
+     * dropped.
+     */
+    public void loadTimetable(List<TimetableEntry> entries) {
+        load(entries);
+        detectUnscheduled();
+    }
+    
+    /**
+     * Releases the entries of one course and schedules it again against the
+     * occupancy of everything else, after the course was added or edited.
+     * All other entries stay exactly where they are.
+     */
+    public void rescheduleCourse(Course course) {
+        releaseEntries(course.getCode());
+        
+        if (!isIndexed(course)) {
+            // New cohort or instructor: the dense indices have to grow first
+            load(new ArrayList<>(timetable));
+        }
+        
+        scheduleCourse(course);
+        detectUnscheduled();
+    }
+    
+    // Drops the entries of a deleted course
+    public void releaseCourse(String courseCode) {
+        releaseEntries(courseCode);
+        detectUnscheduled();
+    }
+    
+    /**
+     * Re-checks the timetable after classrooms were added, edited or removed.
+     * Entries whose room is gone or no longer suits the class are released and
+     * the missing sessions are scheduled again; other entries keep their slot
+     * and room.
+     */
+    public void rescheduleRooms() {
+        load(new ArrayList<>(timetable));
+        
+        for (Course course : courses) {
+            if (countScheduledSessions(course.getCode(), "Lecture") < course.getLectureHours() ||
+                countScheduledSessions(course.getCode(), "Lab") < course.getLabHours()) {
+                scheduleCourse(course);
+            }
+        }
+        detectUnscheduled();
+    }
+    
+    private void scheduleCourse(Course course) {
+        if (course.getLabHours() > 0 && !course.getLabInstructor().equals("0")) {
+            scheduleLabs(course);
+        }
+        if (course.getLectureHours() > 0 && !course.getLectureInstructor().equals("0")) {
+            scheduleLectures(course);
+        }
+    }
+    
+    private boolean isIndexed(Course course) {
+        if (resourceIndex.cohortIndex(course) < 0) {
+            return false;
+        }
+        if (course.getLectureHours() > 0 && !course.getLectureInstructor().equals("0") &&
+            resourceIndex.instructorIndex(Integer.parseInt(course.getLectureInstructor())) < 0) {
+            return false;
+        }
+        return course.getLabHours() == 0 || course.getLabInstructor().equals("0") ||
+               resourceIndex.instructorIndex(Integer.parseInt(course.getLabInstructor())) >= 0;
+    }
+    
+    // Rebuild indices and occupancy from the current catalogue and the given entries
+    private void load(List<TimetableEntry> entries) {
+        timetable.clear();
+        scheduledSessions.clear();
+        placedCohorts.clear();
+        conflicts.clear();
+        initializeAvailability();
+        
+        Map<String, Course> coursesByCode = new HashMap<>();
+        for (Course course : courses) {
+            coursesByCode.putIfAbsent(course.getCode(), course);
+        }
+        
+        for (TimetableEntry entry : entries) {
+            Course course = coursesByCode.get(entry.getCourseCode());
+            if (course != null && occupyEntry(entry, course)) {
+                addEntry(entry);
+            }
+        }
+    }
+    
+    private void releaseEntries(String courseCode) {
+        Integer cohort = placedCohorts.remove(courseCode);
+        
+        Iterator<TimetableEntry> it = timetable.iterator();
+        while (it.hasNext()) {
+            TimetableEntry entry = it.next();
+            if (entry.getCourseCode().equals(courseCode)) {
+                int[] span = entrySpan(entry);
+                int room = resourceIndex.roomIndex(entry.getRoomId());
+                int instructor = resourceIndex.instructorIndex(entry.getInstructorId());
+                for (int i = 0; i < span[2]; i++) {
+                    occupancy.release(occupancy.slot(span[0], span[1] + i), room, instructor, cohort);
+                }
+                it.remove();
+            }
+        }
+        
+        scheduledSessions.remove(courseCode);
+    }
+    
+    // Marks a loaded entry's resources as used; false if it cannot be kept
+    private boolean occupyEntry(TimetableEntry entry, Course course) {
+        int[] span = entrySpan(entry);
+        int room = resourceIndex.roomIndex(entry.getRoomId());
+        int instructor = resourceIndex.instructorIndex(entry.getInstructorId());
+        int cohort = resourceIndex.cohortIndex(course);
+        if (span == null || room < 0 || instructor < 0) {
+            return false;
+        }
+        
+        ResourceIndex.RoomCandidates candidates = resourceIndex.roomCandidates(entry.getSessionType());
+        if (candidates == null || room < candidates.firstFit(course.getStudents()) || 
+            room >= candidates.getEnd() || (candidates.getEligible()[room >>> 6] & (1L << room)) == 0) {
+            return false;
+        }
+        
+        for (int i = 0; i < span[2]; i++) {
+            int slot = occupancy.slot(span[0], span[1] + i);
+            if (!occupancy.isRoomFree(slot, room) || !occupancy.isInstructorFree(slot, instructor) ||
+                !occupancy.isCohortFree(slot, cohort)) {
+                return false;
+            }
+        }
+        
+        for (int i = 0; i < span[2]; i++) {
+            occupancy.occupy(occupancy.slot(span[0], span[1] + i), room, instructor, cohort);
+        }
+        placedCohorts.put(course.getCode(), cohort);
+        return true;
+    }
+    
+    // {day, start period, periods} of an entry, or null if its labels are unknown
+    private static int[] entrySpan(TimetableEntry entry) {
+        int day = getDayIndex(entry.getDay());
+        PeriodRange range = getPeriodRange(entry.getTime());
+        if (day < 0 || range == null) {
+            return null;
+        }
+        return new int[] {day, range.getStart(), range.getPeriods()};
+    }
+    
+    // Tie-break between equally constrained courses, chosen by the strategy variant
+    private Comparator<Course> courseTieBreak() {
+        if (!isRandomized()) {
+            return (a, b) -> 0;
+        }
+        
+        switch (Math.abs(strategyVariant) % 3) {
+            case 1:
+                // Larger classes first, they have fewer rooms to choose from
+                return (a, b) -> Integer.compare(b.getStudents(), a.getStudents());
+            case 2:
+                // Courses taught by the busiest instructors first
+                final Map<String, Integer> load = new HashMap<>();
+                for (Course course : courses) {
+                    load.merge(course.getLectureInstructor(), course.getLectureHours(), Integer::sum);
+                    load.merge(course.getLabInstructor(), course.getLabHours(), Integer::sum);
+                }
+                return (a, b) -> Integer.compare(
+                    load.get(b.getLectureInstructor()) + load.get(b.getLabInstructor()),
+                    load.get(a.getLectureInstructor()) + load.get(a.getLabInstructor()));
+            default:
+                // Keep the shuffled order
+                return (a, b) -> 0;
+        }
+    }
+    
+    // Order in which to try the indices 0..count-1; shuffled for randomized restarts
+    private int[] searchOrder(int count) {
+        int[] order = new int[count];
+        for (int i = 0; i < count; i++) {
+            order[i] = i;
+        }
+        
+        if (isRandomized()) {
+            for (int i = count - 1; i > 0; i--) {
+                int j = random.nextInt(i + 1);
+                int tmp = order[i];
+                order[i] = order[j];
+                order[j] = tmp;
+            }
+        }
+        
+        return order;
+    }
+    
     private void scheduleLectures(Course course) {
         int lectureInstructorId = Integer.parseInt(course.getLectureInstructor());
-        String[] days = course.getSchedulePattern().equals("TTS") ? TTS_DAYS : MWF_DAYS;
-        String domain = course.getDomain();
-        int year = course.getYear();
+        int[] days = patternDayIndices(course.getSchedulePattern());
+        int instructor = resourceIndex.instructorIndex(lectureInstructorId);
+        int cohort = resourceIndex.cohortIndex(course);
+        placedCohorts.put(course.getCode(), cohort);
+        int[] selectedRooms = new int[days.length];
+        int[] sessions = sessionCounts(course.getCode());
         
         // Try each time slot until we schedule all required lectures
-        for (String timeSlot : LECTURE_TIME_SLOTS) {
+        for (int period : searchOrder(LECTURE_TIME_SLOTS.length)) {
             // Skip if we've already scheduled all needed lectures
-            if (countScheduledSessions(course.getCode(), "Lecture") >= course.getLectureHours()) {
+            if (sessions[LECTURE_COUNT] >= course.getLectureHours()) {
                 break;
             }
             
             boolean slotWorks = true;
-            Map<String, Classroom> selectedRooms = new HashMap<>();
             
             // Check if this time slot works across all days in the pattern
-            for (String day : days) {
+            for (int d = 0; d < days.length; d++) {
+                int slot = occupancy.slot(days[d], period);
+                
                 // Check instructor availability
-                if (instructorAvailability.get(day).get(timeSlot).contains(lectureInstructorId)) {
+                if (!occupancy.isInstructorFree(slot, instructor)) {
                     slotWorks = false;
                     break;
                 }
                 
                 // Check if another course in same domain/year is scheduled
-                if (isDomainYearConflict(day, timeSlot, domain, year, course.getCode())) {
+                if (!occupancy.isCohortFree(slot, cohort)) {
                     slotWorks = false;
                     break;
                 }
                 
                 // Find a suitable room
-                Classroom room = findSuitableRoom(course, "Lecture", roomAvailability.get(day).get(timeSlot));
-                if (room == null) {
+                int room = findSuitableRoom(course, "Lecture", days[d], period, 1);
+                if (room < 0) {
                     slotWorks = false;
                     break;
                 }
                 
-                selectedRooms.put(day, room);
+                selectedRooms[d] = room;
             }
             
             // If the slot works for all days, schedule the lectures
             if (slotWorks) {
-                for (String day : days) {
+                for (int d = 0; d < days.length; d++) {
                     // Don't schedule more than needed
-                    if (countScheduledSessions(course.getCode(), "Lecture") >= course.getLectureHours()) {
+                    if (sessions[LECTURE_COUNT] >= course.getLectureHours()) {
                         break;
                     }
                     
-                    Classroom room = selectedRooms.get(day);
+                    Classroom room = resourceIndex.getRoom(selectedRooms[d]);
                     
                     // Create timetable entry
                     TimetableEntry entry = new TimetableEntry(
-                        day, timeSlot, course.getCode(), room.getId(), 
+                        ALL_DAYS[days[d]], LECTURE_TIME_SLOTS[period], course.getCode(), room.getId(), 
                         lectureInstructorId, "Lecture"
                     );
-                    timetable.add(entry);
+                    addEntry(entry);
                     
                     // Mark resources as used
-                    markResourcesUsed(day, timeSlot, room.getId(), lectureInstructorId, domain, year, course.getCode());
+                    occupancy.occupy(occupancy.slot(days[d], period), selectedRooms[d], instructor, cohort);
                 }
             }
         }
@@ -199,38 +512,30 @@ public class TimetableGenerator {
         }
         
         int labInstructorId = Integer.parseInt(course.getLabInstructor());
-        String domain = course.getDomain();
-        int year = course.getYear();
+        int instructor = resourceIndex.instructorIndex(labInstructorId);
+        int cohort = resourceIndex.cohortIndex(course);
+        placedCohorts.put(course.getCode(), cohort);
         int labDuration = 2; // Labs are typically 2 hours
+        int[] sessions = sessionCounts(course.getCode());
         
         // Try to schedule labs for this course
-        for (String day : ALL_DAYS) {
+        for (int day : searchOrder(ALL_DAYS.length)) {
             // Don't schedule more labs than needed
-            if (countScheduledSessions(course.getCode(), "Lab") >= course.getLabHours()) {
+            if (sessions[LAB_COUNT] >= course.getLabHours()) {
                 break;
             }
             
             // Try to find a suitable starting time slot for the lab
-            for (int startIdx = 0; startIdx < LECTURE_TIME_SLOTS.length - (labDuration - 1); startIdx++) {
-                // Create the lab time slot (e.g. "8:00 - 10:00")
-                String startTime = LECTURE_TIME_SLOTS[startIdx].split(" - ")[0];
-                String endTime = LECTURE_TIME_SLOTS[startIdx + (labDuration - 1)].split(" - ")[1];
-                String labTimeSlot = startTime + " - " + endTime;
-                
+            for (int startIdx : searchOrder(LECTURE_TIME_SLOTS.length - (labDuration - 1))) {
                 // Check if all consecutive slots are available for this lab
                 boolean allSlotsAvailable = true;
                 
                 for (int i = 0; i < labDuration; i++) {
-                    String currentSlot = LECTURE_TIME_SLOTS[startIdx + i];
+                    int slot = occupancy.slot(day, startIdx + i);
                     
-                    // Check instructor availability
-                    if (instructorAvailability.get(day).get(currentSlot).contains(labInstructorId)) {
-                        allSlotsAvailable = false;
-                        break;
-                    }
-                    
-                    // Check domain/year conflict
-                    if (isDomainYearConflict(day, currentSlot, domain, year, course.getCode())) {
+                    // Check instructor availability and domain/year conflict
+                    if (!occupancy.isInstructorFree(slot, instructor) || 
+                        !occupancy.isCohortFree(slot, cohort)) {
                         allSlotsAvailable = false;
                         break;
                     }
@@ -241,20 +546,24 @@ public class TimetableGenerator {
                 }
                 
                 // Find a suitable lab room that's available for the entire duration
-                Classroom labRoom = findAvailableLabRoom(course, day, startIdx, labDuration);
+                int room = findSuitableRoom(course, "Lab", day, startIdx, labDuration);
                 
-                if (labRoom != null) {
+                if (room >= 0) {
+                    Classroom labRoom = resourceIndex.getRoom(room);
+                    
+                    // Create the lab time slot (e.g. "8:00 - 10:00")
+                    String labTimeSlot = timeRange(startIdx, labDuration);
+                    
                     // Schedule the lab
                     TimetableEntry entry = new TimetableEntry(
-                        day, labTimeSlot, course.getCode(), labRoom.getId(), 
+                        ALL_DAYS[day], labTimeSlot, course.getCode(), labRoom.getId(), 
                         labInstructorId, "Lab"
                     );
-                    timetable.add(entry);
+                    addEntry(entry);
                     
                     // Mark all affected time slots as used
                     for (int i = 0; i < labDuration; i++) {
-                        String currentSlot = LECTURE_TIME_SLOTS[startIdx + i];
-                        markResourcesUsed(day, currentSlot, labRoom.getId(), labInstructorId, domain, year, course.getCode());
+                        occupancy.occupy(occupancy.slot(day, startIdx + i), room, instructor, cohort);
                     }
                     
                     break; // Successfully scheduled a lab, move to next day
@@ -263,241 +572,140 @@ public class TimetableGenerator {
         }
     }
     
-    // Checks if there's a conflict with another course in the same domain and year
-    private boolean isDomainYearConflict(String day, String timeSlot, String domain, int year, String courseCode) {
-        Map<String, Map<Integer, Set<String>>> timeMap = domainYearAvailability.get(day).get(timeSlot);
+    /**
+     * Finds the best-fitting room for a session that is free for {@code span}
+     * consecutive periods, returning its room index or -1 if none is free.
+     * Candidates come from the room index: a binary search finds the smallest
+     * room that holds the class, then the occupancy bitsets are scanned upwards.
+     * Package-private so the benchmarks can measure it on its own.
+     */
+    int findSuitableRoom(Course course, String sessionType, int day, int startPeriod, int span) {
+        ResourceIndex.RoomCandidates candidates = resourceIndex.roomCandidates(sessionType);
+        int firstSlot = occupancy.slot(day, startPeriod);
+        int from = candidates.firstFit(course.getStudents());
         
-        if (!timeMap.containsKey(domain)) {
-            // First course in this domain for this time slot
-            timeMap.put(domain, new HashMap<>());
-            return false;
+        int room = occupancy.nextFreeRoom(firstSlot, span, from, candidates.getEnd(), candidates.getEligible());
+        if (room < 0 || !isRandomized()) {
+            return room;
         }
         
-        Map<Integer, Set<String>> domainMap = timeMap.get(domain);
-        
-        if (!domainMap.containsKey(year) || domainMap.get(year).isEmpty()) {
-            // First course in this year for this domain
-            return false;
+        // Randomized restarts pick among the first few free rooms in fit order
+        int found = 0;
+        while (room >= 0 && found < ROOM_CHOICE_WIDTH) {
+            roomChoices[found++] = room;
+            room = occupancy.nextFreeRoom(firstSlot, span, room + 1, candidates.getEnd(), candidates.getEligible());
         }
-        
-        // There's already at least one course from the same domain and year
-        return true;
+        return roomChoices[random.nextInt(found)];
     }
     
-    // Mark resources (room, instructor, domain/year) as used for a time slot
-    private void markResourcesUsed(String day, String timeSlot, int roomId, int instructorId, String domain, int year, String courseCode) {
-        // Mark room as used
-        roomAvailability.get(day).get(timeSlot).add(roomId);
-        
-        // Mark instructor as used
-        instructorAvailability.get(day).get(timeSlot).add(instructorId);
-        
-        // Mark domain/year as used
-        Map<String, Map<Integer, Set<String>>> timeMap = domainYearAvailability.get(day).get(timeSlot);
-        
-        if (!timeMap.containsKey(domain)) {
-            timeMap.put(domain, new HashMap<>());
-        }
-        
-        Map<Integer, Set<String>> domainMap = timeMap.get(domain);
-        
-        if (!domainMap.containsKey(year)) {
-            domainMap.put(year, new HashSet<>());
-        }
-        
-        domainMap.get(year).add(courseCode);
+    // Add an entry to the timetable and bump its course's session counter
+    private void addEntry(TimetableEntry entry) {
+        timetable.add(entry);
+        sessionCounts(entry.getCourseCode())[sessionCountIndex(entry.getSessionType())]++;
     }
     
-    // Find a lab room available for the entire lab duration
-    private Classroom findAvailableLabRoom(Course course, String day, int startIdx, int labDuration) {
-        for (Classroom room : classrooms) {
-            if (room.getRoomType().equals("Lab") && 
-                room.getCapacity() >= course.getStudents() &&
-                room.getComputers() > 0) {
-                
-                boolean roomAvailable = true;
-                
-                // Check if room is available for the entire lab duration
-                for (int i = 0; i < labDuration; i++) {
-                    String currentSlot = LECTURE_TIME_SLOTS[startIdx + i];
-                    if (roomAvailability.get(day).get(currentSlot).contains(room.getId())) {
-                        roomAvailable = false;
-                        break;
-                    }
-                }
-                
-                if (roomAvailable) {
-                    return room;
-                }
-            }
+    // Live {lectures, labs} counter for a course, created on first use
+    private int[] sessionCounts(String courseCode) {
+        int[] counts = scheduledSessions.get(courseCode);
+        if (counts == null) {
+            counts = new int[2];
+            scheduledSessions.put(courseCode, counts);
         }
-        
-        return null;
+        return counts;
     }
     
-    // Helper method to find a suitable room (lecture or lab) for a given session
-    private Classroom findSuitableRoom(Course course, String sessionType, Set<Integer> bookedRooms) {
-        List<Classroom> suitable = new ArrayList<>();
-        
-        for (Classroom room : classrooms) {
-            if (bookedRooms.contains(room.getId())) {
-                continue;
-            }
-            
-            if (sessionType.equals("Lecture")) {
-                if (room.getRoomType().equals("Lecture") && 
-                    room.getCapacity() >= course.getStudents()) {
-                    suitable.add(room);
-                }
-            } else if (sessionType.equals("Lab")) {
-                if (room.getRoomType().equals("Lab") && 
-                    room.getCapacity() >= course.getStudents() && 
-                    room.getComputers() > 0) {
-                    suitable.add(room);
-                }
-            }
-        }
-        
-        if (suitable.isEmpty()) {
-            return null;
-        }
-        
-        // Sort by capacity (prefer rooms that are just big enough)
-        Collections.sort(suitable, Comparator.comparingInt(r -> 
-            Math.abs(r.getCapacity() - course.getStudents())
-        ));
-        
-        return suitable.get(0);
+    private static int sessionCountIndex(String sessionType) {
+        return sessionType.equals("Lab") ? LAB_COUNT : LECTURE_COUNT;
     }
     
-    // Count the number of sessions already scheduled for a course and session type
+    // Number of sessions already scheduled for a course and session type
     private int countScheduledSessions(String courseCode, String sessionType) {
-        int count = 0;
+        int[] counts = scheduledSessions.get(courseCode);
+        return counts != null ? counts[sessionCountIndex(sessionType)] : 0;
+    }
+    
+    // Report courses that did not get all their lectures and labs, for engines
+    // that do not keep live session counters and for timetables loaded from file
+    public static void reportUnscheduled(List<Course> courses, List<TimetableEntry> timetable, ConflictReport conflicts) {
+        Map<String, int[]> scheduled = new HashMap<>(); // course code -> {lectures, labs}
         for (TimetableEntry entry : timetable) {
-            if (entry.getCourseCode().equals(courseCode) && 
-                entry.getSessionType().equals(sessionType)) {
-                count++;
+            int[] counts = scheduled.get(entry.getCourseCode());
+            if (counts == null) {
+                counts = new int[2];
+                scheduled.put(entry.getCourseCode(), counts);
             }
+            counts[sessionCountIndex(entry.getSessionType())]++;
         }
-        return count;
-    }
-    
-    // Detect conflicts and unscheduled sessions
-    private void detectConflicts() {
-        // Check for unscheduled sessions
+        
         for (Course course : courses) {
-            int scheduledLectures = countScheduledSessions(course.getCode(), "Lecture");
-            int scheduledLabs = countScheduledSessions(course.getCode(), "Lab");
+            int[] counts = scheduled.get(course.getCode());
+            int scheduledLectures = counts != null ? counts[LECTURE_COUNT] : 0;
+            int scheduledLabs = counts != null ? counts[LAB_COUNT] : 0;
             
             if (scheduledLectures < course.getLectureHours()) {
-                conflicts.add("Could not schedule all lectures for " + course.getCode() + 
-                             ". Required: " + course.getLectureHours() + 
-                             ", Scheduled: " + scheduledLectures);
+                conflicts.add(Conflict.unscheduled(course, "Lecture", scheduledLectures));
             }
             
             if (scheduledLabs < course.getLabHours()) {
-                conflicts.add("Could not schedule all labs for " + course.getCode() + 
-                             ". Required: " + course.getLabHours() + 
-                             ", Scheduled: " + scheduledLabs);
+                conflicts.add(Conflict.unscheduled(course, "Lab", scheduledLabs));
             }
         }
+    }
+    
+    // Detect conflicts and unscheduled sessions
+    private void detectConflicts() {
+        detectUnscheduled();
         
         // Check for room and instructor conflicts (redundant verification)
         verifyNoConflicts();
     }
     
-    // Double-check that there are no resource conflicts in the generated timetable
-    private void verifyNoConflicts() {
-        Map<String, Map<String, Set<Integer>>> checkRooms = new HashMap<>();
-        Map<String, Map<String, Set<Integer>>> checkInstructors = new HashMap<>();
-        
-        // Initialize verification maps
-        for (String day : ALL_DAYS) {
-            checkRooms.put(day, new HashMap<>());
-            checkInstructors.put(day, new HashMap<>());
+    // Report courses whose sessions are not all in the timetable
+    private void detectUnscheduled() {
+        conflicts.clear();
+        for (Course course : courses) {
+            int scheduledLectures = countScheduledSessions(course.getCode(), "Lecture");
+            int scheduledLabs = countScheduledSessions(course.getCode(), "Lab");
             
-            for (String time : LECTURE_TIME_SLOTS) {
-                checkRooms.get(day).put(time, new HashSet<>());
-                checkInstructors.get(day).put(time, new HashSet<>());
+            if (scheduledLectures < course.getLectureHours()) {
+                conflicts.add(Conflict.unscheduled(course, "Lecture", scheduledLectures));
             }
-        }
-        
-        // Check each entry in the timetable
-        for (TimetableEntry entry : timetable) {
-            String day = entry.getDay();
-            String timeSlot = entry.getTime();
-            int roomId = entry.getRoomId();
-            int instructorId = entry.getInstructorId();
             
-            // For labs that span multiple hours, we need to check all affected slots
-            if (entry.getSessionType().equals("Lab")) {
-                String[] times = timeSlot.split(" - ");
-                String startTime = times[0];
-                String endTime = times[1];
-                
-                int startIdx = -1;
-                int endIdx = -1;
-                
-                // Find start and end indices in the time slots array
-                for (int i = 0; i < LECTURE_TIME_SLOTS.length; i++) {
-                    if (LECTURE_TIME_SLOTS[i].startsWith(startTime)) {
-                        startIdx = i;
-                    }
-                    if (LECTURE_TIME_SLOTS[i].endsWith(endTime)) {
-                        endIdx = i;
-                    }
-                }
-                
-                // Check all affected time slots
-                if (startIdx >= 0 && endIdx >= 0) {
-                    for (int i = startIdx; i <= endIdx; i++) {
-                        String currentSlot = LECTURE_TIME_SLOTS[i];
-                        
-                        // Check room conflict
-                        if (checkRooms.get(day).get(currentSlot).contains(roomId)) {
-                            conflicts.add("Room " + roomId + " is double-booked on " + day + " at " + currentSlot);
-                        } else {
-                            checkRooms.get(day).get(currentSlot).add(roomId);
-                        }
-                        
-                        // Check instructor conflict
-                        if (checkInstructors.get(day).get(currentSlot).contains(instructorId)) {
-                            conflicts.add("Instructor " + getInstructorName(instructorId) + 
-                                         " is double-booked on " + day + " at " + currentSlot);
-                        } else {
-                            checkInstructors.get(day).get(currentSlot).add(instructorId);
-                        }
-                    }
-                }
-            } else { // Lectures are simpler - just check the one time slot
-                // Check room conflict
-                if (checkRooms.get(day).get(timeSlot).contains(roomId)) {
-                    conflicts.add("Room " + roomId + " is double-booked on " + day + " at " + timeSlot);
-                } else {
-                    checkRooms.get(day).get(timeSlot).add(roomId);
-                }
-                
-                // Check instructor conflict
-                if (checkInstructors.get(day).get(timeSlot).contains(instructorId)) {
-                    conflicts.add("Instructor " + getInstructorName(instructorId) + 
-                                 " is double-booked on " + day + " at " + timeSlot);
-                } else {
-                    checkInstructors.get(day).get(timeSlot).add(instructorId);
-                }
+            if (scheduledLabs < course.getLabHours()) {
+                conflicts.add(Conflict.unscheduled(course, "Lab", scheduledLabs));
             }
         }
     }
     
-    private String getInstructorName(int instructorId) {
-        for (Instructor instructor : instructors) {
-            if (instructor.getId() == instructorId) {
-                return instructor.getFirstName() + " " + instructor.getLastName();
-            }
+    // Double-check the generated timetable against every hard constraint
+    // (package-private for the benchmarks)
+    void verifyNoConflicts() {
+        new TimetableValidator(catalogueIndex()).validate(timetable, conflicts);
+    }
+    
+    // Shares the service's index instead of building one per generator
+    public void setCatalogueIndex(CatalogueIndex catalogueIndex) {
+        this.catalogueIndex = catalogueIndex;
+    }
+    
+    // Switches a rescheduler to a catalogue that was replaced rather than
+    // edited in place; the next reschedule call works on the new lists
+    public void setCatalogue(List<Classroom> classrooms, List<Course> courses, List<Instructor> instructors) {
+        this.classrooms = classrooms;
+        this.courses = courses;
+        this.instructors = instructors;
+        this.catalogueIndex = null;
+    }
+    
+    private CatalogueIndex catalogueIndex() {
+        if (catalogueIndex == null) {
+            catalogueIndex = new CatalogueIndex(classrooms, courses, instructors);
         }
-        return "Unknown Instructor";
+        return catalogueIndex;
     }
     
-    public List<String> getConflicts() {
+    @Override
+    public ConflictReport getConflicts() {
         return conflicts;
     }
 }
@@ -0,0 +1,26 @@
+package controller;
+
+import model.ConflictReport;
+import model.TimetableEntry;
+import java.util.List;
+import java.util.function.BooleanSupplier;
+
+/**
+ * Common contract for the timetable generation engines.
+ *
+ * Each solver is single-use per thread: configure it, call
+ * {@link #generateTimetable()} and read the conflicts of that run.
+ */
+public interface TimetableSolver {
+    void setRandomSeed(long seed);
+
+    void setStrategyVariant(int variant);
+
+    // Polled while generating; once it returns true the solver stops and
+    // returns an incomplete timetable that should be discarded
+    void setStopCondition(BooleanSupplier stopCondition);
+
+    List<TimetableEntry> generateTimetable();
+
+    ConflictReport getConflicts();
+}
@@ -0,0 +1,167 @@
+package controller;
+
+import model.*;
+import java.util.*;
+
+/**
+ * Checks a timetable against every hard constraint: no room, instructor or
+ * domain/year cohort is booked twice in the same period, every room holds the
+ * course's students, lectures are in lecture rooms and labs in lab rooms with
+ * computers, and every entry names a known course, room, day and time.
+ *
+ * Validation is linear in the number of entries. Each entry is resolved once
+ * to a day, a period range and dense room, instructor and cohort indices;
+ * occupancy is then kept in flat arrays indexed by resource and slot
+ * (day * periods + period), which remember the entry that took each slot so a
+ * clash can name both courses.
+ *
+ * {@link main.ValidatorMain} runs it on a hand-edited file.
+ */
+public class TimetableValidator {
+    private static final String[] DAYS = TimetableGenerator.getAllDays();
+    private static final String[] PERIODS = TimetableGenerator.getLectureTimeSlots();
+    private static final int SLOTS = DAYS.length * PERIODS.length;
+
+    private final CatalogueIndex catalogue;
+
+    public TimetableValidator(CatalogueIndex catalogue) {
+        this.catalogue = catalogue;
+    }
+
+    public TimetableValidator(List<Classroom> classrooms, List<Course> courses, List<Instructor> instructors) {
+        this(new CatalogueIndex(classrooms, courses, instructors));
+    }
+
+    // Every problem found, in entry order; empty if the timetable is valid
+    public ConflictReport validate(List<TimetableEntry> entries) {
+        ConflictReport conflicts = new ConflictReport();
+        validate(entries, conflicts);
+        return conflicts;
+    }
+
+    // Adds the problems found to an existing report
+    public void validate(List<TimetableEntry> entries, ConflictReport conflicts) {
+        int n = entries.size();
+        Course[] entryCourses = new Course[n];
+        int[] firstSlots = new int[n];
+        int[] spans = new int[n];
+        int[] rooms = new int[n];
+        int[] instructors = new int[n];
+        int[] cohorts = new int[n];
+
+        // Dense indices only for the resources the timetable uses
+        Map<Integer, Integer> roomIndices = new HashMap<>();
+        Map<Integer, Integer> instructorIndices = new HashMap<>();
+        Map<String, Map<Integer, Integer>> cohortIndices = new HashMap<>();
+        int cohortCount = 0;
+
+        for (int e = 0; e < n; e++) {
+            TimetableEntry entry = entries.get(e);
+            Course course = catalogue.getCourse(entry.getCourseCode());
+            int day = TimetableGenerator.getDayIndex(entry.getDay());
+            PeriodRange range = TimetableGenerator.getPeriodRange(entry.getTime());
+            if (course == null) {
+                conflicts.add(Conflict.of(Conflict.Kind.UNKNOWN_COURSE, entry));
+                continue;
+            }
+            if (day < 0 || range == null) {
+                conflicts.add(Conflict.of(Conflict.Kind.UNKNOWN_TIME, entry));
+                continue;
+            }
+            entryCourses[e] = course;
+            firstSlots[e] = day * PERIODS.length + range.getStart();
+            spans[e] = range.getPeriods();
+
+            Classroom room = catalogue.getClassroom(entry.getRoomId());
+            if (room == null) {
+                conflicts.add(Conflict.of(Conflict.Kind.UNKNOWN_ROOM, entry));
+                rooms[e] = -1;
+            } else {
+                checkRoom(entry, course, room, conflicts);
+                rooms[e] = intern(roomIndices, entry.getRoomId());
+            }
+            instructors[e] = intern(instructorIndices, entry.getInstructorId());
+
+            Map<Integer, Integer> years = cohortIndices.get(course.getDomain());
+            if (years == null) {
+                years = new HashMap<>();
+                cohortIndices.put(course.getDomain(), years);
+            }
+            Integer cohort = years.get(course.getYear());
+            if (cohort == null) {
+                cohort = cohortCount++;
+                years.put(course.getYear(), cohort);
+            }
+            cohorts[e] = cohort;
+        }
+
+        // Entry index + 1 that holds each (resource, slot); 0 while free
+        int[] roomOwners = new int[roomIndices.size() * SLOTS];
+        int[] instructorOwners = new int[instructorIndices.size() * SLOTS];
+        int[] cohortOwners = new int[cohortCount * SLOTS];
+
+        for (int e = 0; e < n; e++) {
+            if (entryCourses[e] == null) {
+                continue;
+            }
+            TimetableEntry entry = entries.get(e);
+            for (int slot = firstSlots[e]; slot < firstSlots[e] + spans[e]; slot++) {
+                if (rooms[e] >= 0) {
+                    int other = claim(roomOwners, rooms[e] * SLOTS + slot, e);
+                    if (other >= 0) {
+                        conflicts.add(clash(Conflict.Kind.ROOM_CLASH, entries.get(other), entry, slot));
+                    }
+                }
+                int other = claim(instructorOwners, instructors[e] * SLOTS + slot, e);
+                if (other >= 0) {
+                    conflicts.add(clash(Conflict.Kind.INSTRUCTOR_CLASH, entries.get(other), entry, slot));
+                }
+                other = claim(cohortOwners, cohorts[e] * SLOTS + slot, e);
+                if (other >= 0) {
+                    conflicts.add(clash(Conflict.Kind.COHORT_CLASH, entries.get(other), entry, slot));
+                }
+            }
+        }
+    }
+
+    // Capacity and room type; the same rules the generator uses to pick rooms
+    private static void checkRoom(TimetableEntry entry, Course course, Classroom room, ConflictReport conflicts) {
+        if (room.getCapacity() < course.getStudents()) {
+            conflicts.add(Conflict.capacity(entry, course.getStudents(), room.getCapacity()));
+        }
+        if (entry.getSessionType().equals("Lab")) {
+            if (!room.getRoomType().equals("Lab") || room.getComputers() <= 0) {
+                conflicts.add(Conflict.of(Conflict.Kind.ROOM_TYPE, entry));
+            }
+        } else if (entry.getSessionType().equals("Lecture")) {
+            if (!room.getRoomType().equals("Lecture")) {
+                conflicts.add(Conflict.of(Conflict.Kind.ROOM_TYPE, entry));
+            }
+        } else {
+            conflicts.add(Conflict.of(Conflict.Kind.UNKNOWN_SESSION_TYPE, entry));
+        }
+    }
+
+    private static int intern(Map<Integer, Integer> indices, int id) {
+        Integer index = indices.get(id);
+        if (index == null) {
+            index = indices.size();
+            indices.put(id, index);
+        }
+        return index;
+    }
+
+    // Takes a slot for entry e; returns the entry that already held it, or -1
+    private static int claim(int[] owners, int cell, int e) {
+        int owner = owners[cell];
+        if (owner != 0) {
+            return owner - 1;
+        }
+        owners[cell] = e + 1;
+        return -1;
+    }
+
+    private static Conflict clash(Conflict.Kind kind, TimetableEntry other, TimetableEntry entry, int slot) {
+        return Conflict.clash(kind, other, entry, DAYS[slot / PERIODS.length], PERIODS[slot % PERIODS.length]);
+    }
+}
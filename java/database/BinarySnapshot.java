@@ -0,0 +1,414 @@
+package database;
+
+import model.*;
+import java.io.*;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.*;
+import java.util.zip.CRC32;
+
+/**
+ * Compact binary snapshot of the catalogue and, optionally, a timetable.
+ *
+ * Layout (big-endian):
+ *   header    magic, version, size, modification time and CRC-32 of each
+ *             source CSV,
+ *             then the string, classroom, course, instructor,
+ *             instructor-course and timetable-entry counts
+ *   strings   (count + 1) int offsets into a UTF-8 blob, then the blob
+ *   records   fixed-width int records per entity; text columns are indices
+ *             into the string table
+ *
+ * Snapshots are read through a read-only memory mapping. Records are decoded
+ * straight from the mapped pages and every distinct string is decoded once,
+ * so codes, domains, names and time labels shared by many rows are shared
+ * objects in memory too.
+ *
+ * A snapshot written from CSV files records the sizes, modification times
+ * and checksums of the catalogue files; {@link #readIfCurrent} ignores a
+ * snapshot whose sources changed since. The checksum catches edits that keep
+ * the size and land within the file system's timestamp granularity. On Windows a mapped file cannot be replaced until the mapping is
+ * garbage collected, so rewriting a snapshot right after reading it may
+ * fail there; the stale snapshot is then simply ignored on the next load.
+ *
+ * Usage: java database.BinarySnapshot to-binary DATA_DIR SNAPSHOT
+ *        java database.BinarySnapshot to-csv SNAPSHOT DATA_DIR
+ */
+public class BinarySnapshot {
+    private static final int MAGIC = 0x54545348; // "TTSH"
+    private static final int VERSION = 2;
+
+    // Catalogue files, in the order their stamps appear in the header. The
+    // timetable is not stamped: it changes on every generation.
+    private static final String[] SOURCE_FILES = {
+        "classrooms.csv", "courses.csv", "instructors.csv", "instructorCourse.csv"
+    };
+    // Size, modification time and CRC-32 of each source file
+    private static final int STAMP_LONGS = 3;
+    private static final int HEADER_BYTES = 4 + 4 + SOURCE_FILES.length * STAMP_LONGS * 8 + 6 * 4;
+
+    private static final int CLASSROOM_INTS = 5;
+    private static final int COURSE_INTS = 10;
+    private static final int INSTRUCTOR_INTS = 4;
+    private static final int INSTRUCTOR_COURSE_INTS = 3;
+    private static final int ENTRY_INTS = 6;
+
+    private final List<Classroom> classrooms;
+    private final List<Course> courses;
+    private final List<Instructor> instructors;
+    private final List<InstructorCourse> instructorCourses;
+    private final List<TimetableEntry> timetable;
+
+    public BinarySnapshot(List<Classroom> classrooms, List<Course> courses, List<Instructor> instructors,
+                          List<InstructorCourse> instructorCourses, List<TimetableEntry> timetable) {
+        this.classrooms = classrooms;
+        this.courses = courses;
+        this.instructors = instructors;
+        this.instructorCourses = instructorCourses;
+        this.timetable = timetable;
+    }
+
+    public List<Classroom> getClassrooms() { return classrooms; }
+    public List<Course> getCourses() { return courses; }
+    public List<Instructor> getInstructors() { return instructors; }
+    public List<InstructorCourse> getInstructorCourses() { return instructorCourses; }
+    public List<TimetableEntry> getTimetable() { return timetable; }
+
+    // Loads the CSV files of a data directory; a missing timetable.csv gives an empty timetable
+    public static BinarySnapshot fromCsv(String dataDirectory) {
+        File timetableFile = new File(dataDirectory, "timetable.csv");
+        return new BinarySnapshot(
+            CSVHandler.loadClassrooms(new File(dataDirectory, "classrooms.csv").getPath()),
+            CSVHandler.loadCourses(new File(dataDirectory, "courses.csv").getPath()),
+            CSVHandler.loadInstructors(new File(dataDirectory, "instructors.csv").getPath()),
+            CSVHandler.loadInstructorCourses(new File(dataDirectory, "instructorCourse.csv").getPath()),
+            timetableFile.exists() ? CSVHandler.loadTimetable(timetableFile.getPath())
+                                   : new ArrayList<TimetableEntry>());
+    }
+
+    public boolean toCsv(String dataDirectory) {
+        boolean written = CSVHandler.saveClassrooms(classrooms, new File(dataDirectory, "classrooms.csv").getPath());
+        written &= CSVHandler.saveCourses(courses, new File(dataDirectory, "courses.csv").getPath());
+        written &= CSVHandler.saveInstructors(instructors, new File(dataDirectory, "instructors.csv").getPath());
+        written &= CSVHandler.saveInstructorCourses(instructorCourses, new File(dataDirectory, "instructorCourse.csv").getPath());
+        if (!timetable.isEmpty()) {
+            written &= CSVHandler.saveTimetable(timetable, new File(dataDirectory, "timetable.csv").getPath());
+        }
+        return written;
+    }
+
+    /**
+     * Writes the snapshot atomically, recording the {@link #stamps} of the CSV
+     * files it was loaded from so {@link #readIfCurrent} can tell whether they
+     * changed since. Take the stamps before loading the files.
+     */
+    public void write(File file, long[] sourceStamps) throws IOException {
+        StringTable strings = new StringTable();
+        int[] classroomRecords = new int[classrooms.size() * CLASSROOM_INTS];
+        int k = 0;
+        for (Classroom c : classrooms) {
+            classroomRecords[k++] = c.getId();
+            classroomRecords[k++] = c.getCapacity();
+            classroomRecords[k++] = c.hasAV() ? 1 : 0;
+            classroomRecords[k++] = c.getComputers();
+            classroomRecords[k++] = strings.add(c.getRoomType());
+        }
+        int[] courseRecords = new int[courses.size() * COURSE_INTS];
+        k = 0;
+        for (Course c : courses) {
+            courseRecords[k++] = strings.add(c.getCode());
+            courseRecords[k++] = strings.add(c.getSubject());
+            courseRecords[k++] = strings.add(c.getDomain());
+            courseRecords[k++] = c.getYear();
+            courseRecords[k++] = c.getStudents();
+            courseRecords[k++] = c.getLectureHours();
+            courseRecords[k++] = c.getLabHours();
+            courseRecords[k++] = strings.add(c.getLectureInstructor());
+            courseRecords[k++] = strings.add(c.getLabInstructor());
+            courseRecords[k++] = strings.add(c.getSchedulePattern());
+        }
+        int[] instructorRecords = new int[instructors.size() * INSTRUCTOR_INTS];
+        k = 0;
+        for (Instructor i : instructors) {
+            instructorRecords[k++] = i.getId();
+            instructorRecords[k++] = strings.add(i.getFirstName());
+            instructorRecords[k++] = strings.add(i.getLastName());
+            instructorRecords[k++] = strings.add(i.getDepartment());
+        }
+        int[] assignmentRecords = new int[instructorCourses.size() * INSTRUCTOR_COURSE_INTS];
+        k = 0;
+        for (InstructorCourse ic : instructorCourses) {
+            assignmentRecords[k++] = ic.getInstructorId();
+            assignmentRecords[k++] = strings.add(ic.getCourseCode());
+            assignmentRecords[k++] = strings.add(ic.getType());
+        }
+        int[] entryRecords = new int[timetable.size() * ENTRY_INTS];
+        k = 0;
+        for (TimetableEntry e : timetable) {
+            entryRecords[k++] = strings.add(e.getDay());
+            entryRecords[k++] = strings.add(e.getTime());
+            entryRecords[k++] = strings.add(e.getCourseCode());
+            entryRecords[k++] = e.getRoomId();
+            entryRecords[k++] = e.getInstructorId();
+            entryRecords[k++] = strings.add(e.getSessionType());
+        }
+
+        int recordInts = classroomRecords.length + courseRecords.length + instructorRecords.length +
+                         assignmentRecords.length + entryRecords.length;
+        ByteBuffer buffer = ByteBuffer.allocate(HEADER_BYTES + (strings.size() + 1) * 4 +
+                                                strings.blobSize() + recordInts * 4);
+        buffer.putInt(MAGIC).putInt(VERSION);
+        for (long stamp : sourceStamps) {
+            buffer.putLong(stamp);
+        }
+        buffer.putInt(strings.size()).putInt(classrooms.size()).putInt(courses.size())
+              .putInt(instructors.size()).putInt(instructorCourses.size()).putInt(timetable.size());
+        strings.writeTo(buffer);
+        buffer.asIntBuffer().put(classroomRecords).put(courseRecords).put(instructorRecords)
+              .put(assignmentRecords).put(entryRecords);
+
+        File target = file.getAbsoluteFile();
+        File temp = new File(target.getParentFile(), target.getName() + ".tmp");
+        try (FileChannel channel = FileChannel.open(temp.toPath(), StandardOpenOption.CREATE,
+                                                    StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING)) {
+            buffer.rewind();
+            while (buffer.hasRemaining()) {
+                channel.write(buffer);
+            }
+            channel.force(false);
+        }
+        try {
+            Files.move(temp.toPath(), target.toPath(), StandardCopyOption.REPLACE_EXISTING,
+                       StandardCopyOption.ATOMIC_MOVE);
+        } catch (AtomicMoveNotSupportedException e) {
+            Files.move(temp.toPath(), target.toPath(), StandardCopyOption.REPLACE_EXISTING);
+        }
+    }
+
+    public static BinarySnapshot read(File file) throws IOException {
+        MappedByteBuffer buffer;
+        try (FileChannel channel = FileChannel.open(file.toPath(), StandardOpenOption.READ)) {
+            buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+        }
+        return decode(buffer);
+    }
+
+    /**
+     * Reads the snapshot if it exists, is readable and was written from the
+     * CSV files currently in sourceDirectory; returns null otherwise.
+     */
+    public static BinarySnapshot readIfCurrent(File file, String sourceDirectory) {
+        if (!file.exists()) {
+            return null;
+        }
+        try {
+            MappedByteBuffer buffer;
+            try (FileChannel channel = FileChannel.open(file.toPath(), StandardOpenOption.READ)) {
+                buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+            }
+            if (buffer.capacity() < HEADER_BYTES || buffer.getInt(0) != MAGIC || buffer.getInt(4) != VERSION) {
+                return null;
+            }
+            // Compare the cheap stamps first; a file is only read if they match
+            for (int i = 0; i < SOURCE_FILES.length; i++) {
+                File source = new File(sourceDirectory, SOURCE_FILES[i]);
+                int offset = 8 + i * STAMP_LONGS * 8;
+                boolean exists = source.exists();
+                if (buffer.getLong(offset) != (exists ? source.length() : 0) ||
+                    buffer.getLong(offset + 8) != (exists ? source.lastModified() : 0) ||
+                    buffer.getLong(offset + 16) != (exists ? checksum(source) : 0)) {
+                    return null;
+                }
+            }
+            return decode(buffer);
+        } catch (IOException | RuntimeException e) {
+            System.out.println("Ignoring unreadable snapshot " + file + ": " + e.getMessage());
+            return null;
+        }
+    }
+
+    // Size, modification time and checksum of each source file; zeros for missing files
+    public static long[] stamps(String sourceDirectory) throws IOException {
+        long[] stamps = new long[SOURCE_FILES.length * STAMP_LONGS];
+        for (int i = 0; i < SOURCE_FILES.length; i++) {
+            File source = new File(sourceDirectory, SOURCE_FILES[i]);
+            if (source.exists()) {
+                stamps[STAMP_LONGS * i] = source.length();
+                stamps[STAMP_LONGS * i + 1] = source.lastModified();
+                stamps[STAMP_LONGS * i + 2] = checksum(source);
+            }
+        }
+        return stamps;
+    }
+
+    private static long checksum(File file) throws IOException {
+        CRC32 crc = new CRC32();
+        byte[] chunk = new byte[64 * 1024];
+        try (InputStream in = new FileInputStream(file)) {
+            int read;
+            while ((read = in.read(chunk)) > 0) {
+                crc.update(chunk, 0, read);
+            }
+        }
+        return crc.getValue();
+    }
+
+    private static BinarySnapshot decode(ByteBuffer buffer) throws IOException {
+        if (buffer.capacity() < HEADER_BYTES || buffer.getInt(0) != MAGIC) {
+            throw new IOException("Not a timetable snapshot");
+        }
+        if (buffer.getInt(4) != VERSION) {
+            throw new IOException("Unsupported snapshot version " + buffer.getInt(4));
+        }
+
+        int position = 8 + SOURCE_FILES.length * STAMP_LONGS * 8;
+        int stringCount = buffer.getInt(position);
+        int classroomCount = buffer.getInt(position + 4);
+        int courseCount = buffer.getInt(position + 8);
+        int instructorCount = buffer.getInt(position + 12);
+        int assignmentCount = buffer.getInt(position + 16);
+        int entryCount = buffer.getInt(position + 20);
+        position = HEADER_BYTES;
+
+        StringReader strings = new StringReader(buffer, position, stringCount);
+        position = strings.end();
+
+        List<Classroom> classrooms = new ArrayList<>(classroomCount);
+        for (int i = 0; i < classroomCount; i++, position += CLASSROOM_INTS * 4) {
+            classrooms.add(new Classroom(buffer.getInt(position), buffer.getInt(position + 4),
+                                         buffer.getInt(position + 8) != 0, buffer.getInt(position + 12),
+                                         strings.get(buffer.getInt(position + 16))));
+        }
+        List<Course> courses = new ArrayList<>(courseCount);
+        for (int i = 0; i < courseCount; i++, position += COURSE_INTS * 4) {
+            courses.add(new Course(strings.get(buffer.getInt(position)), strings.get(buffer.getInt(position + 4)),
+                                   strings.get(buffer.getInt(position + 8)), buffer.getInt(position + 12),
+                                   buffer.getInt(position + 16), buffer.getInt(position + 20),
+                                   buffer.getInt(position + 24), strings.get(buffer.getInt(position + 28)),
+                                   strings.get(buffer.getInt(position + 32)), strings.get(buffer.getInt(position + 36))));
+        }
+        List<Instructor> instructors = new ArrayList<>(instructorCount);
+        for (int i = 0; i < instructorCount; i++, position += INSTRUCTOR_INTS * 4) {
+            instructors.add(new Instructor(buffer.getInt(position), strings.get(buffer.getInt(position + 4)),
+                                           strings.get(buffer.getInt(position + 8)),
+                                           strings.get(buffer.getInt(position + 12))));
+        }
+        List<InstructorCourse> instructorCourses = new ArrayList<>(assignmentCount);
+        for (int i = 0; i < assignmentCount; i++, position += INSTRUCTOR_COURSE_INTS * 4) {
+            instructorCourses.add(new InstructorCourse(buffer.getInt(position), strings.get(buffer.getInt(position + 4)),
+                                                       strings.get(buffer.getInt(position + 8))));
+        }
+        List<TimetableEntry> timetable = new ArrayList<>(entryCount);
+        for (int i = 0; i < entryCount; i++, position += ENTRY_INTS * 4) {
+            timetable.add(new TimetableEntry(strings.get(buffer.getInt(position)), strings.get(buffer.getInt(position + 4)),
+                                             strings.get(buffer.getInt(position + 8)), buffer.getInt(position + 12),
+                                             buffer.getInt(position + 16), strings.get(buffer.getInt(position + 20))));
+        }
+
+        return new BinarySnapshot(classrooms, courses, instructors, instructorCourses, timetable);
+    }
+
+    // Deduplicating string table used while writing
+    private static class StringTable {
+        private final Map<String, Integer> indices = new HashMap<>();
+        private final List<byte[]> values = new ArrayList<>();
+        private int blobSize;
+
+        int add(String value) {
+            Integer index = indices.get(value);
+            if (index == null) {
+                index = values.size();
+                indices.put(value, index);
+                byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+                values.add(bytes);
+                blobSize += bytes.length;
+            }
+            return index;
+        }
+
+        int size() {
+            return values.size();
+        }
+
+        int blobSize() {
+            return blobSize;
+        }
+
+        void writeTo(ByteBuffer buffer) {
+            int offset = 0;
+            for (byte[] value : values) {
+                buffer.putInt(offset);
+                offset += value.length;
+            }
+            buffer.putInt(offset);
+            for (byte[] value : values) {
+                buffer.put(value);
+            }
+        }
+    }
+
+    // Decodes each table entry from the mapped bytes the first time it is referenced
+    private static class StringReader {
+        private final ByteBuffer buffer;
+        private final int offsetsStart;
+        private final int blobStart;
+        private final String[] decoded;
+        private byte[] scratch = new byte[64];
+
+        StringReader(ByteBuffer buffer, int offsetsStart, int count) {
+            this.buffer = buffer;
+            this.offsetsStart = offsetsStart;
+            this.blobStart = offsetsStart + (count + 1) * 4;
+            this.decoded = new String[count];
+        }
+
+        int end() {
+            return blobStart + buffer.getInt(offsetsStart + decoded.length * 4);
+        }
+
+        String get(int index) {
+            String value = decoded[index];
+            if (value == null) {
+                int start = buffer.getInt(offsetsStart + index * 4);
+                int length = buffer.getInt(offsetsStart + index * 4 + 4) - start;
+                if (scratch.length < length) {
+                    scratch = new byte[Math.max(length, scratch.length * 2)];
+                }
+                for (int i = 0; i < length; i++) {
+                    scratch[i] = buffer.get(blobStart + start + i);
+                }
+                value = new String(scratch, 0, length, StandardCharsets.UTF_8);
+                decoded[index] = value;
+            }
+            return value;
+        }
+    }
+
+    public static void main(String[] args) throws IOException {
+        if (args.length == 3 && args[0].equals("to-binary")) {
+            long[] stamps = stamps(args[1]);
+            BinarySnapshot snapshot = fromCsv(args[1]);
+            snapshot.write(new File(args[2]), stamps);
+            System.out.println("Wrote " + snapshot.courses.size() + " courses and " + snapshot.timetable.size() +
+                               " timetable entries to " + args[2]);
+        } else if (args.length == 3 && args[0].equals("to-csv")) {
+            BinarySnapshot snapshot = read(new File(args[1]));
+            new File(args[2]).mkdirs();
+            if (!snapshot.toCsv(args[2])) {
+                System.err.println("Some CSV files could not be written");
+                System.exit(1);
+            }
+            System.out.println("Wrote CSV files to " + args[2]);
+        } else {
+            System.err.println("Usage: java database.BinarySnapshot to-binary DATA_DIR SNAPSHOT");
+            System.err.println("       java database.BinarySnapshot to-csv SNAPSHOT DATA_DIR");
+            System.exit(2);
+        }
+    }
+}
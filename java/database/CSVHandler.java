@@ -0,0 +1,276 @@
+package database;
+
+import model.*;
+import java.io.*;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Function;
+
+public class CSVHandler {
+    public static List<Classroom> loadClassrooms(String filename) {
+        return loadClassrooms(filename, null);
+    }
+    
+    // Malformed lines are skipped and described in errors (or printed if errors is null)
+    public static List<Classroom> loadClassrooms(String filename, List<String> errors) {
+        return load(filename, CSVHandler::parseClassroom, errors);
+    }
+    
+    public static boolean saveClassrooms(List<Classroom> classrooms, String filename) {
+        return save(filename, "id,capacity,av_support,computers,roomType", classrooms, CSVHandler::formatClassroom);
+    }
+    
+    // One classrooms.csv row, without the line break
+    public static Classroom parseClassroom(String line) {
+        return parseClassroom(CsvReader.parseLine(line));
+    }
+    
+    private static Classroom parseClassroom(CsvReader.Row row) {
+        int id = row.getInt(0);
+        int capacity = row.getInt(1);
+        boolean avSupport = row.getBoolean(2);
+        int computers = row.getInt(3);
+        String roomType = row.getPooledString(4);
+        
+        return new Classroom(id, capacity, avSupport, computers, roomType);
+    }
+    
+    public static String formatClassroom(Classroom c) {
+        return c.getId() + "," + c.getCapacity() + "," + c.hasAV() + "," + 
+               c.getComputers() + "," + CsvReader.quote(c.getRoomType());
+    }
+    
+    public static List<Course> loadCourses(String filename) {
+        return loadCourses(filename, null);
+    }
+    
+    // Malformed lines are skipped and described in errors (or printed if errors is null)
+    public static List<Course> loadCourses(String filename, List<String> errors) {
+        return load(filename, CSVHandler::parseCourse, errors);
+    }
+
+    public static boolean saveCourses(List<Course> courses, String filename) {
+        return save(filename, "code,subject,domain,year,students,lecture_hours,lab_hours,lecture_instructor,lab_instructor,schedule_pattern",
+                    courses, CSVHandler::formatCourse);
+    }
+    
+    // One courses.csv row; the lab instructor and schedule pattern columns are optional
+    public static Course parseCourse(String line) {
+        return parseCourse(CsvReader.parseLine(line));
+    }
+    
+    private static Course parseCourse(CsvReader.Row row) {
+        String code = row.getString(0);
+        String subject = row.getString(1);
+        String domain = row.getPooledString(2);
+        int year = row.getInt(3);
+        int students = row.getInt(4);
+        int lectureHours = row.getInt(5);
+        int labHours = row.getInt(6);
+        String lectureInstructor = row.getPooledString(7);
+        String labInstructor = row.size() > 8 ? row.getPooledString(8) : "0";
+        String schedulePattern = row.size() > 9 ? row.getPooledString(9) : "MWF";
+        
+        return new Course(code, subject, domain, year, students, 
+                          lectureHours, labHours, lectureInstructor, 
+                          labInstructor, schedulePattern);
+    }
+    
+    public static String formatCourse(Course c) {
+        return CsvReader.quote(c.getCode()) + "," + CsvReader.quote(c.getSubject()) + "," + 
+               CsvReader.quote(c.getDomain()) + "," + c.getYear() + "," + c.getStudents() + "," + 
+               c.getLectureHours() + "," + c.getLabHours() + "," + CsvReader.quote(c.getLectureInstructor()) + "," + 
+               CsvReader.quote(c.getLabInstructor()) + "," + CsvReader.quote(c.getSchedulePattern());
+    }
+    
+    public static List<Instructor> loadInstructors(String filename) {
+        return loadInstructors(filename, null);
+    }
+    
+    // Malformed lines are skipped and described in errors (or printed if errors is null)
+    public static List<Instructor> loadInstructors(String filename, List<String> errors) {
+        return load(filename, CSVHandler::parseInstructor, errors);
+    }
+    
+    public static boolean saveInstructors(List<Instructor> instructors, String filename) {
+        return save(filename, "id,firstName,lastName,department", instructors, CSVHandler::formatInstructor);
+    }
+    
+    // One instructors.csv row
+    public static Instructor parseInstructor(String line) {
+        return parseInstructor(CsvReader.parseLine(line));
+    }
+    
+    private static Instructor parseInstructor(CsvReader.Row row) {
+        int id = row.getInt(0);
+        String firstName = row.getString(1);
+        String lastName = row.getString(2);
+        String department = row.getPooledString(3);
+        
+        return new Instructor(id, firstName, lastName, department);
+    }
+    
+    public static String formatInstructor(Instructor i) {
+        return i.getId() + "," + CsvReader.quote(i.getFirstName()) + "," + 
+               CsvReader.quote(i.getLastName()) + "," + CsvReader.quote(i.getDepartment());
+    }
+    
+    public static List<InstructorCourse> loadInstructorCourses(String filename) {
+        return loadInstructorCourses(filename, null);
+    }
+    
+    // Malformed lines are skipped and described in errors (or printed if errors is null)
+    public static List<InstructorCourse> loadInstructorCourses(String filename, List<String> errors) {
+        return load(filename, CSVHandler::parseInstructorCourse, errors);
+    }
+    
+    private static InstructorCourse parseInstructorCourse(CsvReader.Row row) {
+        int instructorId = row.getInt(0);
+        String courseCode = row.getString(1);
+        String type = row.getPooledString(2);
+        
+        return new InstructorCourse(instructorId, courseCode, type);
+    }
+    
+    public static boolean saveInstructorCourses(List<InstructorCourse> instructorCourses, String filename) {
+        return save(filename, "instructor_id,course_code,type", instructorCourses,
+                    ic -> ic.getInstructorId() + "," + CsvReader.quote(ic.getCourseCode()) + "," + 
+                          CsvReader.quote(ic.getType()));
+    }
+    
+    public static List<TimetableEntry> loadTimetable(String filename) {
+        return loadTimetable(filename, null);
+    }
+    
+    // Malformed lines are skipped and described in errors (or printed if errors is null)
+    public static List<TimetableEntry> loadTimetable(String filename, List<String> errors) {
+        return load(filename, row -> new TimetableEntry(row.getPooledString(0), row.getPooledString(1),
+                                                        row.getString(2), row.getInt(3), row.getInt(4),
+                                                        row.getPooledString(5)), errors);
+    }
+    
+    public static boolean saveTimetable(List<TimetableEntry> timetable, String filename) {
+        return save(filename, "day,time,course_code,room_id,instructor_id,session_type", timetable,
+                    entry -> entry.getDay() + "," + entry.getTime() + "," + 
+                             CsvReader.quote(entry.getCourseCode()) + "," + entry.getRoomId() + "," + 
+                             entry.getInstructorId() + "," + entry.getSessionType());
+    }
+    
+    // One row per conflict; the message column is formatted with the given catalogue
+    public static boolean saveConflicts(ConflictReport conflicts, CatalogueIndex catalogue, String filename) {
+        return save(filename, "kind,course_code,session_type,day,time,room_id,instructor_id,shortfall,message",
+                    conflicts.asList(),
+                    conflict -> conflict.getKind() + "," + CsvReader.quote(conflict.getCourseCode()) + "," +
+                                nullToEmpty(conflict.getSessionType()) + "," + nullToEmpty(conflict.getDay()) + "," +
+                                nullToEmpty(conflict.getTime()) + "," + conflict.getRoomId() + "," +
+                                conflict.getInstructorId() + "," + conflict.getShortfall() + "," +
+                                CsvReader.quote(conflict.format(catalogue)));
+    }
+    
+    private static String nullToEmpty(String value) {
+        return value != null ? CsvReader.quote(value) : "";
+    }
+    
+    // Builds one item from a parsed row; throws on malformed values
+    private interface RowMapper<T> {
+        T map(CsvReader.Row row);
+    }
+    
+    // Reads every row after the header. Malformed rows are skipped and
+    // described in errors (or printed if errors is null)
+    private static <T> List<T> load(String filename, RowMapper<T> mapper, List<String> errors) {
+        List<T> items = new ArrayList<>();
+        try {
+            CsvReader reader = CsvReader.open(filename);
+            reader.next(); // Skip header
+            while (reader.next()) {
+                CsvReader.Row row = reader.row();
+                if (row.isBlank()) {
+                    continue;
+                }
+                try {
+                    if (row.getError() != null) {
+                        throw new IllegalArgumentException(row.getError());
+                    }
+                    items.add(mapper.map(row));
+                } catch (RuntimeException e) {
+                    reportLineError(filename, reader.getLineNumber(), e, errors);
+                }
+            }
+        } catch (IOException e) {
+            e.printStackTrace();
+        }
+        return items;
+    }
+    
+    private static void reportLineError(String filename, int line, RuntimeException e, List<String> errors) {
+        String message = filename + " line " + line + ": " + e.getMessage();
+        if (errors != null) {
+            errors.add(message);
+        } else {
+            System.out.println("Skipping " + message);
+        }
+    }
+    
+    // Always UTF-8, the encoding CsvReader decodes, whatever the platform default.
+    // Files are written next to their target, forced to disk and then renamed
+    // over it, so a crash never leaves a truncated or empty CSV behind. The
+    // save methods return false if the file could not be replaced.
+    private static <T> boolean save(String filename, String header, List<T> items, Function<T, String> format) {
+        File temp = tempFileFor(filename);
+        try (FileOutputStream out = new FileOutputStream(temp);
+             BufferedWriter bw = new BufferedWriter(new OutputStreamWriter(out, StandardCharsets.UTF_8))) {
+            bw.write(header);
+            bw.newLine();
+            for (T item : items) {
+                bw.write(format.apply(item));
+                bw.newLine();
+            }
+            bw.flush();
+            out.getFD().sync();
+        } catch (IOException e) {
+            e.printStackTrace();
+            temp.delete();
+            return false;
+        }
+        return replaceAtomically(temp, filename);
+    }
+    
+    private static File tempFileFor(String filename) {
+        File target = new File(filename).getAbsoluteFile();
+        return new File(target.getParentFile(), target.getName() + ".tmp");
+    }
+    
+    private static boolean replaceAtomically(File temp, String filename) {
+        try {
+            try {
+                Files.move(temp.toPath(), new File(filename).toPath(),
+                           StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            } catch (AtomicMoveNotSupportedException e) {
+                Files.move(temp.toPath(), new File(filename).toPath(), StandardCopyOption.REPLACE_EXISTING);
+            }
+            syncDirectory(new File(filename).getAbsoluteFile().getParentFile());
+            return true;
+        } catch (IOException e) {
+            e.printStackTrace();
+            temp.delete();
+            return false;
+        }
+    }
+    
+    // Makes a rename or delete in the directory durable. Not every platform
+    // can open a directory (Windows cannot); there the rename has to do.
+    static void syncDirectory(File directory) {
+        try (FileChannel channel = FileChannel.open(directory.toPath(), StandardOpenOption.READ)) {
+            channel.force(true);
+        } catch (IOException e) {
+            // Directory sync is not supported here
+        }
+    }
+}
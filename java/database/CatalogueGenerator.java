@@ -0,0 +1,381 @@
+package database;
+
+import model.*;
+import java.io.File;
+import java.util.*;
+
+/**
+ * Generates synthetic catalogues (courses, classrooms, instructors and
+ * instructor assignments) at arbitrary scale for load testing. The files it
+ * writes have the same layout as resources/ and load through CSVHandler.
+ *
+ * Knobs:
+ * - domains and years: courses are spread evenly over the domain/year cohorts;
+ *   by default there are as many domains as the tightness allows per cohort
+ * - lab share: fraction of courses that also have lab sessions
+ * - capacity distribution: weighted capacity tiers for lecture and lab rooms;
+ *   class sizes are drawn from the same tiers so every class fits some room
+ * - instructor load: teaching assignments (lecture or lab) per instructor
+ * - tightness: share of the week's periods booked per room and per cohort;
+ *   the room and domain counts are derived from it unless set explicitly
+ *
+ * The same seed and settings always produce the same catalogue.
+ *
+ * Usage: java database.CatalogueGenerator --courses 5000 --out data/large
+ */
+public class CatalogueGenerator {
+    private static final String[] DOMAIN_NAMES = {
+        "Computer Science", "Electrical", "Mechanical", "Civil", "Chemical",
+        "Mathematics", "Physics", "Biotechnology", "Economics", "Architecture"
+    };
+    // Course code prefixes; none may contain 'F', which separates the year
+    private static final String[] DOMAIN_PREFIXES = {
+        "CS", "EE", "ME", "CE", "CH", "MA", "PH", "BT", "EC", "AR"
+    };
+    private static final String[] FIRST_NAMES = {
+        "John", "Alice", "Robert", "Maria", "David", "Sarah", "James", "Priya", "Wei", "Elena"
+    };
+    private static final String[] LAST_NAMES = {
+        "Smith", "Johnson", "Brown", "Garcia", "Lee", "Patel", "Chen", "Kumar", "Muller", "Rossi"
+    };
+
+    // Room periods in a week: 6 days of 9 periods
+    private static final int PERIODS_PER_WEEK = 6 * 9;
+    private static final int ROOMS_PER_BUILDING = 50;
+
+    private int courseCount = 500;
+    private int domainCount; // 0 = derive from tightness
+    private int yearCount = 4;
+    private double labShare = 0.4;
+    private int[] lectureCapacities = {40, 60, 80, 100, 120, 200};
+    private int[] lectureCapacityWeights = {3, 4, 3, 2, 2, 1};
+    private int[] labCapacities = {30, 40, 60, 100};
+    private int[] labCapacityWeights = {3, 3, 2, 1};
+    private int instructorLoad = 3;
+    private double tightness = 0.6;
+    private int roomCount; // 0 = derive from tightness
+    private long seed = 42;
+
+    private List<Classroom> classrooms = new ArrayList<>();
+    private List<Course> courses = new ArrayList<>();
+    private List<Instructor> instructors = new ArrayList<>();
+    private List<InstructorCourse> instructorCourses = new ArrayList<>();
+
+    public void setCourseCount(int courseCount) {
+        requirePositive("course count", courseCount);
+        this.courseCount = courseCount;
+    }
+
+    public void setDomainCount(int domainCount) {
+        requirePositive("domain count", domainCount);
+        this.domainCount = domainCount;
+    }
+
+    // Years are single digits because the course code carries the year after 'F'
+    public void setYearCount(int yearCount) {
+        if (yearCount < 1 || yearCount > 9) {
+            throw new IllegalArgumentException("Year count must be between 1 and 9");
+        }
+        this.yearCount = yearCount;
+    }
+
+    public void setLabShare(double labShare) {
+        if (labShare < 0 || labShare > 1) {
+            throw new IllegalArgumentException("Lab share must be between 0 and 1");
+        }
+        this.labShare = labShare;
+    }
+
+    public void setLectureCapacities(int[] capacities, int[] weights) {
+        checkDistribution(capacities, weights);
+        this.lectureCapacities = capacities.clone();
+        this.lectureCapacityWeights = weights.clone();
+    }
+
+    public void setLabCapacities(int[] capacities, int[] weights) {
+        checkDistribution(capacities, weights);
+        this.labCapacities = capacities.clone();
+        this.labCapacityWeights = weights.clone();
+    }
+
+    public void setInstructorLoad(int instructorLoad) {
+        requirePositive("instructor load", instructorLoad);
+        this.instructorLoad = instructorLoad;
+    }
+
+    public void setTightness(double tightness) {
+        if (tightness <= 0 || tightness > 1) {
+            throw new IllegalArgumentException("Tightness must be in (0, 1]");
+        }
+        this.tightness = tightness;
+    }
+
+    // Fixes the number of rooms instead of deriving it from the tightness
+    public void setRoomCount(int roomCount) {
+        if (roomCount < 2) {
+            throw new IllegalArgumentException("At least one lecture room and one lab are needed");
+        }
+        this.roomCount = roomCount;
+    }
+
+    public void setSeed(long seed) {
+        this.seed = seed;
+    }
+
+    private static void requirePositive(String name, int value) {
+        if (value < 1) {
+            throw new IllegalArgumentException("The " + name + " must be at least 1");
+        }
+    }
+
+    private static void checkDistribution(int[] capacities, int[] weights) {
+        if (capacities.length == 0 || capacities.length != weights.length) {
+            throw new IllegalArgumentException("Every capacity tier needs exactly one weight");
+        }
+        for (int i = 0; i < capacities.length; i++) {
+            if (capacities[i] < 1 || weights[i] < 0) {
+                throw new IllegalArgumentException("Capacities must be positive and weights non-negative");
+            }
+        }
+    }
+
+    public void generate() {
+        Random random = new Random(seed);
+        classrooms = new ArrayList<>();
+        courses = new ArrayList<>();
+        instructors = new ArrayList<>();
+        instructorCourses = new ArrayList<>();
+
+        int maxLabCapacity = max(labCapacities);
+
+        // Expected periods per course: 2.75 lecture hours plus two-period lab sessions
+        double periodsPerCourse = 2.75 + labShare * 1.5 * 2;
+        int coursesPerCohort = Math.max(1, (int) (PERIODS_PER_WEEK * tightness / periodsPerCourse));
+        int domains = domainCount > 0 ? domainCount
+                                      : Math.max(1, (courseCount + coursesPerCohort * yearCount - 1) / (coursesPerCohort * yearCount));
+
+        int lecturePeriods = 0;
+        int labPeriods = 0;
+        int[] cohortPeriods = new int[domains * yearCount];
+        for (int i = 0; i < courseCount; i++) {
+            // Round-robin over cohorts keeps every domain/year equally loaded
+            int cohort = i % cohortPeriods.length;
+            String domain = domainName(cohort / yearCount);
+            int year = cohort % yearCount + 1;
+            String code = domainPrefix(cohort / yearCount) + "F" + year + String.format("%03d", i / cohortPeriods.length + 1);
+
+            boolean hasLab = random.nextDouble() < labShare;
+            int students = classSize(random, hasLab ? maxLabCapacity : Integer.MAX_VALUE);
+            int lectureHours = random.nextInt(4) == 0 ? 2 : 3;
+            int labHours = hasLab ? 1 + random.nextInt(2) : 0;
+            String pattern = random.nextBoolean() ? "MWF" : "TTS";
+
+            courses.add(new Course(code, "Subject " + code, domain, year, students, lectureHours, labHours,
+                                   "0", "0", pattern));
+            lecturePeriods += lectureHours;
+            labPeriods += labHours * 2;
+            cohortPeriods[cohort] += lectureHours + labHours * 2;
+        }
+
+        assignInstructors(random, domains);
+        generateRooms(random, lecturePeriods, labPeriods);
+
+        int busiestCohort = 0;
+        for (int periods : cohortPeriods) {
+            busiestCohort = Math.max(busiestCohort, periods);
+        }
+        if (busiestCohort > PERIODS_PER_WEEK) {
+            System.out.println("Warning: a domain/year cohort needs " + busiestCohort + " periods but a week has " +
+                               PERIODS_PER_WEEK + "; add domains or years for a schedulable catalogue");
+        }
+    }
+
+    // Class sizes follow the lecture room tiers, trimmed to fit the largest lab
+    private int classSize(Random random, int limit) {
+        int capacity = Math.min(pick(random, lectureCapacities, lectureCapacityWeights), limit);
+        int students = (int) (capacity * (0.6 + 0.4 * random.nextDouble()));
+        return Math.max(5, students - students % 5);
+    }
+
+    // Spread lecture and lab assignments over instructors of the course's domain
+    private void assignInstructors(Random random, int domains) {
+        int assignments = 0;
+        for (Course course : courses) {
+            assignments += course.getLabHours() > 0 ? 2 : 1;
+        }
+        int perDomain = Math.max(1, (assignments + instructorLoad * domains - 1) / (instructorLoad * domains));
+
+        for (int d = 0; d < domains; d++) {
+            for (int k = 0; k < perDomain; k++) {
+                int id = instructors.size() + 1;
+                instructors.add(new Instructor(id, FIRST_NAMES[random.nextInt(FIRST_NAMES.length)],
+                                               LAST_NAMES[random.nextInt(LAST_NAMES.length)], domainName(d)));
+            }
+        }
+
+        int[] nextInDomain = new int[domains];
+        for (int i = 0; i < courses.size(); i++) {
+            Course course = courses.get(i);
+            int domain = (i % (domains * yearCount)) / yearCount;
+
+            int lecturer = domain * perDomain + nextInDomain[domain]++ % perDomain + 1;
+            course.setLectureInstructor(String.valueOf(lecturer));
+            instructorCourses.add(new InstructorCourse(lecturer, course.getCode(), "Lecture"));
+
+            if (course.getLabHours() > 0) {
+                int labInstructor = domain * perDomain + nextInDomain[domain]++ % perDomain + 1;
+                course.setLabInstructor(String.valueOf(labInstructor));
+                instructorCourses.add(new InstructorCourse(labInstructor, course.getCode(), "Lab"));
+            }
+        }
+    }
+
+    private void generateRooms(Random random, int lecturePeriods, int labPeriods) {
+        double usable = PERIODS_PER_WEEK * tightness;
+        int lectureRooms = Math.max(1, (int) Math.ceil(lecturePeriods / usable));
+        int labRooms = Math.max(1, (int) Math.ceil(labPeriods / usable));
+
+        if (roomCount > 0) {
+            // Keep the derived lecture/lab split but scale it to the requested total
+            labRooms = Math.max(1, Math.min(roomCount - 1,
+                (int) Math.round(roomCount * (double) labRooms / (lectureRooms + labRooms))));
+            lectureRooms = roomCount - labRooms;
+        }
+
+        // Rooms are numbered by building: 101-150, 201-250, ...
+        // The first room of each type gets the largest tier so every class fits somewhere
+        for (int i = 0; i < lectureRooms + labRooms; i++) {
+            int id = (i / ROOMS_PER_BUILDING + 1) * 100 + i % ROOMS_PER_BUILDING + 1;
+            if (i >= lectureRooms) {
+                int capacity = i == lectureRooms ? max(labCapacities) : pick(random, labCapacities, labCapacityWeights);
+                int computers = Math.max(1, capacity / 2 + random.nextInt(capacity / 2 + 1));
+                classrooms.add(new Classroom(id, capacity, true, computers, "Lab"));
+            } else {
+                int capacity = i == 0 ? max(lectureCapacities) : pick(random, lectureCapacities, lectureCapacityWeights);
+                classrooms.add(new Classroom(id, capacity, random.nextInt(5) != 0, 0, "Lecture"));
+            }
+        }
+    }
+
+    private static int max(int[] values) {
+        int max = 0;
+        for (int value : values) {
+            max = Math.max(max, value);
+        }
+        return max;
+    }
+
+    private static int pick(Random random, int[] values, int[] weights) {
+        int total = 0;
+        for (int weight : weights) {
+            total += weight;
+        }
+        int r = random.nextInt(Math.max(1, total));
+        for (int i = 0; i < values.length; i++) {
+            r -= weights[i];
+            if (r < 0) {
+                return values[i];
+            }
+        }
+        return values[values.length - 1];
+    }
+
+    private static String domainName(int domain) {
+        return domain < DOMAIN_NAMES.length ? DOMAIN_NAMES[domain] : "Domain " + (domain + 1);
+    }
+
+    private static String domainPrefix(int domain) {
+        return domain < DOMAIN_PREFIXES.length ? DOMAIN_PREFIXES[domain] : "D" + (domain + 1);
+    }
+
+    // Writes classrooms.csv, courses.csv, instructors.csv and instructorCourse.csv
+    public void writeTo(File directory) {
+        if (!directory.isDirectory() && !directory.mkdirs()) {
+            throw new RuntimeException("Cannot create directory " + directory);
+        }
+        File classroomsFile = new File(directory, "classrooms.csv");
+        File coursesFile = new File(directory, "courses.csv");
+        File instructorsFile = new File(directory, "instructors.csv");
+        File instructorCoursesFile = new File(directory, "instructorCourse.csv");
+        if (!CSVHandler.saveClassrooms(classrooms, classroomsFile.getPath())) {
+            throw new RuntimeException("Cannot write " + classroomsFile);
+        }
+        if (!CSVHandler.saveCourses(courses, coursesFile.getPath())) {
+            throw new RuntimeException("Cannot write " + coursesFile);
+        }
+        if (!CSVHandler.saveInstructors(instructors, instructorsFile.getPath())) {
+            throw new RuntimeException("Cannot write " + instructorsFile);
+        }
+        if (!CSVHandler.saveInstructorCourses(instructorCourses, instructorCoursesFile.getPath())) {
+            throw new RuntimeException("Cannot write " + instructorCoursesFile);
+        }
+    }
+
+    public List<Classroom> getClassrooms() { return classrooms; }
+    public List<Course> getCourses() { return courses; }
+    public List<Instructor> getInstructors() { return instructors; }
+    public List<InstructorCourse> getInstructorCourses() { return instructorCourses; }
+
+    public static void main(String[] args) {
+        CatalogueGenerator generator = new CatalogueGenerator();
+        String out = "generated";
+
+        for (int i = 0; i < args.length; i++) {
+            String option = args[i];
+            if (i + 1 >= args.length) {
+                usage("Missing value for " + option);
+            }
+            String value = args[++i];
+            try {
+                switch (option) {
+                    case "--courses": generator.setCourseCount(Integer.parseInt(value)); break;
+                    case "--domains": generator.setDomainCount(Integer.parseInt(value)); break;
+                    case "--years": generator.setYearCount(Integer.parseInt(value)); break;
+                    case "--lab-share": generator.setLabShare(Double.parseDouble(value)); break;
+                    case "--lecture-capacities":
+                        int[][] lecture = parseTiers(value);
+                        generator.setLectureCapacities(lecture[0], lecture[1]);
+                        break;
+                    case "--lab-capacities":
+                        int[][] lab = parseTiers(value);
+                        generator.setLabCapacities(lab[0], lab[1]);
+                        break;
+                    case "--instructor-load": generator.setInstructorLoad(Integer.parseInt(value)); break;
+                    case "--tightness": generator.setTightness(Double.parseDouble(value)); break;
+                    case "--rooms": generator.setRoomCount(Integer.parseInt(value)); break;
+                    case "--seed": generator.setSeed(Long.parseLong(value)); break;
+                    case "--out": out = value; break;
+                    default: usage("Unknown option " + option);
+                }
+            } catch (IllegalArgumentException e) {
+                usage("Invalid value for " + option + ": " + e.getMessage());
+            }
+        }
+
+        generator.generate();
+        generator.writeTo(new File(out));
+        System.out.println("Wrote " + generator.getCourses().size() + " courses, " +
+                           generator.getClassrooms().size() + " classrooms and " +
+                           generator.getInstructors().size() + " instructors to " + out);
+    }
+
+    // "40:3,60:4,80:2" -> capacities {40, 60, 80}, weights {3, 4, 2}
+    private static int[][] parseTiers(String value) {
+        String[] tiers = value.split(",");
+        int[][] parsed = new int[2][tiers.length];
+        for (int i = 0; i < tiers.length; i++) {
+            String[] parts = tiers[i].split(":");
+            parsed[0][i] = Integer.parseInt(parts[0].trim());
+            parsed[1][i] = parts.length > 1 ? Integer.parseInt(parts[1].trim()) : 1;
+        }
+        return parsed;
+    }
+
+    private static void usage(String error) {
+        System.err.println(error);
+        System.err.println("Usage: java database.CatalogueGenerator [--courses N] [--domains N] [--years N]");
+        System.err.println("       [--lab-share F] [--lecture-capacities C:W,...] [--lab-capacities C:W,...]");
+        System.err.println("       [--instructor-load N] [--tightness F] [--rooms N] [--seed N] [--out DIR]");
+        System.exit(2);
+    }
+}
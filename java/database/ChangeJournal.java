@@ -0,0 +1,302 @@
+package database;
+
+import database.WriteBehindStore.Entity;
+import model.*;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.StandardOpenOption;
+import java.util.*;
+import java.util.function.Predicate;
+
+/**
+ * Append-only journal of catalogue edits, kept next to the CSV snapshots.
+ *
+ * Every edit is one record appended and forced to disk, e.g.
+ *   PUT,COURSES,CSF101,Introduction to Programming,Computer Science,1,...
+ *   DELETE,INSTRUCTORS,12
+ * where the payload of a PUT is the entity's CSV row and the payload of a
+ * DELETE is its key. A quoted field may hold a line break, so a record ends
+ * at the first line break outside quotes. On startup the journal is replayed over the snapshots;
+ * replaying a record twice gives the same result, so a crash during
+ * compaction cannot corrupt the catalogue.
+ *
+ * Compaction moves the journal aside, writes fresh snapshots of the entity
+ * types it touched, and deletes the moved journal once they are on disk.
+ * Edits made meanwhile go to a new journal.
+ */
+public class ChangeJournal {
+    private static final String JOURNAL_FILE = "catalogue.journal";
+    private static final String COMPACTING_FILE = "catalogue.journal.compacting";
+
+    private final File journalFile;
+    private final File compactingFile;
+    // Length up to which the journal file is known to end on a record boundary
+    private long completeLength = -1;
+    private int recordCount;
+    private final EnumSet<Entity> touched = EnumSet.noneOf(Entity.class);
+    private final EnumSet<Entity> compacting = EnumSet.noneOf(Entity.class);
+    private int compactionRound;
+
+    public ChangeJournal(String dataDirectory) {
+        this.journalFile = new File(dataDirectory, JOURNAL_FILE);
+        this.compactingFile = new File(dataDirectory, COMPACTING_FILE);
+    }
+
+    public void put(Classroom classroom) {
+        append("PUT", Entity.CLASSROOMS, CSVHandler.formatClassroom(classroom));
+    }
+
+    public void put(Course course) {
+        append("PUT", Entity.COURSES, CSVHandler.formatCourse(course));
+    }
+
+    public void put(Instructor instructor) {
+        append("PUT", Entity.INSTRUCTORS, CSVHandler.formatInstructor(instructor));
+    }
+
+    // Keys are CSV fields like the PUT payloads, so a quote in a course code
+    // cannot unbalance the record boundaries
+    public void deleteClassroom(int id) {
+        append("DELETE", Entity.CLASSROOMS, CsvReader.quote(String.valueOf(id)));
+    }
+
+    public void deleteCourse(String code) {
+        append("DELETE", Entity.COURSES, CsvReader.quote(code));
+    }
+
+    public void deleteInstructor(int id) {
+        append("DELETE", Entity.INSTRUCTORS, CsvReader.quote(String.valueOf(id)));
+    }
+
+    // Opened per record so the append always lands in the current journal file
+    private synchronized void append(String operation, Entity entity, String payload) {
+        byte[] record = (operation + "," + entity.name() + "," + payload + "\n").getBytes(StandardCharsets.UTF_8);
+        boolean created = !journalFile.exists();
+        try {
+            if (journalFile.length() != completeLength) {
+                completeLength = trimIncompleteRecord(journalFile);
+            }
+            try (FileOutputStream out = new FileOutputStream(journalFile, true)) {
+                out.write(record);
+                out.getFD().sync();
+            }
+            completeLength += record.length;
+        } catch (IOException e) {
+            e.printStackTrace();
+            throw new RuntimeException("Error writing change journal: " + e.getMessage());
+        }
+        if (created) {
+            // A new journal is only found after a crash if its name is on disk too
+            CSVHandler.syncDirectory(journalFile.getAbsoluteFile().getParentFile());
+        }
+        recordCount++;
+        touched.add(entity);
+    }
+
+    /**
+     * Cuts off a record left incomplete by a crash, which replay skips
+     * anyway, so that the next record is not appended into it; a cut-off
+     * quoted field would otherwise swallow it. Returns the new length.
+     */
+    private static long trimIncompleteRecord(File file) throws IOException {
+        if (!file.exists()) {
+            return 0;
+        }
+        byte[] content = Files.readAllBytes(file.toPath());
+        int end = completeLength(content);
+        if (end < content.length) {
+            try (FileChannel channel = FileChannel.open(file.toPath(), StandardOpenOption.WRITE)) {
+                channel.truncate(end);
+                channel.force(true);
+            }
+        }
+        return end;
+    }
+
+    // Records appended since the last compaction started
+    public synchronized int getRecordCount() {
+        return recordCount;
+    }
+
+    /**
+     * Applies the journal (including one left over from an unfinished
+     * compaction) to freshly loaded snapshots. Returns the number of records
+     * applied.
+     */
+    public synchronized int replay(List<Classroom> classrooms, List<Course> courses, List<Instructor> instructors) {
+        int applied = 0;
+        for (File file : new File[] {compactingFile, journalFile}) {
+            if (!file.exists()) {
+                continue;
+            }
+
+            byte[] content;
+            try {
+                content = Files.readAllBytes(file.toPath());
+            } catch (IOException e) {
+                e.printStackTrace();
+                throw new RuntimeException("Error reading change journal: " + e.getMessage());
+            }
+
+            for (String line : records(content)) {
+                if (line.trim().isEmpty()) {
+                    continue;
+                }
+                try {
+                    Entity entity = apply(line, classrooms, courses, instructors);
+                    (file == compactingFile ? compacting : touched).add(entity);
+                    applied++;
+                } catch (RuntimeException e) {
+                    System.out.println("Skipping unreadable journal record: " + line);
+                }
+            }
+        }
+        recordCount = applied;
+        return applied;
+    }
+
+    // Bytes up to the end of the last complete record, split as in records()
+    static int completeLength(byte[] content) {
+        boolean quoted = false;
+        int end = 0;
+        for (int i = 0; i < content.length; i++) {
+            if (content[i] == '"') {
+                quoted = !quoted;
+            } else if (content[i] == '\n' && !quoted) {
+                end = i + 1;
+            }
+        }
+        return end;
+    }
+
+    /**
+     * Splits a journal into its complete records. Payloads are CSV rows, so a
+     * line break inside a quoted field belongs to its record. A last record
+     * without its line break was cut off by a crash and is left out.
+     */
+    static List<String> records(byte[] content) {
+        List<String> records = new ArrayList<>();
+        boolean quoted = false;
+        int start = 0;
+        for (int i = 0; i < content.length; i++) {
+            if (content[i] == '"') {
+                quoted = !quoted;
+            } else if (content[i] == '\n' && !quoted) {
+                records.add(new String(content, start, i - start, StandardCharsets.UTF_8));
+                start = i + 1;
+            }
+        }
+        return records;
+    }
+
+    private static Entity apply(String line, List<Classroom> classrooms, List<Course> courses,
+                                List<Instructor> instructors) {
+        String[] parts = line.split(",", 3);
+        boolean put = parts[0].equals("PUT");
+        if (!put && !parts[0].equals("DELETE")) {
+            throw new IllegalArgumentException("Unknown operation " + parts[0]);
+        }
+        Entity entity = Entity.valueOf(parts[1]);
+        String payload = parts[2];
+        CsvReader.Row key = put ? null : CsvReader.parseLine(payload);
+        if (key != null && key.getError() != null) {
+            throw new IllegalArgumentException(key.getError());
+        }
+
+        switch (entity) {
+            case CLASSROOMS: {
+                Classroom classroom = put ? CSVHandler.parseClassroom(payload) : null;
+                int id = put ? classroom.getId() : key.getInt(0);
+                replace(classrooms, c -> c.getId() == id, classroom);
+                break;
+            }
+            case COURSES: {
+                Course course = put ? CSVHandler.parseCourse(payload) : null;
+                String code = put ? course.getCode() : key.getString(0);
+                replace(courses, c -> c.getCode().equals(code), course);
+                break;
+            }
+            case INSTRUCTORS: {
+                Instructor instructor = put ? CSVHandler.parseInstructor(payload) : null;
+                int id = put ? instructor.getId() : key.getInt(0);
+                replace(instructors, i -> i.getId() == id, instructor);
+                break;
+            }
+            default:
+                throw new IllegalArgumentException("Entity " + entity + " is not journaled");
+        }
+        return entity;
+    }
+
+    // Replaces the matching item in place (or appends), or removes it if replacement is null
+    private static <T> void replace(List<T> items, Predicate<T> matches, T replacement) {
+        for (int i = 0; i < items.size(); i++) {
+            if (matches.test(items.get(i))) {
+                if (replacement != null) {
+                    items.set(i, replacement);
+                } else {
+                    items.remove(i);
+                }
+                return;
+            }
+        }
+        if (replacement != null) {
+            items.add(replacement);
+        }
+    }
+
+    /**
+     * Moves the current journal aside and returns the number of this
+     * compaction round. The snapshots of {@link #getCompactingEntities()}
+     * have to be written before calling {@link #finishCompaction(int)}.
+     * If an earlier round did not finish, its records are kept and its
+     * entity types are included again.
+     */
+    public synchronized int beginCompaction() {
+        try {
+            if (journalFile.exists()) {
+                if (compactingFile.exists()) {
+                    // The merged records must be on disk before their only other copy goes
+                    trimIncompleteRecord(compactingFile);
+                    try (FileOutputStream out = new FileOutputStream(compactingFile, true)) {
+                        out.write(Files.readAllBytes(journalFile.toPath()));
+                        out.getFD().sync();
+                    }
+                    Files.delete(journalFile.toPath());
+                } else {
+                    Files.move(journalFile.toPath(), compactingFile.toPath());
+                }
+                CSVHandler.syncDirectory(journalFile.getAbsoluteFile().getParentFile());
+            }
+        } catch (IOException e) {
+            e.printStackTrace();
+            throw new RuntimeException("Error compacting change journal: " + e.getMessage());
+        }
+
+        compacting.addAll(touched);
+        touched.clear();
+        recordCount = 0;
+        return ++compactionRound;
+    }
+
+    public synchronized Set<Entity> getCompactingEntities() {
+        return EnumSet.copyOf(compacting);
+    }
+
+    // The snapshots written for this round now cover the moved journal; a
+    // later round that started meanwhile keeps the file until it finishes
+    public synchronized void finishCompaction(int round) {
+        if (round != compactionRound) {
+            return;
+        }
+        if (compactingFile.exists() && !compactingFile.delete()) {
+            System.out.println("Could not delete " + compactingFile);
+            return;
+        }
+        compacting.clear();
+    }
+}
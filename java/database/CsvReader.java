@@ -0,0 +1,313 @@
+package database;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+import java.util.Arrays;
+
+/**
+ * Streaming RFC-4180 reader used by CSVHandler.
+ *
+ * The whole file is read into one byte array and records are tokenised in
+ * place: a {@link Row} only holds field offsets, ints are parsed straight
+ * from the bytes, and Strings are created only for fields that are read as
+ * text. Delimiters and quotes are ASCII, so scanning UTF-8 bytes is safe.
+ *
+ * Quoted fields may contain commas, doubled quotes and line breaks. Unquoted
+ * fields are trimmed like the old split-and-trim parser did. A malformed
+ * record is reported through {@link Row#getError()} and does not stop the
+ * reader from moving on to the next one.
+ *
+ * The file is read rather than memory-mapped: on Windows a live mapping keeps
+ * the file from being replaced, which would break the atomic saves.
+ */
+public final class CsvReader {
+    private final byte[] data;
+    private final int limit;
+    private int position;
+    private int nextLine = 1;
+    private int lineNumber;
+    private final Row row;
+
+    private CsvReader(byte[] data) {
+        this.data = data;
+        this.limit = data.length;
+        this.row = new Row(data);
+        // Skip a UTF-8 byte order mark
+        if (limit >= 3 && (data[0] & 0xFF) == 0xEF && (data[1] & 0xFF) == 0xBB && (data[2] & 0xFF) == 0xBF) {
+            position = 3;
+        }
+    }
+
+    public static CsvReader open(String filename) throws IOException {
+        return new CsvReader(Files.readAllBytes(Paths.get(filename)));
+    }
+
+    // Tokenises a single record, e.g. a journal payload
+    public static Row parseLine(String line) {
+        CsvReader reader = new CsvReader(line.getBytes(StandardCharsets.UTF_8));
+        reader.next();
+        return reader.row;
+    }
+
+    // Physical line on which the current record starts
+    public int getLineNumber() {
+        return lineNumber;
+    }
+
+    public Row row() {
+        return row;
+    }
+
+    /**
+     * Advances to the next record. Returns false at the end of the input.
+     * The returned row is reused, so read its fields before calling again.
+     */
+    public boolean next() {
+        if (position >= limit) {
+            return false;
+        }
+
+        row.clear();
+        lineNumber = nextLine;
+        while (true) {
+            int pos = position;
+            while (pos < limit && (data[pos] == ' ' || data[pos] == '\t')) {
+                pos++;
+            }
+
+            if (pos < limit && data[pos] == '"') {
+                pos = readQuoted(pos + 1);
+            } else {
+                int start = position;
+                pos = start;
+                while (pos < limit && data[pos] != ',' && data[pos] != '\n') {
+                    pos++;
+                }
+                int end = pos;
+                if (end > start && data[end - 1] == '\r') {
+                    end--;
+                }
+                row.add(start, end, false, false);
+            }
+
+            if (pos >= limit) {
+                position = limit;
+                return true;
+            }
+            if (data[pos] == '\n') {
+                position = pos + 1;
+                nextLine++;
+                return true;
+            }
+            position = pos + 1; // past the comma
+        }
+    }
+
+    // Reads a quoted field whose content starts at pos; returns the position after it
+    private int readQuoted(int pos) {
+        int start = pos;
+        boolean escapes = false;
+        while (true) {
+            if (pos >= limit) {
+                row.fail("unterminated quoted field");
+                row.add(start, limit, true, escapes);
+                return limit;
+            }
+            byte b = data[pos];
+            if (b == '"') {
+                if (pos + 1 < limit && data[pos + 1] == '"') {
+                    escapes = true;
+                    pos += 2;
+                    continue;
+                }
+                break;
+            }
+            if (b == '\n') {
+                nextLine++;
+            }
+            pos++;
+        }
+        row.add(start, pos, true, escapes);
+
+        // Only blanks may follow the closing quote
+        pos++;
+        while (pos < limit && data[pos] != ',' && data[pos] != '\n') {
+            byte b = data[pos];
+            if (b != ' ' && b != '\t' && b != '\r') {
+                row.fail("unexpected text after closing quote in column " + row.size());
+            }
+            pos++;
+        }
+        return pos;
+    }
+
+    // Quotes a value for writing if it contains a delimiter, quote or line
+    // break, or starts or ends with blanks that reading would trim
+    public static String quote(String value) {
+        if (value.indexOf(',') < 0 && value.indexOf('"') < 0 && value.indexOf('\n') < 0 && value.indexOf('\r') < 0 &&
+            !isBlank(value, 0) && !isBlank(value, value.length() - 1)) {
+            return value;
+        }
+        return "\"" + value.replace("\"", "\"\"") + "\"";
+    }
+
+    private static boolean isBlank(String value, int index) {
+        return index >= 0 && index < value.length() && (value.charAt(index) == ' ' || value.charAt(index) == '\t');
+    }
+
+    /**
+     * Field offsets of one record. Accessors take 0-based column indices and
+     * throw IllegalArgumentException for missing columns and
+     * NumberFormatException for malformed numbers.
+     */
+    public static final class Row {
+        private final byte[] data;
+        private int[] starts = new int[16];
+        private int[] ends = new int[16];
+        private boolean[] quoted = new boolean[16];
+        private boolean[] escaped = new boolean[16];
+        private int size;
+        private String error;
+        
+        // Recently seen values of low-cardinality columns, by hash of their bytes
+        private static final int POOL_SIZE = 256;
+        private final String[] pool = new String[POOL_SIZE];
+        private final byte[][] pooledBytes = new byte[POOL_SIZE][];
+
+        private Row(byte[] data) {
+            this.data = data;
+        }
+
+        private void clear() {
+            size = 0;
+            error = null;
+        }
+
+        private void add(int start, int end, boolean isQuoted, boolean hasEscapes) {
+            if (size == starts.length) {
+                int capacity = size * 2;
+                starts = Arrays.copyOf(starts, capacity);
+                ends = Arrays.copyOf(ends, capacity);
+                quoted = Arrays.copyOf(quoted, capacity);
+                escaped = Arrays.copyOf(escaped, capacity);
+            }
+            if (!isQuoted) {
+                // Unquoted fields are trimmed
+                while (start < end && (data[start] == ' ' || data[start] == '\t')) {
+                    start++;
+                }
+                while (end > start && (data[end - 1] == ' ' || data[end - 1] == '\t')) {
+                    end--;
+                }
+            }
+            starts[size] = start;
+            ends[size] = end;
+            quoted[size] = isQuoted;
+            escaped[size] = hasEscapes;
+            size++;
+        }
+
+        private void fail(String message) {
+            if (error == null) {
+                error = message;
+            }
+        }
+
+        public int size() {
+            return size;
+        }
+
+        // Null unless the record is malformed
+        public String getError() {
+            return error;
+        }
+
+        // A line with nothing on it
+        public boolean isBlank() {
+            return size == 1 && !quoted[0] && starts[0] == ends[0];
+        }
+
+        private void check(int column) {
+            if (column >= size) {
+                throw new IllegalArgumentException("missing column " + (column + 1));
+            }
+        }
+
+        public String getString(int column) {
+            check(column);
+            String value = new String(data, starts[column], ends[column] - starts[column], StandardCharsets.UTF_8);
+            return escaped[column] ? value.replace("\"\"", "\"") : value;
+        }
+
+        /**
+         * Like getString, but repeated values (domains, room types, instructor
+         * IDs, schedule patterns) share one String instead of a copy per row.
+         */
+        public String getPooledString(int column) {
+            check(column);
+            if (escaped[column]) {
+                return getString(column);
+            }
+            int start = starts[column];
+            int length = ends[column] - start;
+            int hash = 0;
+            for (int i = start; i < start + length; i++) {
+                hash = 31 * hash + data[i];
+            }
+            int slot = (hash ^ (hash >>> 16)) & (POOL_SIZE - 1);
+            
+            byte[] pooled = pooledBytes[slot];
+            if (pooled != null && pooled.length == length) {
+                int i = 0;
+                while (i < length && pooled[i] == data[start + i]) {
+                    i++;
+                }
+                if (i == length) {
+                    return pool[slot];
+                }
+            }
+            pooledBytes[slot] = Arrays.copyOfRange(data, start, start + length);
+            pool[slot] = new String(data, start, length, StandardCharsets.UTF_8);
+            return pool[slot];
+        }
+
+        public int getInt(int column) {
+            check(column);
+            int pos = starts[column];
+            int end = ends[column];
+            boolean negative = pos < end && data[pos] == '-';
+            if (negative || (pos < end && data[pos] == '+')) {
+                pos++;
+            }
+            if (pos == end) {
+                throw new NumberFormatException("column " + (column + 1) + " is not a number: \"" + getString(column) + "\"");
+            }
+
+            long value = 0;
+            for (; pos < end; pos++) {
+                int digit = data[pos] - '0';
+                if (digit < 0 || digit > 9 || value > Integer.MAX_VALUE) {
+                    throw new NumberFormatException("column " + (column + 1) + " is not a number: \"" + getString(column) + "\"");
+                }
+                value = value * 10 + digit;
+            }
+            if (value > (negative ? -(long) Integer.MIN_VALUE : Integer.MAX_VALUE)) {
+                throw new NumberFormatException("column " + (column + 1) + " is out of range: \"" + getString(column) + "\"");
+            }
+            return (int) (negative ? -value : value);
+        }
+
+        // Same rule as Boolean.parseBoolean: true only for "true" in any case
+        public boolean getBoolean(int column) {
+            check(column);
+            int start = starts[column];
+            if (ends[column] - start != 4) {
+                return false;
+            }
+            return (data[start] | 0x20) == 't' && (data[start + 1] | 0x20) == 'r' &&
+                   (data[start + 2] | 0x20) == 'u' && (data[start + 3] | 0x20) == 'e';
+        }
+    }
+}
@@ -0,0 +1,212 @@
+package database;
+
+import model.*;
+import java.io.File;
+import java.util.*;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Write-behind persistence for the catalogue CSV files.
+ *
+ * Callers report which entity type changed; the store keeps a copy of the
+ * latest list per type and writes only those files once no further change has
+ * arrived for the debounce delay. A bulk edit of many courses therefore ends
+ * in a single write of courses.csv. Copies are taken when the change is
+ * reported, so the background writer never reads lists the UI is editing.
+ *
+ * Pending changes are also written by {@link #flush()}, by {@link #close()}
+ * and by one JVM shutdown hook shared by all open stores. Each file is
+ * replaced atomically by CSVHandler. A list that could not be written stays
+ * pending, unless a newer one replaced it meanwhile, and is written again by
+ * the next flush.
+ */
+public class WriteBehindStore {
+    public enum Entity {
+        CLASSROOMS("classrooms.csv"),
+        COURSES("courses.csv"),
+        INSTRUCTORS("instructors.csv"),
+        INSTRUCTOR_COURSES("instructorCourse.csv");
+
+        private final String fileName;
+
+        Entity(String fileName) {
+            this.fileName = fileName;
+        }
+
+        public String getFileName() {
+            return fileName;
+        }
+    }
+
+    private static final long DEFAULT_DEBOUNCE_MILLIS = 500;
+    private static final long CLOSE_TIMEOUT_SECONDS = 10;
+
+    private final String dataDirectory;
+    private final long debounceMillis;
+    private final Map<Entity, List<?>> pending = new EnumMap<>(Entity.class);
+    // Per entity: how many lists were marked dirty, and the newest of them
+    // that is on disk; a flush succeeds once everything marked before it is
+    private final long[] markedVersions = new long[Entity.values().length];
+    private final long[] writtenVersions = new long[Entity.values().length];
+    private final Object writeLock = new Object();
+    private final ScheduledExecutorService scheduler;
+    private ScheduledFuture<?> scheduledFlush;
+
+    // Stores not yet closed, flushed by a single shutdown hook
+    private static final Set<WriteBehindStore> openStores = new LinkedHashSet<>();
+    private static Thread shutdownHook;
+
+    public WriteBehindStore(String dataDirectory) {
+        this(dataDirectory, DEFAULT_DEBOUNCE_MILLIS);
+    }
+
+    public WriteBehindStore(String dataDirectory, long debounceMillis) {
+        this.dataDirectory = dataDirectory;
+        this.debounceMillis = debounceMillis;
+        this.scheduler = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread thread = new Thread(r, "csv-write-behind");
+            thread.setDaemon(true);
+            return thread;
+        });
+        register(this);
+    }
+
+    private static void register(WriteBehindStore store) {
+        synchronized (openStores) {
+            if (shutdownHook == null) {
+                shutdownHook = new Thread(WriteBehindStore::flushOpenStores, "csv-write-behind-shutdown");
+                Runtime.getRuntime().addShutdownHook(shutdownHook);
+            }
+            openStores.add(store);
+        }
+    }
+
+    private static void flushOpenStores() {
+        List<WriteBehindStore> stores;
+        synchronized (openStores) {
+            stores = new ArrayList<>(openStores);
+        }
+        for (WriteBehindStore store : stores) {
+            store.flush();
+        }
+    }
+
+    public String getFile(Entity entity) {
+        return new File(dataDirectory, entity.getFileName()).getPath();
+    }
+
+    // Records the current contents of one entity type and restarts the debounce
+    public synchronized void markDirty(Entity entity, List<?> items) {
+        pending.put(entity, new ArrayList<>(items));
+        markedVersions[entity.ordinal()]++;
+        if (scheduledFlush != null) {
+            scheduledFlush.cancel(false);
+        }
+        if (!scheduler.isShutdown()) {
+            scheduledFlush = scheduler.schedule(() -> flush(), debounceMillis, TimeUnit.MILLISECONDS);
+        }
+    }
+
+    public synchronized boolean isDirty(Entity entity) {
+        return pending.containsKey(entity);
+    }
+
+    /**
+     * Writes every pending file now, on the calling thread. Returns true only
+     * if every list marked dirty before the call is on disk, including lists
+     * another thread took for writing meanwhile; "nothing pending" is not
+     * enough, since that thread's write may have failed.
+     */
+    public boolean flush() {
+        long[] required;
+        synchronized (this) {
+            required = markedVersions.clone();
+        }
+
+        // Holding the write lock keeps an older snapshot from landing after a newer one
+        synchronized (writeLock) {
+            Map<Entity, List<?>> snapshot;
+            long[] versions;
+            synchronized (this) {
+                snapshot = new EnumMap<>(pending);
+                versions = markedVersions.clone();
+                pending.clear();
+            }
+
+            for (Map.Entry<Entity, List<?>> entry : snapshot.entrySet()) {
+                Entity entity = entry.getKey();
+                boolean written = write(entity, entry.getValue());
+                synchronized (this) {
+                    if (written) {
+                        int e = entity.ordinal();
+                        writtenVersions[e] = Math.max(writtenVersions[e], versions[e]);
+                    } else {
+                        // Keep it for the next flush unless a newer list is already waiting
+                        pending.putIfAbsent(entity, entry.getValue());
+                    }
+                }
+            }
+        }
+
+        synchronized (this) {
+            for (int e = 0; e < required.length; e++) {
+                if (writtenVersions[e] < required[e]) {
+                    return false;
+                }
+            }
+            return true;
+        }
+    }
+
+    // Writes every pending file on the background thread and runs the
+    // callback if everything marked dirty so far was written
+    public void flushInBackground(Runnable afterFlush) {
+        scheduler.execute(() -> {
+            if (flush()) {
+                afterFlush.run();
+            }
+        });
+    }
+
+    @SuppressWarnings("unchecked")
+    private boolean write(Entity entity, List<?> items) {
+        String file = getFile(entity);
+        switch (entity) {
+            case CLASSROOMS:
+                return CSVHandler.saveClassrooms((List<Classroom>) items, file);
+            case COURSES:
+                return CSVHandler.saveCourses((List<Course>) items, file);
+            case INSTRUCTORS:
+                return CSVHandler.saveInstructors((List<Instructor>) items, file);
+            case INSTRUCTOR_COURSES:
+                return CSVHandler.saveInstructorCourses((List<InstructorCourse>) items, file);
+            default:
+                return false;
+        }
+    }
+
+    // Flushes pending changes and stops the background writer once the work
+    // already queued on it is done
+    public void close() {
+        synchronized (this) {
+            // The flush below covers it; left queued, shutdown() would still
+            // wait out its debounce
+            if (scheduledFlush != null) {
+                scheduledFlush.cancel(false);
+            }
+            scheduler.shutdown();
+        }
+        flush();
+        try {
+            scheduler.awaitTermination(CLOSE_TIMEOUT_SECONDS, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        synchronized (openStores) {
+            openStores.remove(this);
+        }
+    }
+}
@@ -0,0 +1,138 @@
+package main;
+
+import controller.SolverMode;
+import database.CSVHandler;
+import model.ConflictReport;
+import service.TimetableService;
+import java.io.File;
+
+/**
+ * Headless entry point that generates a timetable without the Swing UI, for
+ * scheduled runs on servers. It loads the catalogue from a data directory,
+ * runs TimetableService generation, writes the timetable and a conflict
+ * report, and exits with a status code. Nothing here loads AWT or FlatLaf.
+ *
+ * Usage: java main.BatchMain --data resources --attempts 50 --threads 4 --time-budget 60000 --seed 42
+ *
+ * The timetable goes to timetable.csv and the report to conflicts.csv in the
+ * data directory unless --out and --report say otherwise. Exit status: 0 for
+ * a conflict-free timetable, 1 if it has conflicts, 2 for usage errors and 3
+ * if the catalogue could not be read or the results could not be written.
+ */
+public class BatchMain {
+    private static final int EXIT_CONFLICT_FREE = 0;
+    private static final int EXIT_CONFLICTS = 1;
+    private static final int EXIT_USAGE = 2;
+    private static final int EXIT_FAILED = 3;
+
+    public static void main(String[] args) {
+        // Anything that reaches for a display should fail instead of opening one
+        System.setProperty("java.awt.headless", "true");
+
+        String data = "resources";
+        String out = null;
+        String report = null;
+        Integer attempts = null;
+        Integer threads = null;
+        Long seed = null;
+        long timeBudget = 0;
+        long repairBudget = 0;
+        SolverMode solver = SolverMode.GREEDY;
+
+        for (int i = 0; i < args.length; i++) {
+            String option = args[i];
+            if (i + 1 >= args.length) {
+                usage("Missing value for " + option);
+            }
+            String value = args[++i];
+            try {
+                switch (option) {
+                    case "--data": data = value; break;
+                    case "--out": out = value; break;
+                    case "--report": report = value; break;
+                    case "--attempts": attempts = Integer.parseInt(value); break;
+                    case "--threads": threads = Integer.parseInt(value); break;
+                    case "--time-budget": timeBudget = Long.parseLong(value); break;
+                    case "--repair-budget": repairBudget = Long.parseLong(value); break;
+                    case "--seed": seed = Long.parseLong(value); break;
+                    case "--solver": solver = SolverMode.valueOf(value.toUpperCase()); break;
+                    default: usage("Unknown option " + option);
+                }
+            } catch (IllegalArgumentException e) {
+                usage("Invalid value for " + option + ": " + e.getMessage());
+            }
+        }
+        if (!new File(data).isDirectory()) {
+            usage("No data directory at " + data);
+        }
+        if ((attempts != null && attempts < 1) || (threads != null && threads < 1)) {
+            usage("Attempts and threads must be at least 1");
+        }
+        if (out == null) {
+            out = new File(data, "timetable.csv").getPath();
+        }
+        if (report == null) {
+            report = new File(data, "conflicts.csv").getPath();
+        }
+
+        int status;
+        TimetableService service = null;
+        try {
+            service = new TimetableService(data);
+            if (attempts != null) {
+                service.setAttempts(attempts);
+            }
+            if (threads != null) {
+                service.setParallelism(threads);
+            }
+            if (seed != null) {
+                service.setRandomSeed(seed);
+            }
+            if (timeBudget > 0) {
+                // Also caps a single search attempt, which could otherwise outlast the budget
+                service.setGenerationBudgetMillis(timeBudget);
+                service.setTimeBudgetMillis(timeBudget);
+            }
+            service.setRepairBudgetMillis(repairBudget);
+            service.setSolverMode(solver);
+            status = generate(service, out, report);
+        } catch (RuntimeException e) {
+            e.printStackTrace();
+            status = EXIT_FAILED;
+        } finally {
+            if (service != null) {
+                service.close();
+            }
+        }
+        System.exit(status);
+    }
+
+    private static int generate(TimetableService service, String out, String report) {
+        if (service.getAllCourses().isEmpty()) {
+            System.err.println("No courses to schedule");
+            return EXIT_FAILED;
+        }
+
+        long start = System.currentTimeMillis();
+        service.generateTimetable();
+        ConflictReport conflicts = service.getConflicts();
+        System.out.println("Generated " + service.getTimetable().size() + " entries with " +
+                           conflicts.summary() + " in " + (System.currentTimeMillis() - start) + " ms");
+
+        if (!CSVHandler.saveTimetable(service.getTimetable(), out) ||
+            !CSVHandler.saveConflicts(conflicts, service.getCatalogueIndex(), report)) {
+            System.err.println("Could not write " + out + " or " + report);
+            return EXIT_FAILED;
+        }
+        System.out.println("Wrote " + out + " and " + report);
+        return conflicts.isEmpty() ? EXIT_CONFLICT_FREE : EXIT_CONFLICTS;
+    }
+
+    private static void usage(String error) {
+        System.err.println(error);
+        System.err.println("Usage: java main.BatchMain [--data DIR] [--out FILE] [--report FILE]");
+        System.err.println("       [--attempts N] [--threads N] [--time-budget MS] [--seed N]");
+        System.err.println("       [--solver greedy|backtracking] [--repair-budget MS]");
+        System.exit(EXIT_USAGE);
+    }
+}
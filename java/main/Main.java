@@ -1,12 +1,17 @@
 package main;
 
 import com.formdev.flatlaf.FlatLightLaf;
+import service.TimetableService;
 import view.Dashboard;
 import javax.swing.SwingUtilities;
 import javax.swing.UIManager;
+import java.util.concurrent.CompletableFuture;
 
 public class Main {
     public static void main(String[] args) {
+        // Read the catalogue while the look and feel and the window are set up
+        final CompletableFuture<TimetableService> service = CompletableFuture.supplyAsync(TimetableService::new);
+
         try {
             // Set FlatLaf as the Look and Feel
             FlatLightLaf.setup();
@@ -25,7 +30,7 @@ public class Main {
         SwingUtilities.invokeLater(new Runnable() {
             @Override
             public void run() {
-                Dashboard dashboard = new Dashboard();
+                Dashboard dashboard = new Dashboard(service);
                 dashboard.setVisible(true);
             }
         });
@@ -0,0 +1,85 @@
+package main;
+
+import service.QueryServer;
+import service.TimetableService;
+import java.io.File;
+import java.io.IOException;
+import java.util.concurrent.CountDownLatch;
+
+/**
+ * Command-line entry point for the read-only HTTP API. It loads the
+ * catalogue from a data directory, serves the timetable saved there (or
+ * generates one if there is none or --generate is given) on localhost, and
+ * runs until the process is stopped.
+ *
+ * Usage: java main.QueryServerMain --data resources --port 8080 --threads 16 --generate
+ *
+ * Port 0 picks a free port. Usage errors exit with status 2.
+ */
+public class QueryServerMain {
+    private static final int DEFAULT_PORT = 8080;
+    private static final int DEFAULT_THREADS = 16;
+    private static final int EXIT_USAGE = 2;
+
+    public static void main(String[] args) throws IOException {
+        String data = "resources";
+        int port = DEFAULT_PORT;
+        int threads = DEFAULT_THREADS;
+        boolean generate = false;
+
+        for (int i = 0; i < args.length; i++) {
+            String option = args[i];
+            if (option.equals("--generate")) {
+                generate = true;
+                continue;
+            }
+            if (i + 1 >= args.length) {
+                usage("Missing value for " + option);
+            }
+            String value = args[++i];
+            try {
+                switch (option) {
+                    case "--data": data = value; break;
+                    case "--port": port = Integer.parseInt(value); break;
+                    case "--threads": threads = Integer.parseInt(value); break;
+                    default: usage("Unknown option " + option);
+                }
+            } catch (NumberFormatException e) {
+                usage("Invalid value for " + option + ": " + e.getMessage());
+            }
+        }
+        if (!new File(data).isDirectory()) {
+            usage("No data directory at " + data);
+        }
+        if (port < 0 || port > 65535) {
+            usage("Port must be between 0 and 65535");
+        }
+        if (threads < 1) {
+            usage("Threads must be at least 1");
+        }
+
+        TimetableService service = new TimetableService(data);
+        if (generate || !service.loadSavedTimetable()) {
+            service.generateTimetable();
+        }
+        QueryServer server = new QueryServer(service, port, threads);
+        server.start();
+        Runtime.getRuntime().addShutdownHook(new Thread(() -> {
+            server.stop();
+            service.close();
+        }, "query-server-shutdown"));
+
+        // Worker threads are daemons; keep the JVM alive until it is stopped
+        try {
+            new CountDownLatch(1).await();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private static void usage(String error) {
+        System.err.println(error);
+        System.err.println("Usage: java main.QueryServerMain [--data DIR] [--port N] [--threads N] [--generate]");
+        System.exit(EXIT_USAGE);
+    }
+}
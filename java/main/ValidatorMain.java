@@ -0,0 +1,73 @@
+package main;
+
+import controller.TimetableGenerator;
+import controller.TimetableValidator;
+import database.CSVHandler;
+import database.ChangeJournal;
+import model.*;
+import java.io.File;
+import java.util.*;
+
+/**
+ * Command-line check of a timetable file, e.g. one edited by hand. It loads
+ * the catalogue from a data directory the way the application would (journal
+ * included, nothing written back), runs {@link TimetableValidator} on the
+ * timetable and also reports courses with fewer lectures or labs than they
+ * require, as the generator does.
+ *
+ * Usage: java main.ValidatorMain DATA_DIR [TIMETABLE_CSV]
+ *
+ * The timetable defaults to timetable.csv in the data directory. Exit
+ * status: 0 for a valid timetable, 1 if it has conflicts or unreadable rows
+ * and 2 for usage errors.
+ */
+public class ValidatorMain {
+    private static final int EXIT_VALID = 0;
+    private static final int EXIT_INVALID = 1;
+    private static final int EXIT_USAGE = 2;
+
+    public static void main(String[] args) {
+        if (args.length < 1 || args.length > 2) {
+            usage("Expected a data directory and optionally a timetable file");
+        }
+        String dataDirectory = args[0];
+        String timetableFile = args.length > 1 ? args[1] : new File(dataDirectory, "timetable.csv").getPath();
+        if (!new File(dataDirectory).isDirectory()) {
+            usage("No data directory at " + dataDirectory);
+        }
+        if (!new File(timetableFile).isFile()) {
+            usage("No timetable at " + timetableFile);
+        }
+
+        List<Classroom> classrooms = CSVHandler.loadClassrooms(new File(dataDirectory, "classrooms.csv").getPath());
+        List<Course> courses = CSVHandler.loadCourses(new File(dataDirectory, "courses.csv").getPath());
+        List<Instructor> instructors = CSVHandler.loadInstructors(new File(dataDirectory, "instructors.csv").getPath());
+        new ChangeJournal(dataDirectory).replay(classrooms, courses, instructors);
+
+        List<String> errors = new ArrayList<>();
+        List<TimetableEntry> timetable = CSVHandler.loadTimetable(timetableFile, errors);
+
+        long start = System.nanoTime();
+        CatalogueIndex catalogue = new CatalogueIndex(classrooms, courses, instructors);
+        ConflictReport conflicts = new ConflictReport();
+        TimetableGenerator.reportUnscheduled(courses, timetable, conflicts);
+        new TimetableValidator(catalogue).validate(timetable, conflicts);
+        long micros = (System.nanoTime() - start) / 1000;
+
+        for (String error : errors) {
+            System.out.println("Unreadable row: " + error);
+        }
+        for (Conflict conflict : conflicts) {
+            System.out.println(conflict.format(catalogue));
+        }
+        System.out.println("Checked " + timetable.size() + " entries in " + micros + " us: " +
+                           conflicts.summary() + ", " + errors.size() + " unreadable rows");
+        System.exit(conflicts.isEmpty() && errors.isEmpty() ? EXIT_VALID : EXIT_INVALID);
+    }
+
+    private static void usage(String error) {
+        System.err.println(error);
+        System.err.println("Usage: java main.ValidatorMain DATA_DIR [TIMETABLE_CSV]");
+        System.exit(EXIT_USAGE);
+    }
+}
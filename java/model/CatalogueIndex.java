@@ -0,0 +1,61 @@
+package model;
+
+import java.util.*;
+
+/**
+ * Read-only lookup of catalogue entities by ID, built from one state of the
+ * catalogue lists. TimetableService keeps the current index and drops it on
+ * every edit, so views and generators share one index instead of scanning
+ * the lists per lookup. An index never changes after it is built and can be
+ * read from any thread.
+ *
+ * Where the lists contain duplicate IDs the first entry wins, as it did for
+ * the linear scans this replaces.
+ */
+public class CatalogueIndex {
+    private final Map<Integer, Classroom> classroomsById = new HashMap<>();
+    private final Map<String, Course> coursesByCode = new HashMap<>();
+    private final Map<Integer, Instructor> instructorsById = new HashMap<>();
+
+    public CatalogueIndex(List<Classroom> classrooms, List<Course> courses, List<Instructor> instructors) {
+        for (Classroom classroom : classrooms) {
+            classroomsById.putIfAbsent(classroom.getId(), classroom);
+        }
+        for (Course course : courses) {
+            coursesByCode.putIfAbsent(course.getCode(), course);
+        }
+        for (Instructor instructor : instructors) {
+            instructorsById.putIfAbsent(instructor.getId(), instructor);
+        }
+    }
+
+    // Null if there is no such classroom
+    public Classroom getClassroom(int id) {
+        return classroomsById.get(id);
+    }
+
+    // Null if there is no such course
+    public Course getCourse(String code) {
+        return coursesByCode.get(code);
+    }
+
+    // Null if there is no such instructor
+    public Instructor getInstructor(int id) {
+        return instructorsById.get(id);
+    }
+
+    // Courses refer to instructors by their ID as text; null if unknown or not a number
+    public Instructor getInstructor(String id) {
+        try {
+            return instructorsById.get(Integer.parseInt(id));
+        } catch (NumberFormatException e) {
+            return null;
+        }
+    }
+
+    // "First Last", or the given fallback if there is no such instructor
+    public String getInstructorName(int id, String unknown) {
+        Instructor instructor = instructorsById.get(id);
+        return instructor != null ? instructor.getFullName() : unknown;
+    }
+}
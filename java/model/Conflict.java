@@ -0,0 +1,175 @@
+package model;
+
+/**
+ * One problem found in a timetable, kept as plain fields so generation runs
+ * can count and score conflicts without building message strings. The text
+ * is only produced by {@link #format(CatalogueIndex)} when a conflict is
+ * shown.
+ *
+ * Fields that do not apply to a kind are null, or -1 for numbers. Day and
+ * time are the labels used in timetable entries; for clashes the time is the
+ * single period that is double-booked.
+ */
+public final class Conflict {
+    public enum Kind {
+        // Missing sessions; weighted per missing teaching period
+        UNSCHEDULED_LECTURE(1),
+        UNSCHEDULED_LAB(2),
+        // Resources booked twice in one period
+        ROOM_CLASH(100),
+        INSTRUCTOR_CLASH(100),
+        COHORT_CLASH(100),
+        // Entries placed in a room that does not suit them
+        CAPACITY(50),
+        ROOM_TYPE(50),
+        // Entries that cannot be checked against the catalogue
+        UNKNOWN_COURSE(100),
+        UNKNOWN_ROOM(100),
+        UNKNOWN_TIME(100),
+        UNKNOWN_SESSION_TYPE(100);
+
+        private final int severity;
+
+        Kind(int severity) {
+            this.severity = severity;
+        }
+
+        public int getSeverity() {
+            return severity;
+        }
+    }
+
+    private final Kind kind;
+    private final String courseCode;
+    private final String sessionType;
+    private final String otherCourseCode;
+    private final String otherSessionType;
+    private final String day;
+    private final String time;
+    private final int roomId;
+    private final int instructorId;
+    private final int required;
+    private final int shortfall;
+
+    private Conflict(Kind kind, String courseCode, String sessionType, String otherCourseCode,
+                     String otherSessionType, String day, String time, int roomId, int instructorId,
+                     int required, int shortfall) {
+        this.kind = kind;
+        this.courseCode = courseCode;
+        this.sessionType = sessionType;
+        this.otherCourseCode = otherCourseCode;
+        this.otherSessionType = otherSessionType;
+        this.day = day;
+        this.time = time;
+        this.roomId = roomId;
+        this.instructorId = instructorId;
+        this.required = required;
+        this.shortfall = shortfall;
+    }
+
+    // A course with fewer lectures or labs in the timetable than it requires
+    public static Conflict unscheduled(Course course, String sessionType, int scheduled) {
+        boolean lab = sessionType.equals("Lab");
+        int required = lab ? course.getLabHours() : course.getLectureHours();
+        return new Conflict(lab ? Kind.UNSCHEDULED_LAB : Kind.UNSCHEDULED_LECTURE, course.getCode(), sessionType,
+                            null, null, null, null, -1, -1, required, required - scheduled);
+    }
+
+    // The room, instructor or cohort of entry was already taken by other in this period
+    public static Conflict clash(Kind kind, TimetableEntry other, TimetableEntry entry, String day, String time) {
+        return new Conflict(kind, entry.getCourseCode(), entry.getSessionType(), other.getCourseCode(),
+                            other.getSessionType(), day, time, entry.getRoomId(), entry.getInstructorId(), -1, -1);
+    }
+
+    // The entry's room seats fewer than the course's students
+    public static Conflict capacity(TimetableEntry entry, int students, int seats) {
+        return new Conflict(Kind.CAPACITY, entry.getCourseCode(), entry.getSessionType(), null, null,
+                            entry.getDay(), entry.getTime(), entry.getRoomId(), entry.getInstructorId(),
+                            students, students - seats);
+    }
+
+    // ROOM_TYPE or one of the UNKNOWN kinds, about a single entry
+    public static Conflict of(Kind kind, TimetableEntry entry) {
+        return new Conflict(kind, entry.getCourseCode(), entry.getSessionType(), null, null,
+                            entry.getDay(), entry.getTime(), entry.getRoomId(), entry.getInstructorId(), -1, -1);
+    }
+
+    public Kind getKind() { return kind; }
+    public String getCourseCode() { return courseCode; }
+    public String getSessionType() { return sessionType; }
+    // The session that held the resource first, for clashes
+    public String getOtherCourseCode() { return otherCourseCode; }
+    public String getOtherSessionType() { return otherSessionType; }
+    public String getDay() { return day; }
+    public String getTime() { return time; }
+    public int getRoomId() { return roomId; }
+    public int getInstructorId() { return instructorId; }
+    // Sessions required for UNSCHEDULED kinds, students for CAPACITY
+    public int getRequired() { return required; }
+    // Missing sessions for UNSCHEDULED kinds, missing seats for CAPACITY
+    public int getShortfall() { return shortfall; }
+
+    // Weight of this conflict when comparing timetables; lower is better
+    public int getScore() {
+        return kind.getSeverity() * Math.max(1, shortfall);
+    }
+
+    /**
+     * Describes the conflict for people. Instructor names and cohorts are
+     * looked up in the catalogue; without one the instructor ID is shown.
+     */
+    public String format(CatalogueIndex catalogue) {
+        switch (kind) {
+            case UNSCHEDULED_LECTURE:
+                return "Could not schedule all lectures for " + courseCode +
+                       ". Required: " + required + ", Scheduled: " + (required - shortfall);
+            case UNSCHEDULED_LAB:
+                return "Could not schedule all labs for " + courseCode +
+                       ". Required: " + required + ", Scheduled: " + (required - shortfall);
+            case ROOM_CLASH:
+                return "Room " + roomId + " is double-booked on " + day + " at " + time + sessions();
+            case INSTRUCTOR_CLASH:
+                return "Instructor " + instructorName(catalogue) + " is double-booked on " + day + " at " + time +
+                       sessions();
+            case COHORT_CLASH:
+                return cohortName(catalogue) + " is double-booked on " + day + " at " + time + sessions();
+            case CAPACITY:
+                return "Room " + roomId + " seats " + (required - shortfall) + " but " + describe() +
+                       " has " + required + " students";
+            case ROOM_TYPE:
+                return "Room " + roomId + " of " + describe() +
+                       (sessionType.equals("Lab") ? " is not a lab with computers" : " is not a lecture room");
+            case UNKNOWN_COURSE:
+                return "Unknown course " + courseCode + " on " + day + " at " + time;
+            case UNKNOWN_ROOM:
+                return "Room " + roomId + " of " + describe() + " does not exist";
+            case UNKNOWN_TIME:
+                return courseCode + " is scheduled at an unknown time: " + day + " " + time;
+            case UNKNOWN_SESSION_TYPE:
+                return describe() + " has unknown session type " + sessionType;
+            default:
+                return kind + " " + courseCode;
+        }
+    }
+
+    private String instructorName(CatalogueIndex catalogue) {
+        return catalogue != null ? catalogue.getInstructorName(instructorId, "Unknown Instructor")
+                                 : String.valueOf(instructorId);
+    }
+
+    private String cohortName(CatalogueIndex catalogue) {
+        Course course = catalogue != null ? catalogue.getCourse(courseCode) : null;
+        return course != null ? course.getDomain() + " year " + course.getYear() : "The cohort of " + courseCode;
+    }
+
+    private String sessions() {
+        return " (" + otherCourseCode + " " + otherSessionType + " and " + courseCode + " " + sessionType + ")";
+    }
+
+    private String describe() {
+        return courseCode + " " + sessionType + " on " + day + " at " + time;
+    }
+
+    @Override
+    public String toString() { return format(null); }
+}
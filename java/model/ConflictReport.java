@@ -0,0 +1,81 @@
+package model;
+
+import java.util.*;
+
+/**
+ * The conflicts of one timetable, in the order they were found. Counts per
+ * kind and the severity-weighted score are kept up to date as conflicts are
+ * added, so comparing generation attempts never walks or formats the list.
+ */
+public class ConflictReport implements Iterable<Conflict> {
+    private static final Conflict.Kind[] KINDS = Conflict.Kind.values();
+
+    private final List<Conflict> conflicts = new ArrayList<>();
+    private final int[] counts = new int[KINDS.length];
+    private long score;
+
+    public void add(Conflict conflict) {
+        conflicts.add(conflict);
+        counts[conflict.getKind().ordinal()]++;
+        score += conflict.getScore();
+    }
+
+    public void addAll(ConflictReport other) {
+        for (Conflict conflict : other.conflicts) {
+            add(conflict);
+        }
+    }
+
+    public void clear() {
+        conflicts.clear();
+        Arrays.fill(counts, 0);
+        score = 0;
+    }
+
+    public int size() {
+        return conflicts.size();
+    }
+
+    public boolean isEmpty() {
+        return conflicts.isEmpty();
+    }
+
+    public int count(Conflict.Kind kind) {
+        return counts[kind.ordinal()];
+    }
+
+    // Sum of the conflicts' scores; lower is better, 0 only for a clean timetable
+    public long getScore() {
+        return score;
+    }
+
+    public Conflict get(int index) {
+        return conflicts.get(index);
+    }
+
+    public List<Conflict> asList() {
+        return Collections.unmodifiableList(conflicts);
+    }
+
+    @Override
+    public Iterator<Conflict> iterator() {
+        return asList().iterator();
+    }
+
+    // "3 conflicts (2 UNSCHEDULED_LAB, 1 ROOM_CLASH)", without formatting any conflict
+    public String summary() {
+        StringBuilder sb = new StringBuilder();
+        sb.append(conflicts.size()).append(conflicts.size() == 1 ? " conflict" : " conflicts");
+        String separator = " (";
+        for (Conflict.Kind kind : KINDS) {
+            if (counts[kind.ordinal()] > 0) {
+                sb.append(separator).append(counts[kind.ordinal()]).append(' ').append(kind);
+                separator = ", ";
+            }
+        }
+        if (!separator.equals(" (")) {
+            sb.append(')');
+        }
+        return sb.toString();
+    }
+}
@@ -0,0 +1,24 @@
+package model;
+
+/**
+ * Consecutive teaching periods of one day, the structured form of a time
+ * label such as "10:00 - 12:00". Periods are numbered from 0 in the order of
+ * TimetableGenerator.getLectureTimeSlots().
+ */
+public final class PeriodRange {
+    private final int start;
+    private final int periods;
+
+    public PeriodRange(int start, int periods) {
+        this.start = start;
+        this.periods = periods;
+    }
+
+    public int getStart() { return start; }
+    public int getPeriods() { return periods; }
+    // Last period covered, inclusive
+    public int getEnd() { return start + periods - 1; }
+
+    @Override
+    public String toString() { return "periods " + start + "-" + getEnd(); }
+}
@@ -0,0 +1,233 @@
+package service;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+import model.*;
+import service.TimetableReadModel.Response;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UnsupportedEncodingException;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.URLDecoder;
+import java.util.*;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Read-only HTTP API over the current timetable, bound to localhost:
+ *
+ *   GET /api/status
+ *   GET /api/instructors/{id}
+ *   GET /api/rooms/{id}
+ *   GET /api/cohorts/{domain}/{year}
+ *   GET /api/free-rooms?day=Monday&time=9:00 - 10:00[&type=Lab][&capacity=40]
+ *
+ * Requests are answered from an immutable {@link TimetableReadModel} and
+ * never touch the service. Whenever the service reports a change, a new
+ * model is built on a background thread from the service's latest published
+ * snapshot; requests keep using the previous model until the new one
+ * replaces it. Requests run on a fixed pool of worker threads.
+ *
+ * {@link main.QueryServerMain} runs it from the command line.
+ */
+public class QueryServer {
+    private final TimetableService service;
+    private final HttpServer server;
+    private final ExecutorService workers;
+    // Builds read models one at a time; superseded builds are skipped
+    private final ExecutorService builder;
+    private final TimetableService.Listener listener = change -> publish();
+    private final AtomicInteger pendingBuilds = new AtomicInteger();
+    private volatile TimetableReadModel model;
+
+    public QueryServer(TimetableService service, int port, int threads) throws IOException {
+        // The server writes headers and body separately; with Nagle's algorithm
+        // every keep-alive request would wait for a delayed ACK (about 40 ms)
+        System.setProperty("sun.net.httpserver.nodelay", "true");
+        this.service = service;
+        AtomicInteger workerCount = new AtomicInteger();
+        this.workers = Executors.newFixedThreadPool(threads, r -> {
+            Thread thread = new Thread(r, "query-server-" + workerCount.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+        this.builder = Executors.newSingleThreadExecutor(r -> {
+            Thread thread = new Thread(r, "query-read-model");
+            thread.setDaemon(true);
+            return thread;
+        });
+        this.server = HttpServer.create(new InetSocketAddress(InetAddress.getLoopbackAddress(), port), 0);
+        server.createContext("/api/", this::handle);
+        server.setExecutor(workers);
+    }
+
+    public void start() {
+        model = build(service.getSnapshot());
+        service.addListener(listener);
+        server.start();
+        System.out.println("Serving the timetable on http://" + InetAddress.getLoopbackAddress().getHostAddress() +
+                           ":" + getPort() + "/api/");
+    }
+
+    public void stop() {
+        service.removeListener(listener);
+        server.stop(0);
+        builder.shutdownNow();
+        workers.shutdown();
+    }
+
+    public int getPort() {
+        return server.getAddress().getPort();
+    }
+
+    // The model takes the snapshot's version, so clients can tell states apart
+    private static TimetableReadModel build(ServiceSnapshot snapshot) {
+        List<TimetableEntry> timetable = snapshot.getTimetable();
+        return new TimetableReadModel(snapshot.getVersion(),
+                                      timetable != null ? timetable : Collections.<TimetableEntry>emptyList(),
+                                      timetable != null ? snapshot.getConflicts() : null,
+                                      snapshot.getCatalogueIndex(), snapshot.getClassrooms(),
+                                      snapshot.getCourses(), snapshot.getInstructors());
+    }
+
+    // Runs on the thread that changed the service
+    private void publish() {
+        pendingBuilds.incrementAndGet();
+        builder.execute(() -> {
+            // A later change is queued behind this one and will build from newer state
+            if (pendingBuilds.decrementAndGet() > 0) {
+                return;
+            }
+            try {
+                // Snapshots are immutable, so the newest one can be read here
+                ServiceSnapshot snapshot = service.getSnapshot();
+                if (snapshot.getVersion() != model.getVersion()) {
+                    model = build(snapshot);
+                }
+            } catch (RuntimeException e) {
+                e.printStackTrace();
+            }
+        });
+    }
+
+    private void handle(HttpExchange exchange) throws IOException {
+        try {
+            Response response;
+            String method = exchange.getRequestMethod();
+            if (!method.equals("GET") && !method.equals("HEAD")) {
+                exchange.getResponseHeaders().set("Allow", "GET, HEAD");
+                response = TimetableReadModel.error(405, "Only GET and HEAD are supported");
+            } else {
+                response = route(model, exchange);
+            }
+            send(exchange, response, method.equals("HEAD"));
+        } catch (RuntimeException e) {
+            e.printStackTrace();
+            send(exchange, TimetableReadModel.error(500, "Internal error"), false);
+        } finally {
+            exchange.close();
+        }
+    }
+
+    private static Response route(TimetableReadModel model, HttpExchange exchange) {
+        String[] path = exchange.getRequestURI().getRawPath().substring("/api/".length()).split("/");
+        Map<String, String> query = parseQuery(exchange.getRequestURI().getRawQuery());
+        try {
+            switch (path[0]) {
+                case "status":
+                    return model.status();
+                case "instructors":
+                    if (path.length == 2) {
+                        return model.instructor(Integer.parseInt(decode(path[1])));
+                    }
+                    break;
+                case "rooms":
+                    if (path.length == 2) {
+                        return model.room(Integer.parseInt(decode(path[1])));
+                    }
+                    break;
+                case "cohorts":
+                    if (path.length == 3) {
+                        return model.cohort(decode(path[1]), Integer.parseInt(decode(path[2])));
+                    }
+                    break;
+                case "free-rooms":
+                    if (path.length == 1) {
+                        String capacity = query.get("capacity");
+                        return model.freeRooms(query.get("day"), query.get("time"), query.get("type"),
+                                               capacity != null ? Integer.parseInt(capacity) : 0);
+                    }
+                    break;
+                default:
+                    break;
+            }
+        } catch (NumberFormatException e) {
+            return TimetableReadModel.error(400, "Not a number: " + e.getMessage());
+        }
+        return TimetableReadModel.notFound("Unknown resource " + exchange.getRequestURI().getPath());
+    }
+
+    private static void send(HttpExchange exchange, Response response, boolean headOnly) throws IOException {
+        exchange.getResponseHeaders().set("Content-Type", "application/json; charset=utf-8");
+        int status = response.getStatus();
+        if (status == 200) {
+            exchange.getResponseHeaders().set("ETag", response.getEtag());
+            // Clients may keep the body but must revalidate it
+            exchange.getResponseHeaders().set("Cache-Control", "no-cache");
+            if (matches(exchange.getRequestHeaders().getFirst("If-None-Match"), response.getEtag())) {
+                exchange.sendResponseHeaders(304, -1);
+                return;
+            }
+        }
+        byte[] body = response.getBody();
+        if (headOnly) {
+            exchange.sendResponseHeaders(status, -1);
+            return;
+        }
+        exchange.sendResponseHeaders(status, body.length);
+        try (OutputStream out = exchange.getResponseBody()) {
+            out.write(body);
+        }
+    }
+
+    // If-None-Match holds "*" or a comma-separated list of (possibly weak) ETags
+    private static boolean matches(String ifNoneMatch, String etag) {
+        if (ifNoneMatch == null) {
+            return false;
+        }
+        for (String candidate : ifNoneMatch.split(",")) {
+            String tag = candidate.trim();
+            if (tag.startsWith("W/")) {
+                tag = tag.substring(2);
+            }
+            if (tag.equals("*") || tag.equals(etag)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static Map<String, String> parseQuery(String rawQuery) {
+        Map<String, String> query = new HashMap<>();
+        if (rawQuery == null) {
+            return query;
+        }
+        for (String pair : rawQuery.split("&")) {
+            int equals = pair.indexOf('=');
+            if (equals > 0) {
+                query.put(decode(pair.substring(0, equals)), decode(pair.substring(equals + 1)));
+            }
+        }
+        return query;
+    }
+
+    private static String decode(String value) {
+        try {
+            return URLDecoder.decode(value, "UTF-8");
+        } catch (UnsupportedEncodingException e) {
+            throw new RuntimeException(e);
+        }
+    }
+}
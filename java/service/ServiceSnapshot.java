@@ -0,0 +1,126 @@
+package service;
+
+import model.*;
+import java.util.*;
+
+/**
+ * One published state of a {@link TimetableService}: the catalogue, the
+ * timetable generated for it and that timetable's conflicts.
+ *
+ * A snapshot is never changed. An edit or a new timetable becomes a new
+ * snapshot that shares everything it did not change, and the service swaps
+ * it in with a single reference update. A reader that holds a snapshot can
+ * therefore use its lists, conflicts and index together without locking and
+ * without seeing half of a later change.
+ *
+ * The version grows with every published change; the catalogue version only
+ * when the catalogue changes, so a timetable can be matched to the catalogue
+ * it was generated for.
+ */
+public final class ServiceSnapshot {
+    private final long version;
+    private final long catalogueVersion;
+    private final List<Classroom> classrooms;
+    private final List<Course> courses;
+    private final List<Instructor> instructors;
+    private final List<InstructorCourse> instructorCourses;
+    // Null until a timetable has been generated or loaded
+    private final List<TimetableEntry> timetable;
+    private final ConflictReport conflicts;
+
+    // Built on first use; two threads may both build it, which is harmless
+    private volatile CatalogueIndex catalogueIndex;
+
+    private ServiceSnapshot(long version, long catalogueVersion, List<Classroom> classrooms, List<Course> courses,
+                            List<Instructor> instructors, List<InstructorCourse> instructorCourses,
+                            List<TimetableEntry> timetable, ConflictReport conflicts, CatalogueIndex catalogueIndex) {
+        this.version = version;
+        this.catalogueVersion = catalogueVersion;
+        this.classrooms = classrooms;
+        this.courses = courses;
+        this.instructors = instructors;
+        this.instructorCourses = instructorCourses;
+        this.timetable = timetable;
+        this.conflicts = conflicts;
+        this.catalogueIndex = catalogueIndex;
+    }
+
+    static ServiceSnapshot empty() {
+        return new ServiceSnapshot(0, 0, Collections.<Classroom>emptyList(), Collections.<Course>emptyList(),
+                                   Collections.<Instructor>emptyList(), Collections.<InstructorCourse>emptyList(),
+                                   null, null, null);
+    }
+
+    // The lists passed to the with* methods are taken over, not copied;
+    // callers hand in fresh lists and must not touch them afterwards
+
+    ServiceSnapshot withCatalogue(List<Classroom> classrooms, List<Course> courses, List<Instructor> instructors,
+                                  List<InstructorCourse> instructorCourses) {
+        return new ServiceSnapshot(version + 1, version + 1, Collections.unmodifiableList(classrooms),
+                                   Collections.unmodifiableList(courses), Collections.unmodifiableList(instructors),
+                                   Collections.unmodifiableList(instructorCourses), timetable, conflicts, null);
+    }
+
+    ServiceSnapshot withClassrooms(List<Classroom> classrooms) {
+        return new ServiceSnapshot(version + 1, version + 1, Collections.unmodifiableList(classrooms), courses,
+                                   instructors, instructorCourses, timetable, conflicts, null);
+    }
+
+    ServiceSnapshot withCourses(List<Course> courses) {
+        return new ServiceSnapshot(version + 1, version + 1, classrooms, Collections.unmodifiableList(courses),
+                                   instructors, instructorCourses, timetable, conflicts, null);
+    }
+
+    ServiceSnapshot withInstructors(List<Instructor> instructors) {
+        return new ServiceSnapshot(version + 1, version + 1, classrooms, courses,
+                                   Collections.unmodifiableList(instructors), instructorCourses, timetable, conflicts,
+                                   null);
+    }
+
+    // The conflict report must not be changed once it is handed over either
+    ServiceSnapshot withTimetable(List<TimetableEntry> timetable, ConflictReport conflicts) {
+        return new ServiceSnapshot(version + 1, catalogueVersion, classrooms, courses, instructors, instructorCourses,
+                                   Collections.unmodifiableList(timetable), conflicts, catalogueIndex);
+    }
+
+    public long getVersion() {
+        return version;
+    }
+
+    public long getCatalogueVersion() {
+        return catalogueVersion;
+    }
+
+    public List<Classroom> getClassrooms() {
+        return classrooms;
+    }
+
+    public List<Course> getCourses() {
+        return courses;
+    }
+
+    public List<Instructor> getInstructors() {
+        return instructors;
+    }
+
+    public List<InstructorCourse> getInstructorCourses() {
+        return instructorCourses;
+    }
+
+    public List<TimetableEntry> getTimetable() {
+        return timetable;
+    }
+
+    public ConflictReport getConflicts() {
+        return conflicts;
+    }
+
+    public CatalogueIndex getCatalogueIndex() {
+        CatalogueIndex index = catalogueIndex;
+        if (index == null) {
+            index = new CatalogueIndex(classrooms, courses, instructors);
+            catalogueIndex = index;
+        }
+        return index;
+    }
+}
@@ -0,0 +1,293 @@
+package service;
+
+import controller.TimetableGenerator;
+import model.*;
+import java.nio.charset.StandardCharsets;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.zip.CRC32;
+
+/**
+ * Immutable, query-shaped view of one published timetable for the HTTP API.
+ *
+ * Everything a query needs is worked out once when the model is built: each
+ * entry is encoded as JSON, entries are grouped by instructor, room and
+ * domain/year cohort in day and period order, and room occupancy is kept as
+ * one bitset per slot. Responses are assembled from these parts on first use
+ * and then cached, so a repeated query only costs a map lookup. A model is
+ * never changed after it is built and can be shared by any number of request
+ * threads; a newer timetable gets a new model.
+ *
+ * Every response carries an ETag derived from its body, so a client can
+ * revalidate with If-None-Match, and a schedule that did not change keeps
+ * its ETag when the timetable is regenerated.
+ */
+public final class TimetableReadModel {
+    private static final String[] DAYS = TimetableGenerator.getAllDays();
+    private static final String[] PERIODS = TimetableGenerator.getLectureTimeSlots();
+
+    // A finished HTTP response body with its status and ETag
+    public static final class Response {
+        private final int status;
+        private final byte[] body;
+        private final String etag;
+
+        Response(int status, String json) {
+            this.status = status;
+            this.body = json.getBytes(StandardCharsets.UTF_8);
+            CRC32 crc = new CRC32();
+            crc.update(body);
+            this.etag = "\"" + Long.toHexString(crc.getValue()) + "-" + Integer.toHexString(body.length) + "\"";
+        }
+
+        public int getStatus() { return status; }
+        public byte[] getBody() { return body; }
+        public String getEtag() { return etag; }
+    }
+
+    private final long version;
+    private final int entryCount;
+    private final String conflictSummary;
+    private final String[] entryJson;
+
+    private final Map<Integer, int[]> instructorEntries = new HashMap<>();
+    private final Map<Integer, String> instructorJson = new HashMap<>();
+    private final Map<Integer, int[]> roomEntries = new HashMap<>();
+    private final Map<String, int[]> cohortEntries = new HashMap<>();
+
+    // Rooms in ID order; bit r of slot s is set if rooms[r] is taken in slot s
+    private final Classroom[] rooms;
+    private final Map<Integer, Integer> roomIndices = new HashMap<>();
+    private final int roomWords;
+    private final long[] busyRooms;
+
+    private final Map<String, Response> responses = new ConcurrentHashMap<>();
+
+    public TimetableReadModel(long version, List<TimetableEntry> timetable, ConflictReport conflicts,
+                              CatalogueIndex catalogue, List<Classroom> classrooms, List<Course> courses,
+                              List<Instructor> instructors) {
+        this.version = version;
+        this.entryCount = timetable.size();
+        this.conflictSummary = conflicts != null ? conflicts.summary() : "no timetable";
+
+        rooms = classrooms.toArray(new Classroom[0]);
+        Arrays.sort(rooms, Comparator.comparingInt(Classroom::getId));
+        for (int r = 0; r < rooms.length; r++) {
+            roomIndices.putIfAbsent(rooms[r].getId(), r);
+        }
+        roomWords = Math.max(1, (rooms.length + 63) >>> 6);
+        busyRooms = new long[DAYS.length * PERIODS.length * roomWords];
+
+        // Entries in day and period order, so every group comes out sorted
+        int n = timetable.size();
+        long[] keys = new long[n];
+        for (int e = 0; e < n; e++) {
+            TimetableEntry entry = timetable.get(e);
+            int day = TimetableGenerator.getDayIndex(entry.getDay());
+            PeriodRange range = TimetableGenerator.getPeriodRange(entry.getTime());
+            int slot = day < 0 || range == null ? Integer.MAX_VALUE : day * PERIODS.length + range.getStart();
+            keys[e] = ((long) slot << 32) | e;
+
+            Integer room = roomIndices.get(entry.getRoomId());
+            if (room != null && slot != Integer.MAX_VALUE) {
+                for (int s = slot; s < slot + range.getPeriods(); s++) {
+                    busyRooms[s * roomWords + (room >>> 6)] |= 1L << room;
+                }
+            }
+        }
+        Arrays.sort(keys);
+
+        entryJson = new String[n];
+        Map<Integer, List<Integer>> byInstructor = new HashMap<>();
+        Map<Integer, List<Integer>> byRoom = new HashMap<>();
+        Map<String, List<Integer>> byCohort = new HashMap<>();
+        for (long key : keys) {
+            int e = (int) key;
+            TimetableEntry entry = timetable.get(e);
+            Course course = catalogue.getCourse(entry.getCourseCode());
+            entryJson[e] = encodeEntry(entry, course, catalogue);
+            byInstructor.computeIfAbsent(entry.getInstructorId(), k -> new ArrayList<>()).add(e);
+            byRoom.computeIfAbsent(entry.getRoomId(), k -> new ArrayList<>()).add(e);
+            if (course != null) {
+                byCohort.computeIfAbsent(cohortKey(course.getDomain(), course.getYear()), k -> new ArrayList<>()).add(e);
+            }
+        }
+
+        // Catalogue members without entries still get an (empty) schedule
+        for (Instructor instructor : instructors) {
+            byInstructor.putIfAbsent(instructor.getId(), new ArrayList<>());
+        }
+        for (Classroom classroom : classrooms) {
+            byRoom.putIfAbsent(classroom.getId(), new ArrayList<>());
+        }
+        for (Course course : courses) {
+            byCohort.putIfAbsent(cohortKey(course.getDomain(), course.getYear()), new ArrayList<>());
+        }
+
+        for (Map.Entry<Integer, List<Integer>> group : byInstructor.entrySet()) {
+            instructorEntries.put(group.getKey(), toArray(group.getValue()));
+            Instructor instructor = catalogue.getInstructor(group.getKey());
+            instructorJson.put(group.getKey(), "{\"id\":" + group.getKey() + ",\"name\":" +
+                               quote(instructor != null ? instructor.getFullName() : null) + ",\"department\":" +
+                               quote(instructor != null ? instructor.getDepartment() : null) + "}");
+        }
+        for (Map.Entry<Integer, List<Integer>> group : byRoom.entrySet()) {
+            roomEntries.put(group.getKey(), toArray(group.getValue()));
+        }
+        for (Map.Entry<String, List<Integer>> group : byCohort.entrySet()) {
+            cohortEntries.put(group.getKey(), toArray(group.getValue()));
+        }
+    }
+
+    public long getVersion() {
+        return version;
+    }
+
+    public Response status() {
+        return responses.computeIfAbsent("status", k -> new Response(200,
+                "{\"version\":" + version + ",\"entries\":" + entryCount + ",\"conflicts\":" +
+                quote(conflictSummary) + ",\"rooms\":" + rooms.length + ",\"instructors\":" +
+                instructorEntries.size() + ",\"cohorts\":" + cohortEntries.size() + "}"));
+    }
+
+    public Response instructor(int id) {
+        int[] entries = instructorEntries.get(id);
+        if (entries == null) {
+            return notFound("No instructor " + id);
+        }
+        return responses.computeIfAbsent("instructor/" + id, k ->
+                new Response(200, "{\"instructor\":" + instructorJson.get(id) + ",\"entries\":" + list(entries) + "}"));
+    }
+
+    public Response room(int id) {
+        int[] entries = roomEntries.get(id);
+        if (entries == null) {
+            return notFound("No room " + id);
+        }
+        return responses.computeIfAbsent("room/" + id, k -> {
+            Integer index = roomIndices.get(id);
+            String room = index != null ? encodeRoom(rooms[index]) : "{\"id\":" + id + "}";
+            return new Response(200, "{\"room\":" + room + ",\"entries\":" + list(entries) + "}");
+        });
+    }
+
+    public Response cohort(String domain, int year) {
+        String key = cohortKey(domain, year);
+        int[] entries = cohortEntries.get(key);
+        if (entries == null) {
+            return notFound("No courses for " + domain + " year " + year);
+        }
+        return responses.computeIfAbsent("cohort/" + key, k ->
+                new Response(200, "{\"domain\":" + quote(domain) + ",\"year\":" + year + ",\"entries\":" +
+                                  list(entries) + "}"));
+    }
+
+    /**
+     * Rooms free for the whole of a time label on a day, optionally only of
+     * one room type and with at least the given capacity (0 for any). Only
+     * the unfiltered single-period answers are cached; filtered ones are
+     * cheap to build and would grow the cache without bound.
+     */
+    public Response freeRooms(String day, String time, String roomType, int minCapacity) {
+        int dayIndex = TimetableGenerator.getDayIndex(day);
+        PeriodRange range = time != null ? TimetableGenerator.getPeriodRange(time) : null;
+        if (dayIndex < 0 || range == null) {
+            return error(400, "Unknown day or time: " + day + " " + time);
+        }
+        if (roomType == null && minCapacity <= 0 && range.getPeriods() == 1) {
+            return responses.computeIfAbsent("free/" + dayIndex + "/" + range.getStart(),
+                                             k -> buildFreeRooms(dayIndex, range, null, 0));
+        }
+        return buildFreeRooms(dayIndex, range, roomType, minCapacity);
+    }
+
+    private Response buildFreeRooms(int day, PeriodRange range, String roomType, int minCapacity) {
+        int firstSlot = day * PERIODS.length + range.getStart();
+        StringBuilder sb = new StringBuilder();
+        sb.append("{\"day\":").append(quote(DAYS[day])).append(",\"time\":")
+          .append(quote(TimetableGenerator.timeRange(range.getStart(), range.getPeriods()))).append(",\"rooms\":[");
+        boolean first = true;
+        for (int r = 0; r < rooms.length; r++) {
+            boolean busy = false;
+            for (int s = firstSlot; s < firstSlot + range.getPeriods() && !busy; s++) {
+                busy = (busyRooms[s * roomWords + (r >>> 6)] & (1L << r)) != 0;
+            }
+            Classroom room = rooms[r];
+            if (busy || (roomType != null && !room.getRoomType().equals(roomType)) || room.getCapacity() < minCapacity) {
+                continue;
+            }
+            sb.append(first ? "" : ",").append(encodeRoom(room));
+            first = false;
+        }
+        return new Response(200, sb.append("]}").toString());
+    }
+
+    public static Response notFound(String message) {
+        return error(404, message);
+    }
+
+    public static Response error(int status, String message) {
+        return new Response(status, "{\"error\":" + quote(message) + "}");
+    }
+
+    private String list(int[] entries) {
+        StringBuilder sb = new StringBuilder("[");
+        for (int i = 0; i < entries.length; i++) {
+            sb.append(i > 0 ? "," : "").append(entryJson[entries[i]]);
+        }
+        return sb.append(']').toString();
+    }
+
+    private static String encodeEntry(TimetableEntry entry, Course course, CatalogueIndex catalogue) {
+        return "{\"day\":" + quote(entry.getDay()) + ",\"time\":" + quote(entry.getTime()) +
+               ",\"course\":" + quote(entry.getCourseCode()) +
+               ",\"subject\":" + quote(course != null ? course.getSubject() : null) +
+               ",\"sessionType\":" + quote(entry.getSessionType()) + ",\"room\":" + entry.getRoomId() +
+               ",\"instructor\":" + entry.getInstructorId() +
+               ",\"instructorName\":" + quote(catalogue.getInstructorName(entry.getInstructorId(), null)) +
+               ",\"domain\":" + quote(course != null ? course.getDomain() : null) +
+               ",\"year\":" + (course != null ? String.valueOf(course.getYear()) : "null") + "}";
+    }
+
+    private static String encodeRoom(Classroom room) {
+        return "{\"id\":" + room.getId() + ",\"type\":" + quote(room.getRoomType()) + ",\"capacity\":" +
+               room.getCapacity() + ",\"computers\":" + room.getComputers() + ",\"av\":" + room.hasAV() + "}";
+    }
+
+    private static String cohortKey(String domain, int year) {
+        return domain + "/" + year;
+    }
+
+    private static int[] toArray(List<Integer> values) {
+        int[] array = new int[values.size()];
+        for (int i = 0; i < array.length; i++) {
+            array[i] = values.get(i);
+        }
+        return array;
+    }
+
+    // JSON string literal, or null
+    static String quote(String value) {
+        if (value == null) {
+            return "null";
+        }
+        StringBuilder sb = new StringBuilder(value.length() + 2).append('"');
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            switch (c) {
+                case '"': sb.append("\\\""); break;
+                case '\\': sb.append("\\\\"); break;
+                case '\n': sb.append("\\n"); break;
+                case '\r': sb.append("\\r"); break;
+                case '\t': sb.append("\\t"); break;
+                default:
+                    if (c < 0x20) {
+                        sb.append(String.format("\\u%04x", (int) c));
+                    } else {
+                        sb.append(c);
+                    }
+            }
+        }
+        return sb.append('"').toString();
+    }
+}
@@ -1,193 +1,694 @@
 package service;
 
+import controller.BacktrackingSolver;
+import controller.LocalSearchRepair;
+import controller.SolverMode;
 import controller.TimetableGenerator;
+import controller.TimetableSolver;
+import controller.TimetableValidator;
+import database.BinarySnapshot;
 import database.CSVHandler;
+import database.ChangeJournal;
+import database.WriteBehindStore;
+import database.WriteBehindStore.Entity;
 import model.*;
-import java.io.BufferedWriter;
-import java.io.FileWriter;
+import java.io.File;
 import java.io.IOException;
 import java.util.*;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.BooleanSupplier;
+import java.util.function.Consumer;
+import java.util.function.Predicate;
 
+/**
+ * Application-wide owner of the catalogue and the current timetable. The GUI
+ * creates one instance and hands it to every panel; panels register a
+ * {@link Listener} to hear about changes made elsewhere.
+ *
+ * Everything the service holds is published as an immutable
+ * {@link ServiceSnapshot}. An edit copies the list it changes and publishes
+ * the new catalogue together with the timetable rescheduled for it in one
+ * step; generation works on the snapshot taken when it started and publishes
+ * its result the same way. Readers on any thread get a consistent view
+ * without locking, while changes are made one at a time under the service's
+ * lock.
+ */
 public class TimetableService {
-    private static final String CLASSROOMS_FILE = "resources/classrooms.csv";
-    private static final String COURSES_FILE = "resources/courses.csv";
-    private static final String INSTRUCTORS_FILE = "resources/instructors.csv";
-    private static final String INSTRUCTOR_COURSE_FILE = "resources/instructorCourse.csv";
+    // What a change notification is about
+    public enum Change {
+        CLASSROOMS,
+        COURSES,
+        INSTRUCTORS,
+        TIMETABLE
+    }
+    
+    // Called on the thread that made the change, which may not be the EDT
+    public interface Listener {
+        void serviceChanged(Change change);
+    }
+    
+    private static final String DEFAULT_DATA_DIRECTORY = "resources";
+    private static final String TIMETABLE_FILE = "timetable.csv";
+    // Binary copy of the catalogue CSVs for fast startup; rebuilt when they change
+    private static final String SNAPSHOT_FILE = "catalogue.snapshot";
+    
+    private final String dataDirectory;
+    // Catalogue edits are appended to the journal and compacted into the CSV
+    // snapshots in the background once enough of them have accumulated
+    private final WriteBehindStore store;
+    private final ChangeJournal journal;
+    private static final int COMPACT_AFTER_RECORDS = 200;
     
-    private List<Classroom> classrooms;
-    private List<Course> courses;
-    private List<Instructor> instructors;
-    private List<InstructorCourse> instructorCourses;
-    private List<TimetableEntry> timetable;
-    private List<String> conflicts;
+    // Replaced as a whole on every change, never modified
+    private final AtomicReference<ServiceSnapshot> snapshot = new AtomicReference<>(ServiceSnapshot.empty());
     
-    private static final int MAX_ATTEMPTS = 100;
+    private static final int DEFAULT_ATTEMPTS = 100;
+    
+    private static final long DEFAULT_TIME_BUDGET_MILLIS = 10000;
+    
+    private int parallelism = Runtime.getRuntime().availableProcessors();
+    private ExecutorService executor;
+    private SolverMode solverMode = SolverMode.GREEDY;
+    private long timeBudgetMillis = DEFAULT_TIME_BUDGET_MILLIS;
+    private long repairBudgetMillis;
+    private int attempts = DEFAULT_ATTEMPTS;
+    // Base seed of the next generation; null seeds it from the clock
+    private Long randomSeed;
+    // Wall-clock limit for all attempts of one generation; 0 means no limit
+    private long generationBudgetMillis;
+    
+    // Occupancy of the current timetable, kept for incremental rescheduling
+    // after catalogue edits; rebuilt lazily after each full generation.
+    // Only used while holding the service's lock
+    private TimetableGenerator rescheduler;
+    
+    private final List<Listener> listeners = new CopyOnWriteArrayList<>();
     
     public TimetableService() {
+        this(DEFAULT_DATA_DIRECTORY);
+    }
+    
+    // Reads and writes the CSV files in the given directory instead of resources/
+    public TimetableService(String dataDirectory) {
+        this.dataDirectory = dataDirectory;
+        this.store = new WriteBehindStore(dataDirectory);
+        this.journal = new ChangeJournal(dataDirectory);
         loadData();
     }
     
+    public void addListener(Listener listener) {
+        listeners.add(listener);
+    }
+    
+    public void removeListener(Listener listener) {
+        listeners.remove(listener);
+    }
+    
+    private void fireChanged(Change change) {
+        for (Listener listener : listeners) {
+            listener.serviceChanged(change);
+        }
+    }
+    
+    private String dataFile(String name) {
+        return new File(dataDirectory, name).getPath();
+    }
+    
     public void loadData() {
-        classrooms = CSVHandler.loadClassrooms(CLASSROOMS_FILE);
-        courses = CSVHandler.loadCourses(COURSES_FILE);
-        instructors = CSVHandler.loadInstructors(INSTRUCTORS_FILE);
-        instructorCourses = CSVHandler.loadInstructorCourses(INSTRUCTOR_COURSE_FILE);
+        synchronized (this) {
+            readCatalogue();
+        }
+        
+        fireChanged(Change.CLASSROOMS);
+        fireChanged(Change.COURSES);
+        fireChanged(Change.INSTRUCTORS);
+    }
+    
+    private void readCatalogue() {
+        // Unwritten edits would otherwise be lost or overwrite what is read now
+        store.flush();
+        
+        List<Classroom> classrooms;
+        List<Course> courses;
+        List<Instructor> instructors;
+        List<InstructorCourse> instructorCourses;
+        File snapshotFile = new File(dataFile(SNAPSHOT_FILE));
+        BinarySnapshot snapshot = BinarySnapshot.readIfCurrent(snapshotFile, dataDirectory);
+        if (snapshot != null) {
+            classrooms = snapshot.getClassrooms();
+            courses = snapshot.getCourses();
+            instructors = snapshot.getInstructors();
+            instructorCourses = snapshot.getInstructorCourses();
+        } else {
+            long[] stamps = snapshotStamps();
+            classrooms = CSVHandler.loadClassrooms(store.getFile(Entity.CLASSROOMS));
+            courses = CSVHandler.loadCourses(store.getFile(Entity.COURSES));
+            instructors = CSVHandler.loadInstructors(store.getFile(Entity.INSTRUCTORS));
+            instructorCourses = CSVHandler.loadInstructorCourses(store.getFile(Entity.INSTRUCTOR_COURSES));
+            if (stamps != null) {
+                writeSnapshot(snapshotFile, stamps, classrooms, courses, instructors, instructorCourses);
+            }
+        }
+        rescheduler = null;
+        
+        // Edits made after the last compaction live only in the journal
+        int replayed = journal.replay(classrooms, courses, instructors);
+        publish(current().withCatalogue(classrooms, courses, instructors, instructorCourses));
+        if (replayed > 0) {
+            compactJournal();
+        }
+    }
+    
+    // Null if a catalogue file cannot be read, in which case no snapshot is written
+    private long[] snapshotStamps() {
+        try {
+            return BinarySnapshot.stamps(dataDirectory);
+        } catch (IOException e) {
+            System.out.println("Could not read the catalogue files for a snapshot: " + e.getMessage());
+            return null;
+        }
+    }
+    
+    // Copies are taken now; the file is written on the background writer thread
+    private void writeSnapshot(File snapshotFile, long[] stamps, List<Classroom> classrooms, List<Course> courses,
+                               List<Instructor> instructors, List<InstructorCourse> instructorCourses) {
+        BinarySnapshot snapshot = new BinarySnapshot(new ArrayList<>(classrooms), new ArrayList<>(courses),
+                                                     new ArrayList<>(instructors), new ArrayList<>(instructorCourses),
+                                                     new ArrayList<TimetableEntry>());
+        store.flushInBackground(() -> {
+            try {
+                snapshot.write(snapshotFile, stamps);
+            } catch (IOException e) {
+                System.out.println("Could not write " + snapshotFile + ": " + e.getMessage());
+            }
+        });
+    }
+    
+    // Writes all four catalogue files now. Like every compaction it holds the
+    // service's lock, so no edit can reach the journal being compacted
+    // without also being in the lists written for it
+    public synchronized void saveData() {
+        int round = journal.beginCompaction();
+        ServiceSnapshot current = current();
+        store.markDirty(Entity.CLASSROOMS, current.getClassrooms());
+        store.markDirty(Entity.COURSES, current.getCourses());
+        store.markDirty(Entity.INSTRUCTORS, current.getInstructors());
+        store.markDirty(Entity.INSTRUCTOR_COURSES, current.getInstructorCourses());
+        if (store.flush()) {
+            journal.finishCompaction(round);
+        }
+    }
+    
+    // Compacts the journal into fresh snapshots now instead of in the background
+    public synchronized void flush() {
+        int round = snapshotJournaledEntities();
+        if (store.flush()) {
+            journal.finishCompaction(round);
+        }
+    }
+    
+    // Compacts the journal and stops the background writer
+    public synchronized void close() {
+        flush();
+        store.close();
+    }
+    
+    private void journalChanged() {
+        if (journal.getRecordCount() >= COMPACT_AFTER_RECORDS) {
+            compactJournal();
+        }
+    }
+    
+    // Snapshot copies are taken here, the files are written on the store's thread
+    private void compactJournal() {
+        int round = snapshotJournaledEntities();
+        store.flushInBackground(() -> journal.finishCompaction(round));
+    }
+    
+    // Called with the service's lock held; the journal is moved aside first,
+    // so every record in it is also in the lists taken afterwards
+    private int snapshotJournaledEntities() {
+        int round = journal.beginCompaction();
+        ServiceSnapshot current = current();
+        for (Entity entity : journal.getCompactingEntities()) {
+            store.markDirty(entity, entity == Entity.CLASSROOMS ? current.getClassrooms()
+                                  : entity == Entity.COURSES ? current.getCourses()
+                                  : entity == Entity.INSTRUCTORS ? current.getInstructors()
+                                  : current.getInstructorCourses());
+        }
+        return round;
+    }
+    
+    public void setParallelism(int parallelism) {
+        if (parallelism < 1) {
+            throw new IllegalArgumentException("Parallelism must be at least 1");
+        }
+        this.parallelism = parallelism;
+    }
+    
+    // Run attempts on a caller-owned executor instead of a pool created per generation
+    public void setExecutor(ExecutorService executor) {
+        this.executor = executor;
+    }
+    
+    public void setSolverMode(SolverMode solverMode) {
+        this.solverMode = solverMode;
+    }
+    
+    // Wall-clock limit per attempt for solvers that search, such as BACKTRACKING
+    public void setTimeBudgetMillis(long timeBudgetMillis) {
+        this.timeBudgetMillis = timeBudgetMillis;
+    }
+    
+    // Wall-clock budget for the local-search repair after generation; 0 disables it
+    public void setRepairBudgetMillis(long repairBudgetMillis) {
+        this.repairBudgetMillis = repairBudgetMillis;
+    }
+    
+    // Number of independent attempts generateTimetable() runs at most
+    public void setAttempts(int attempts) {
+        if (attempts < 1) {
+            throw new IllegalArgumentException("Attempts must be at least 1");
+        }
+        this.attempts = attempts;
+    }
+    
+    // Attempt i is seeded with seed + i, so a generation can be repeated exactly
+    public void setRandomSeed(long seed) {
+        this.randomSeed = seed;
+    }
+    
+    // Attempts that have not started when the budget runs out are skipped;
+    // the first attempt always runs
+    public void setGenerationBudgetMillis(long generationBudgetMillis) {
+        this.generationBudgetMillis = generationBudgetMillis;
+    }
+    
+    // The state last published; consistent, and never changed afterwards
+    public ServiceSnapshot getSnapshot() {
+        return snapshot.get();
+    }
+    
+    private ServiceSnapshot current() {
+        return snapshot.get();
+    }
+    
+    // Readers see either all of the next state or none of it
+    private void publish(ServiceSnapshot next) {
+        snapshot.set(next);
     }
     
-    public void saveData() {
-        CSVHandler.saveClassrooms(classrooms, CLASSROOMS_FILE);
-        CSVHandler.saveCourses(courses, COURSES_FILE);
-        CSVHandler.saveInstructors(instructors, INSTRUCTORS_FILE);
-        CSVHandler.saveInstructorCourses(instructorCourses, INSTRUCTOR_COURSE_FILE);
+    public CatalogueIndex getCatalogueIndex() {
+        return current().getCatalogueIndex();
+    }
+    
+    private TimetableSolver createSolver(ServiceSnapshot catalogue) {
+        if (solverMode == SolverMode.BACKTRACKING) {
+            BacktrackingSolver solver = new BacktrackingSolver(catalogue.getClassrooms(), catalogue.getCourses(),
+                                                               catalogue.getInstructors(),
+                                                               catalogue.getInstructorCourses());
+            solver.setTimeBudgetMillis(timeBudgetMillis);
+            return solver;
+        }
+        TimetableGenerator generator = new TimetableGenerator(catalogue.getClassrooms(), catalogue.getCourses(),
+                                                              catalogue.getInstructors(),
+                                                              catalogue.getInstructorCourses());
+        generator.setCatalogueIndex(catalogue.getCatalogueIndex());
+        return generator;
     }
     
     public void generateTimetable() {
-        List<TimetableEntry> bestTimetable = null;
-        List<String> fewestConflicts = null;
-        int fewestConflictCount = Integer.MAX_VALUE;
+        // Attempts work on the catalogue as it is now; edits made meanwhile
+        // are reconciled when the result is published
+        final ServiceSnapshot catalogue = current();
+        final long baseSeed = randomSeed != null ? randomSeed : System.currentTimeMillis();
+        final long deadline = generationBudgetMillis > 0 ? System.currentTimeMillis() + generationBudgetMillis
+                                                         : Long.MAX_VALUE;
+        System.out.println("Starting timetable generation with up to " + attempts + " attempts, seed " + baseSeed + "...");
         
-        System.out.println("Starting timetable generation with up to " + MAX_ATTEMPTS + " attempts...");
+        // Lowest attempt that produced a conflict-free timetable; later attempts are skipped
+        final AtomicInteger firstConflictFree = new AtomicInteger(Integer.MAX_VALUE);
+        // Set once the results are no longer awaited, so running attempts give up
+        final AtomicBoolean finished = new AtomicBoolean();
         
-        for (int attempt = 0; attempt < MAX_ATTEMPTS; attempt++) {
-            TimetableGenerator generator = new TimetableGenerator(classrooms, courses, instructors, instructorCourses);
-            generator.setRandomSeed(System.currentTimeMillis() + attempt);
-            generator.setStrategyVariant(attempt);
-            
-            List<TimetableEntry> currentTimetable = generator.generateTimetable();
-            List<String> currentConflicts = generator.getConflicts();
-            
-            System.out.println("Attempt " + (attempt + 1) + ": Found " + currentConflicts.size() + " conflicts");
-            
-            if (currentConflicts.isEmpty()) {
-                timetable = currentTimetable;
-                conflicts = currentConflicts;
-                System.out.println("Success! Found conflict-free timetable after " + (attempt + 1) + " attempts");
-                return;
+        ExecutorService pool = executor != null ? executor : new ForkJoinPool(parallelism);
+        List<Future<AttemptResult>> futures = new ArrayList<>();
+        AttemptResult best = null;
+        int completed = 0;
+        
+        try {
+            for (int attempt = 0; attempt < attempts; attempt++) {
+                final int attemptIndex = attempt;
+                futures.add(pool.submit(() -> runAttempt(catalogue, attemptIndex, baseSeed + attemptIndex, deadline,
+                                                         firstConflictFree, finished)));
             }
             
-            if (currentConflicts.size() < fewestConflictCount) {
-                fewestConflictCount = currentConflicts.size();
-                bestTimetable = new ArrayList<>(currentTimetable);
-                fewestConflicts = new ArrayList<>(currentConflicts);
-                System.out.println("New best solution found with " + fewestConflictCount + " conflicts at attempt " + (attempt + 1));
+            // Walk results in attempt order so ties always go to the earliest attempt
+            for (int attempt = 0; attempt < futures.size(); attempt++) {
+                AttemptResult result = awaitAttempt(futures.get(attempt));
+                if (result == null) {
+                    continue;
+                }
+                completed++;
+                
+                // Severity-weighted, so a missing lab outweighs a missing lecture
+                if (best == null || result.conflicts.getScore() < best.conflicts.getScore()) {
+                    best = result;
+                }
+                
+                if (best.conflicts.isEmpty()) {
+                    break;
+                }
+            }
+        } finally {
+            // Attempts that already run poll the flag; interrupting only
+            // reaches them on executors that interrupt, which ForkJoinPool does not
+            finished.set(true);
+            for (Future<AttemptResult> future : futures) {
+                future.cancel(true);
+            }
+            if (executor == null) {
+                pool.shutdown();
+            }
+        }
+        
+        AttemptResult result = repair(catalogue, best, baseSeed + best.attempt);
+        ConflictReport conflicts = publishTimetable(catalogue, result.timetable, result.conflicts).getConflicts();
+        
+        if (conflicts.isEmpty()) {
+            System.out.println("Success! Found conflict-free timetable after " + (best.attempt + 1) + " attempts");
+        } else {
+            System.out.println("Could not find conflict-free timetable after " + completed + 
+                              " attempts. Using best solution with " + conflicts.summary() + 
+                              " from attempt " + (best.attempt + 1));
+        }
+        fireChanged(Change.TIMETABLE);
+    }
+    
+    // Runs one independent generator; returns null if an earlier attempt already
+    // succeeded, the generation budget is used up or the results are no longer needed
+    private AttemptResult runAttempt(ServiceSnapshot catalogue, int attempt, long seed, long deadline,
+                                     AtomicInteger firstConflictFree, AtomicBoolean finished) {
+        BooleanSupplier superseded = () -> attempt > firstConflictFree.get() || finished.get() ||
+                                           Thread.currentThread().isInterrupted();
+        if (superseded.getAsBoolean() || (attempt > 0 && System.currentTimeMillis() >= deadline)) {
+            return null;
+        }
+        
+        TimetableSolver generator = createSolver(catalogue);
+        generator.setRandomSeed(seed);
+        generator.setStrategyVariant(attempt);
+        generator.setStopCondition(superseded);
+        
+        List<TimetableEntry> attemptTimetable = generator.generateTimetable();
+        if (superseded.getAsBoolean()) {
+            System.out.println("Attempt " + (attempt + 1) + ": Stopped, its result is no longer needed");
+            return null;
+        }
+        ConflictReport attemptConflicts = generator.getConflicts();
+        
+        System.out.println("Attempt " + (attempt + 1) + ": Found " + attemptConflicts.size() + " conflicts, score " +
+                           attemptConflicts.getScore());
+        
+        if (attemptConflicts.isEmpty()) {
+            firstConflictFree.accumulateAndGet(attempt, Math::min);
+        }
+        
+        return new AttemptResult(attempt, attemptTimetable, attemptConflicts);
+    }
+    
+    private AttemptResult awaitAttempt(Future<AttemptResult> future) {
+        try {
+            return future.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new RuntimeException("Timetable generation was interrupted");
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof RuntimeException) {
+                throw (RuntimeException) e.getCause();
             }
+            throw new RuntimeException("Error generating timetable: " + e.getCause().getMessage(), e.getCause());
+        }
+    }
+    
+    // Improve a generated timetable when a repair budget is set. The moves are
+    // seeded, but how many fit into the budget still depends on the machine.
+    private AttemptResult repair(ServiceSnapshot catalogue, AttemptResult result, long seed) {
+        if (repairBudgetMillis <= 0) {
+            return result;
         }
         
-        timetable = bestTimetable;
-        conflicts = fewestConflicts;
-        System.out.println("Could not find conflict-free timetable after " + MAX_ATTEMPTS + 
-                          " attempts. Using best solution with " + conflicts.size() + " conflicts");
+        LocalSearchRepair repair = new LocalSearchRepair(catalogue.getClassrooms(), catalogue.getCourses(),
+                                                         catalogue.getInstructors());
+        repair.setRandomSeed(seed);
+        repair.setTimeBudgetMillis(repairBudgetMillis);
+        List<TimetableEntry> repaired = repair.improve(result.timetable);
+        return new AttemptResult(result.attempt, repaired, repair.getConflicts());
+    }
+    
+    /**
+     * Publishes a timetable built for the given catalogue snapshot. If the
+     * catalogue was edited or reloaded in the meantime, the timetable is first
+     * fitted to the current catalogue the way an edit would reschedule it:
+     * entries that no longer fit are released, changed courses are placed
+     * again and new ones are added.
+     */
+    private synchronized ServiceSnapshot publishTimetable(ServiceSnapshot catalogue, List<TimetableEntry> timetable,
+                                                          ConflictReport conflicts) {
+        ServiceSnapshot latest = current();
+        if (latest.getCatalogueVersion() == catalogue.getCatalogueVersion()) {
+            rescheduler = null;
+            publish(latest.withTimetable(timetable, conflicts));
+            return current();
+        }
+        
+        System.out.println("Catalogue changed while the timetable was built; rescheduling it for the current catalogue");
+        rescheduler = newRescheduler(latest, timetable);
+        rescheduler.rescheduleRooms();
+        Set<Course> unchanged = Collections.newSetFromMap(new IdentityHashMap<Course, Boolean>());
+        unchanged.addAll(catalogue.getCourses());
+        for (Course course : latest.getCourses()) {
+            if (!unchanged.contains(course)) {
+                rescheduler.rescheduleCourse(course);
+            }
+        }
+        publish(withRescheduled(latest));
+        return current();
+    }
+    
+    private TimetableGenerator newRescheduler(ServiceSnapshot catalogue, List<TimetableEntry> timetable) {
+        TimetableGenerator generator = new TimetableGenerator(catalogue.getClassrooms(), catalogue.getCourses(),
+                                                              catalogue.getInstructors(),
+                                                              catalogue.getInstructorCourses());
+        generator.setCatalogueIndex(catalogue.getCatalogueIndex());
+        generator.loadTimetable(timetable);
+        return generator;
+    }
+    
+    // The rescheduler, switched to the catalogue of the snapshot being built
+    private TimetableGenerator rescheduler(ServiceSnapshot next) {
+        if (rescheduler == null) {
+            rescheduler = newRescheduler(next, next.getTimetable());
+        } else {
+            rescheduler.setCatalogue(next.getClassrooms(), next.getCourses(), next.getInstructors());
+        }
+        // Names in its conflict messages follow instructor edits
+        rescheduler.setCatalogueIndex(next.getCatalogueIndex());
+        return rescheduler;
+    }
+    
+    // Copies, since the rescheduler keeps changing its own timetable and report
+    private ServiceSnapshot withRescheduled(ServiceSnapshot next) {
+        ConflictReport conflicts = new ConflictReport();
+        conflicts.addAll(rescheduler.getConflicts());
+        return next.withTimetable(new ArrayList<>(rescheduler.getTimetable()), conflicts);
+    }
+    
+    /**
+     * Publishes an edited catalogue. If there is a timetable, the given step
+     * reschedules it first and both are published together, so no reader
+     * sees the new catalogue with the old timetable.
+     */
+    private void publishEdit(ServiceSnapshot next, Consumer<TimetableGenerator> reschedule, Change change) {
+        boolean rescheduled = reschedule != null && next.getTimetable() != null;
+        if (rescheduled) {
+            reschedule.accept(rescheduler(next));
+            next = withRescheduled(next);
+        }
+        publish(next);
+        if (rescheduled) {
+            fireChanged(Change.TIMETABLE);
+        }
+        journalChanged();
+        fireChanged(change);
+    }
+    
+    private static <T> List<T> added(List<T> items, T item) {
+        List<T> copy = new ArrayList<>(items.size() + 1);
+        copy.addAll(items);
+        copy.add(item);
+        return copy;
+    }
+    
+    private static <T> List<T> replaced(List<T> items, Predicate<T> matches, T item) {
+        List<T> copy = new ArrayList<>(items);
+        for (int i = 0; i < copy.size(); i++) {
+            if (matches.test(copy.get(i))) {
+                copy.set(i, item);
+                break;
+            }
+        }
+        return copy;
+    }
+    
+    private static <T> List<T> removed(List<T> items, Predicate<T> matches) {
+        List<T> copy = new ArrayList<>(items);
+        copy.removeIf(matches);
+        return copy;
+    }
+    
+    // Outcome of a single generation attempt
+    private static class AttemptResult {
+        private final int attempt;
+        private final List<TimetableEntry> timetable;
+        private final ConflictReport conflicts;
+        
+        AttemptResult(int attempt, List<TimetableEntry> timetable, ConflictReport conflicts) {
+            this.attempt = attempt;
+            this.timetable = timetable;
+            this.conflicts = conflicts;
+        }
     }
     
     public void generateComprehensiveTimetable() {
     System.out.println("Starting comprehensive timetable generation...");
     
-    TimetableGenerator generator = new TimetableGenerator(classrooms, courses, instructors, instructorCourses);
-    timetable = generator.generateTimetable();
-    conflicts = generator.getConflicts();
+    // Runs on a background thread; edits on the EDT go on against newer snapshots
+    ServiceSnapshot catalogue = current();
+    long seed = randomSeed != null ? randomSeed : System.currentTimeMillis();
+    TimetableSolver generator = createSolver(catalogue);
+    generator.setRandomSeed(seed);
+    AttemptResult result = repair(catalogue, new AttemptResult(0, generator.generateTimetable(),
+                                                               generator.getConflicts()), seed);
+    List<TimetableEntry> timetable = publishTimetable(catalogue, result.timetable, result.conflicts).getTimetable();
     
     System.out.println("Timetable generation complete with " + timetable.size() + " entries");
+    fireChanged(Change.TIMETABLE);
 }
     
+    /**
+     * Takes over the timetable last saved to timetable.csv instead of
+     * generating one, and checks it against the current catalogue. Returns
+     * false, leaving the current timetable alone, if there is no saved file.
+     */
+    public boolean loadSavedTimetable() {
+        File file = new File(dataFile(TIMETABLE_FILE));
+        if (!file.isFile()) {
+            return false;
+        }
+        ServiceSnapshot catalogue = current();
+        List<TimetableEntry> timetable = CSVHandler.loadTimetable(file.getPath());
+        ConflictReport conflicts = new ConflictReport();
+        TimetableGenerator.reportUnscheduled(catalogue.getCourses(), timetable, conflicts);
+        new TimetableValidator(catalogue.getCatalogueIndex()).validate(timetable, conflicts);
+        conflicts = publishTimetable(catalogue, timetable, conflicts).getConflicts();
+        System.out.println("Loaded " + timetable.size() + " entries from " + file + " with " + conflicts.summary());
+        fireChanged(Change.TIMETABLE);
+        return true;
+    }
+    
     public void saveTimetableToCSV() {
-        String filename = "resources/timetable.csv";
-        try (BufferedWriter bw = new BufferedWriter(new FileWriter(filename))) {
-            bw.write("day,time,course_code,room_id,instructor_id,session_type");
-            bw.newLine();
-            
-            for (TimetableEntry entry : timetable) {
-                String line = entry.getDay() + "," + entry.getTime() + "," + 
-                             entry.getCourseCode() + "," + entry.getRoomId() + "," + 
-                             entry.getInstructorId() + "," + entry.getSessionType();
-                bw.write(line);
-                bw.newLine();
-            }
-            
-            System.out.println("Timetable saved to " + filename);
-        } catch (IOException e) {
-            e.printStackTrace();
-            throw new RuntimeException("Error saving timetable: " + e.getMessage());
+        String filename = dataFile(TIMETABLE_FILE);
+        List<TimetableEntry> timetable = current().getTimetable();
+        // Written like every other CSV file: UTF-8, quoted where needed, replaced atomically
+        if (!CSVHandler.saveTimetable(timetable, filename)) {
+            throw new RuntimeException("Error saving timetable to " + filename);
         }
+        System.out.println("Timetable saved to " + filename);
     }
     
     // Other methods for managing classrooms, courses, instructors, etc.
     public List<Classroom> getAllClassrooms() {
-        return classrooms;
+        return current().getClassrooms();
     }
     
-    public void addClassroom(Classroom classroom) {
-        classrooms.add(classroom);
-        saveData();
+    public synchronized void addClassroom(Classroom classroom) {
+        journal.put(classroom);
+        publishEdit(current().withClassrooms(added(current().getClassrooms(), classroom)),
+                    TimetableGenerator::rescheduleRooms, Change.CLASSROOMS);
     }
     
-    public void updateClassroom(Classroom classroom) {
-        for (int i = 0; i < classrooms.size(); i++) {
-            if (classrooms.get(i).getId() == classroom.getId()) {
-                classrooms.set(i, classroom);
-                break;
-            }
-        }
-        saveData();
+    public synchronized void updateClassroom(Classroom classroom) {
+        journal.put(classroom);
+        publishEdit(current().withClassrooms(replaced(current().getClassrooms(),
+                                                      c -> c.getId() == classroom.getId(), classroom)),
+                    TimetableGenerator::rescheduleRooms, Change.CLASSROOMS);
     }
     
-    public void deleteClassroom(int id) {
-        classrooms.removeIf(c -> c.getId() == id);
-        saveData();
+    public synchronized void deleteClassroom(int id) {
+        journal.deleteClassroom(id);
+        publishEdit(current().withClassrooms(removed(current().getClassrooms(), c -> c.getId() == id)),
+                    TimetableGenerator::rescheduleRooms, Change.CLASSROOMS);
     }
     
     public List<Course> getAllCourses() {
-        return courses;
+        return current().getCourses();
     }
     
-    public void addCourse(Course course) {
-        courses.add(course);
-        saveData();
+    public synchronized void addCourse(Course course) {
+        journal.put(course);
+        publishEdit(current().withCourses(added(current().getCourses(), course)),
+                    generator -> generator.rescheduleCourse(course), Change.COURSES);
     }
     
-    public void updateCourse(Course course) {
-        for (int i = 0; i < courses.size(); i++) {
-            if (courses.get(i).getCode().equals(course.getCode())) {
-                courses.set(i, course);
-                break;
-            }
-        }
-        saveData();
+    public synchronized void updateCourse(Course course) {
+        journal.put(course);
+        publishEdit(current().withCourses(replaced(current().getCourses(),
+                                                   c -> c.getCode().equals(course.getCode()), course)),
+                    generator -> generator.rescheduleCourse(course), Change.COURSES);
     }
     
-    public void deleteCourse(String code) {
-        courses.removeIf(c -> c.getCode().equals(code));
-        saveData();
+    public synchronized void deleteCourse(String code) {
+        journal.deleteCourse(code);
+        publishEdit(current().withCourses(removed(current().getCourses(), c -> c.getCode().equals(code))),
+                    generator -> generator.releaseCourse(code), Change.COURSES);
     }
     
     public List<Instructor> getAllInstructors() {
-        return instructors;
+        return current().getInstructors();
     }
     
-    public void addInstructor(Instructor instructor) {
-        instructors.add(instructor);
-        saveData();
+    public synchronized void addInstructor(Instructor instructor) {
+        journal.put(instructor);
+        publishEdit(current().withInstructors(added(current().getInstructors(), instructor)), null,
+                    Change.INSTRUCTORS);
     }
     
-    public void updateInstructor(Instructor instructor) {
-        for (int i = 0; i < instructors.size(); i++) {
-            if (instructors.get(i).getId() == instructor.getId()) {
-                instructors.set(i, instructor);
-                break;
-            }
-        }
-        saveData();
+    public synchronized void updateInstructor(Instructor instructor) {
+        journal.put(instructor);
+        publishEdit(current().withInstructors(replaced(current().getInstructors(),
+                                                       i -> i.getId() == instructor.getId(), instructor)),
+                    null, Change.INSTRUCTORS);
     }
     
-    public void deleteInstructor(int id) {
-        instructors.removeIf(i -> i.getId() == id);
-        saveData();
+    public synchronized void deleteInstructor(int id) {
+        journal.deleteInstructor(id);
+        publishEdit(current().withInstructors(removed(current().getInstructors(), i -> i.getId() == id)), null,
+                    Change.INSTRUCTORS);
     }
     
     public List<TimetableEntry> getTimetable() {
-        return timetable;
+        return current().getTimetable();
     }
     
-    public List<String> getConflicts() {
-        return conflicts;
+    public ConflictReport getConflicts() {
+        return current().getConflicts();
     }
 }
@@ -2,6 +2,7 @@ package view;
 
 import model.Classroom;
 import service.TimetableService;
+import service.TimetableService.Change;
 import javax.swing.*;
 import javax.swing.border.*;
 import javax.swing.table.*;
@@ -18,10 +19,18 @@ public class ClassroomManagementPanel extends JPanel {
     private DefaultTableModel tableModel;
     private JButton addButton, updateButton, deleteButton, clearButton;
 
-    public ClassroomManagementPanel() {
-        service = new TimetableService();
+    public ClassroomManagementPanel(TimetableService service) {
+        this.service = service;
         initializeUI();
         loadClassroomData();
+        service.addListener(change -> SwingUtilities.invokeLater(() -> serviceChanged(change)));
+    }
+
+    // The table follows the shared service, whichever panel made the change
+    private void serviceChanged(Change change) {
+        if (change == Change.CLASSROOMS) {
+            loadClassroomData();
+        }
     }
 
     private void initializeUI() {
@@ -264,7 +273,6 @@ addButton.setIcon(IconFactory.createPlusIcon());
 
             Classroom classroom = new Classroom(id, capacity, avEquipment, computers, roomType);
             service.addClassroom(classroom);
-            loadClassroomData();
             clearForm();
             JOptionPane.showMessageDialog(this, "Classroom added successfully!", "Success", JOptionPane.INFORMATION_MESSAGE);
         } catch (NumberFormatException e) {
@@ -288,7 +296,6 @@ addButton.setIcon(IconFactory.createPlusIcon());
 
             Classroom classroom = new Classroom(id, capacity, avEquipment, computers, roomType);
             service.updateClassroom(classroom);
-            loadClassroomData();
             clearForm();
             JOptionPane.showMessageDialog(this, "Classroom updated successfully!", "Success", JOptionPane.INFORMATION_MESSAGE);
         } catch (NumberFormatException e) {
@@ -307,7 +314,6 @@ addButton.setIcon(IconFactory.createPlusIcon());
         if (confirm == JOptionPane.YES_OPTION) {
             int id = Integer.parseInt(tableModel.getValueAt(selectedRow, 0).toString());
             service.deleteClassroom(id);
-            loadClassroomData();
             clearForm();
             JOptionPane.showMessageDialog(this, "Classroom deleted successfully!", "Success", JOptionPane.INFORMATION_MESSAGE);
         }
@@ -1,8 +1,11 @@
 package view;
 
+import model.CatalogueIndex;
 import model.Course;
 import model.Instructor;
+import service.ServiceSnapshot;
 import service.TimetableService;
+import service.TimetableService.Change;
 import javax.swing.*;
 import javax.swing.border.*;
 import javax.swing.table.*;
@@ -20,10 +23,22 @@ public class CourseManagementPanel extends JPanel {
     private DefaultTableModel tableModel;
     private JButton addButton, updateButton, deleteButton, clearButton;
 
-    public CourseManagementPanel() {
-        service = new TimetableService();
+    public CourseManagementPanel(TimetableService service) {
+        this.service = service;
         initializeUI();
         loadCourseData();
+        service.addListener(change -> SwingUtilities.invokeLater(() -> serviceChanged(change)));
+    }
+
+    // The table and instructor choices follow the shared service, whichever
+    // panel made the change
+    private void serviceChanged(Change change) {
+        if (change == Change.INSTRUCTORS) {
+            reloadInstructorComboBoxes();
+            loadCourseData();
+        } else if (change == Change.COURSES) {
+            loadCourseData();
+        }
     }
 
     private void initializeUI() {
@@ -212,6 +227,15 @@ addButton.setIcon(IconFactory.createPlusIcon());
         }
     }
 
+    private void reloadInstructorComboBoxes() {
+        lectureInstructorCombo.removeAllItems();
+        loadInstructorsIntoComboBox(lectureInstructorCombo);
+        labInstructorCombo.removeAllItems();
+        loadInstructorsIntoComboBox(labInstructorCombo);
+        labInstructorCombo.addItem("None");
+        labInstructorCombo.setSelectedItem("None");
+    }
+
     private void setupActionListeners() {
         addButton.addActionListener(new ActionListener() {
             @Override
@@ -250,9 +274,11 @@ addButton.setIcon(IconFactory.createPlusIcon());
 
     private void loadCourseData() {
         tableModel.setRowCount(0);
-        for (Course course : service.getAllCourses()) {
-            String lectureInstructorName = getInstructorName(course.getLectureInstructor());
-            String labInstructorName = course.getLabInstructor().equals("0") ? "None" : getInstructorName(course.getLabInstructor());
+        ServiceSnapshot snapshot = service.getSnapshot();
+        CatalogueIndex index = snapshot.getCatalogueIndex();
+        for (Course course : snapshot.getCourses()) {
+            String lectureInstructorName = getInstructorName(index, course.getLectureInstructor());
+            String labInstructorName = course.getLabInstructor().equals("0") ? "None" : getInstructorName(index, course.getLabInstructor());
             
             Object[] row = {
                 course.getCode(),
@@ -268,15 +294,11 @@ addButton.setIcon(IconFactory.createPlusIcon());
         }
     }
 
-    private String getInstructorName(String instructorId) {
+    private String getInstructorName(CatalogueIndex index, String instructorId) {
         if (instructorId.equals("0")) return "None";
         
-        for (Instructor instructor : service.getAllInstructors()) {
-            if (String.valueOf(instructor.getId()).equals(instructorId)) {
-                return instructor.getFirstName() + " " + instructor.getLastName();
-            }
-        }
-        return "Unknown";
+        Instructor instructor = index.getInstructor(instructorId);
+        return instructor != null ? instructor.getFullName() : "Unknown";
     }
 
     private void populateForm() {
@@ -338,7 +360,6 @@ addButton.setIcon(IconFactory.createPlusIcon());
             Course course = new Course(code, subject, domain, students, lectureHours, labHours, lectureInstructorId, labInstructorId);
             service.addCourse(course);
             
-            loadCourseData();
             clearForm();
             
             JOptionPane.showMessageDialog(this, "Course added successfully!", "Success", JOptionPane.INFORMATION_MESSAGE);
@@ -375,7 +396,6 @@ addButton.setIcon(IconFactory.createPlusIcon());
             Course course = new Course(code, subject, domain, students, lectureHours, labHours, lectureInstructorId, labInstructorId);
             service.updateCourse(course);
             
-            loadCourseData();
             clearForm();
             
             JOptionPane.showMessageDialog(this, "Course updated successfully!", "Success", JOptionPane.INFORMATION_MESSAGE);
@@ -395,7 +415,6 @@ addButton.setIcon(IconFactory.createPlusIcon());
         if (confirm == JOptionPane.YES_OPTION) {
             String code = tableModel.getValueAt(selectedRow, 0).toString();
             service.deleteCourse(code);
-            loadCourseData();
             clearForm();
             JOptionPane.showMessageDialog(this, "Course deleted successfully!", "Success", JOptionPane.INFORMATION_MESSAGE);
         }
@@ -5,10 +5,27 @@ import javax.swing.border.EmptyBorder;
 import java.awt.*;
 import java.awt.event.ActionEvent;
 import java.awt.event.ActionListener;
+import java.awt.event.WindowAdapter;
+import java.awt.event.WindowEvent;
+import java.lang.management.ManagementFactory;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import service.TimetableService;
 import static view.UIConstants.*;
 import util.IconFactory;
 
+/**
+ * Main window. The frame is shown straight away while the catalogue is still
+ * loading on a background thread; each card panel is only built the first
+ * time it is navigated to, once the data is there.
+ */
 public class Dashboard extends JFrame {
+    // Target for JVM start to first frame; exceeding it is reported
+    private static final long STARTUP_BUDGET_MILLIS = 1500;
+
+    private TimetableService service;
+    private String currentCard = "home";
+    private JLabel statusLabel;
     private JPanel cardPanel;
     private CardLayout cardLayout;
     private ClassroomManagementPanel classroomPanel;
@@ -18,7 +35,7 @@ public class Dashboard extends JFrame {
     private HomePanel homePanel;
     private JButton homeBtn, classroomBtn, courseBtn, instructorBtn, timetableBtn;
 
-    public Dashboard() {
+    public Dashboard(CompletableFuture<TimetableService> serviceLoad) {
         setTitle("Timetable Builder");
         setSize(1200, 700);
         setDefaultCloseOperation(JFrame.EXIT_ON_CLOSE);
@@ -26,6 +43,76 @@ public class Dashboard extends JFrame {
         initializeComponents();
         layoutComponents();
         setupActionListeners();
+        reportFirstFrame();
+
+        serviceLoad.whenComplete((loaded, error) -> SwingUtilities.invokeLater(() -> serviceLoaded(loaded, error)));
+    }
+
+    private void serviceLoaded(TimetableService loaded, Throwable error) {
+        if (error != null) {
+            Throwable cause = error instanceof CompletionException && error.getCause() != null ? error.getCause() : error;
+            cause.printStackTrace();
+            statusLabel.setText("Could not load the catalogue");
+            JOptionPane.showMessageDialog(this, "Could not load the catalogue: " + cause.getMessage(),
+                                          "Error", JOptionPane.ERROR_MESSAGE);
+            return;
+        }
+        service = loaded;
+        statusLabel.setText("Ready");
+        System.out.println("Catalogue loaded " + millisSinceJvmStart() + " ms after startup");
+        showCard(currentCard);
+    }
+
+    // Logs the time from JVM start until the window has first been painted
+    private void reportFirstFrame() {
+        addWindowListener(new WindowAdapter() {
+            @Override
+            public void windowOpened(WindowEvent e) {
+                // Queued behind the paint events of the newly shown window
+                SwingUtilities.invokeLater(() -> {
+                    long elapsed = millisSinceJvmStart();
+                    if (elapsed > STARTUP_BUDGET_MILLIS) {
+                        System.out.println("First frame after " + elapsed + " ms, over the " +
+                                           STARTUP_BUDGET_MILLIS + " ms startup budget");
+                    } else {
+                        System.out.println("First frame after " + elapsed + " ms");
+                    }
+                });
+                removeWindowListener(this);
+            }
+        });
+    }
+
+    private static long millisSinceJvmStart() {
+        return System.currentTimeMillis() - ManagementFactory.getRuntimeMXBean().getStartTime();
+    }
+
+    // Shows a card, building its panel on first use; until the catalogue is
+    // loaded the loading card stands in for every panel
+    private void showCard(String name) {
+        currentCard = name;
+        if (service == null) {
+            cardLayout.show(cardPanel, "loading");
+            return;
+        }
+
+        if (name.equals("home") && homePanel == null) {
+            homePanel = new HomePanel(service);
+            cardPanel.add(homePanel, "home");
+        } else if (name.equals("classroom") && classroomPanel == null) {
+            classroomPanel = new ClassroomManagementPanel(service);
+            cardPanel.add(classroomPanel, "classroom");
+        } else if (name.equals("course") && coursePanel == null) {
+            coursePanel = new CourseManagementPanel(service);
+            cardPanel.add(coursePanel, "course");
+        } else if (name.equals("instructor") && instructorPanel == null) {
+            instructorPanel = new InstructorManagementPanel(service);
+            cardPanel.add(instructorPanel, "instructor");
+        } else if (name.equals("timetable") && timetablePanel == null) {
+            timetablePanel = new TimetableGenerationPanel(service);
+            cardPanel.add(timetablePanel, "timetable");
+        }
+        cardLayout.show(cardPanel, name);
     }
 
     private void initializeComponents() {
@@ -33,11 +120,6 @@ public class Dashboard extends JFrame {
         cardPanel = new JPanel(cardLayout);
         cardPanel.setBackground(SECTION_BG_COLOR);
         
-        homePanel = new HomePanel();
-        classroomPanel = new ClassroomManagementPanel();
-        coursePanel = new CourseManagementPanel();
-        instructorPanel = new InstructorManagementPanel();
-        timetablePanel = new TimetableGenerationPanel();
         
         homeBtn = createSidebarButton("Dashboard", IconFactory.createDashboardIcon());
         classroomBtn = createSidebarButton("Classrooms", IconFactory.createClassroomIcon());
@@ -62,11 +144,10 @@ public class Dashboard extends JFrame {
     }
 
     private void layoutComponents() {
-        cardPanel.add(homePanel, "home");
-        cardPanel.add(classroomPanel, "classroom");
-        cardPanel.add(coursePanel, "course");
-        cardPanel.add(instructorPanel, "instructor");
-        cardPanel.add(timetablePanel, "timetable");
+        JLabel loadingLabel = new JLabel("Loading catalogue...", SwingConstants.CENTER);
+        loadingLabel.setFont(SUBHEADING_FONT);
+        loadingLabel.setForeground(Color.DARK_GRAY);
+        cardPanel.add(loadingLabel, "loading");
 
         JPanel sidebarPanel = new JPanel();
         sidebarPanel.setLayout(new BoxLayout(sidebarPanel, BoxLayout.Y_AXIS));
@@ -107,7 +188,7 @@ public class Dashboard extends JFrame {
         JPanel statusBar = new JPanel(new BorderLayout());
         statusBar.setBackground(new Color(230, 230, 230));
         statusBar.setBorder(new EmptyBorder(5, 10, 5, 10));
-        JLabel statusLabel = new JLabel("Ready");
+        statusLabel = new JLabel("Loading catalogue...");
         statusBar.add(statusLabel, BorderLayout.WEST);
 
         setLayout(new BorderLayout());
@@ -120,7 +201,7 @@ public class Dashboard extends JFrame {
         homeBtn.addActionListener(new ActionListener() {
             @Override
             public void actionPerformed(ActionEvent e) {
-                cardLayout.show(cardPanel, "home");
+                showCard("home");
                 selectButton(homeBtn);
             }
         });
@@ -128,7 +209,7 @@ public class Dashboard extends JFrame {
         classroomBtn.addActionListener(new ActionListener() {
             @Override
             public void actionPerformed(ActionEvent e) {
-                cardLayout.show(cardPanel, "classroom");
+                showCard("classroom");
                 selectButton(classroomBtn);
             }
         });
@@ -136,7 +217,7 @@ public class Dashboard extends JFrame {
         courseBtn.addActionListener(new ActionListener() {
             @Override
             public void actionPerformed(ActionEvent e) {
-                cardLayout.show(cardPanel, "course");
+                showCard("course");
                 selectButton(courseBtn);
             }
         });
@@ -144,7 +225,7 @@ public class Dashboard extends JFrame {
         instructorBtn.addActionListener(new ActionListener() {
             @Override
             public void actionPerformed(ActionEvent e) {
-                cardLayout.show(cardPanel, "instructor");
+                showCard("instructor");
                 selectButton(instructorBtn);
             }
         });
@@ -152,7 +233,7 @@ public class Dashboard extends JFrame {
         timetableBtn.addActionListener(new ActionListener() {
             @Override
             public void actionPerformed(ActionEvent e) {
-                cardLayout.show(cardPanel, "timetable");
+                showCard("timetable");
                 selectButton(timetableBtn);
             }
         });
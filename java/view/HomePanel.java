@@ -1,6 +1,7 @@
 package view;
 
 import service.TimetableService;
+import service.TimetableService.Change;
 import javax.swing.*;
 import javax.swing.border.EmptyBorder;
 import java.awt.*;
@@ -8,10 +9,21 @@ import static view.UIConstants.*;
 
 public class HomePanel extends JPanel {
     private TimetableService service;
+    private JPanel statsPanel;
     
-    public HomePanel() {
-        service = new TimetableService();
+    public HomePanel(TimetableService service) {
+        this.service = service;
         initializeUI();
+        service.addListener(change -> SwingUtilities.invokeLater(() -> serviceChanged(change)));
+    }
+    
+    // Keep the totals in step with edits made on the other panels
+    private void serviceChanged(Change change) {
+        if (change != Change.TIMETABLE) {
+            addStatCards();
+            statsPanel.revalidate();
+            statsPanel.repaint();
+        }
     }
     
     private void initializeUI() {
@@ -35,30 +47,9 @@ public class HomePanel extends JPanel {
         headerPanel.add(welcomeLabel, BorderLayout.SOUTH);
         
         // Stats panel with styled cards (matching React design)
-        JPanel statsPanel = new JPanel(new GridLayout(1, 4, 20, 0));
+        statsPanel = new JPanel(new GridLayout(1, 4, 20, 0));
         statsPanel.setOpaque(false);
-        
-        // Create stats cards with styled panels
-        JPanel classroomStat = createCardPanel("Total Classrooms", 
-                                             service.getAllClassrooms().size(),
-                                             new Color(41, 128, 185));
-        
-        JPanel courseStat = createCardPanel("Total Courses", 
-                                          service.getAllCourses().size(),
-                                          new Color(39, 174, 96));
-        
-        JPanel instructorStat = createCardPanel("Total Instructors", 
-                                              service.getAllInstructors().size(),
-                                              new Color(192, 57, 43));
-        
-        JPanel timetableStat = createCardPanel("Generated Timetables", 
-                                             0,
-                                             new Color(142, 68, 173));
-        
-        statsPanel.add(classroomStat);
-        statsPanel.add(courseStat);
-        statsPanel.add(instructorStat);
-        statsPanel.add(timetableStat);
+        addStatCards();
         
         // Quick actions panel
         JPanel actionsPanel = new JPanel(new BorderLayout());
@@ -87,4 +78,30 @@ public class HomePanel extends JPanel {
         add(statsPanel, BorderLayout.CENTER);
         add(actionsPanel, BorderLayout.SOUTH);
     }
+    
+    private void addStatCards() {
+        statsPanel.removeAll();
+        
+        // Create stats cards with styled panels
+        JPanel classroomStat = createCardPanel("Total Classrooms", 
+                                             service.getAllClassrooms().size(),
+                                             new Color(41, 128, 185));
+        
+        JPanel courseStat = createCardPanel("Total Courses", 
+                                          service.getAllCourses().size(),
+                                          new Color(39, 174, 96));
+        
+        JPanel instructorStat = createCardPanel("Total Instructors", 
+                                              service.getAllInstructors().size(),
+                                              new Color(192, 57, 43));
+        
+        JPanel timetableStat = createCardPanel("Generated Timetables", 
+                                             0,
+                                             new Color(142, 68, 173));
+        
+        statsPanel.add(classroomStat);
+        statsPanel.add(courseStat);
+        statsPanel.add(instructorStat);
+        statsPanel.add(timetableStat);
+    }
 }
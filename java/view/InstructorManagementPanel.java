@@ -2,6 +2,7 @@ package view;
 
 import model.Instructor;
 import service.TimetableService;
+import service.TimetableService.Change;
 import javax.swing.*;
 import javax.swing.border.*;
 import javax.swing.table.*;
@@ -18,10 +19,18 @@ public class InstructorManagementPanel extends JPanel {
     private DefaultTableModel tableModel;
     private JButton addButton, updateButton, deleteButton, clearButton;
 
-    public InstructorManagementPanel() {
-        service = new TimetableService();
+    public InstructorManagementPanel(TimetableService service) {
+        this.service = service;
         initializeUI();
         loadInstructorData();
+        service.addListener(change -> SwingUtilities.invokeLater(() -> serviceChanged(change)));
+    }
+
+    // The table follows the shared service, whichever panel made the change
+    private void serviceChanged(Change change) {
+        if (change == Change.INSTRUCTORS) {
+            loadInstructorData();
+        }
     }
 
     private void initializeUI() {
@@ -236,7 +245,6 @@ addButton.setIcon(IconFactory.createPlusIcon());
 
             Instructor instructor = new Instructor(id, firstName, lastName, department);
             service.addInstructor(instructor);
-            loadInstructorData();
             clearForm();
             JOptionPane.showMessageDialog(this, "Instructor added successfully!", "Success", JOptionPane.INFORMATION_MESSAGE);
         } catch (NumberFormatException e) {
@@ -259,7 +267,6 @@ addButton.setIcon(IconFactory.createPlusIcon());
 
             Instructor instructor = new Instructor(id, firstName, lastName, department);
             service.updateInstructor(instructor);
-            loadInstructorData();
             clearForm();
             JOptionPane.showMessageDialog(this, "Instructor updated successfully!", "Success", JOptionPane.INFORMATION_MESSAGE);
         } catch (NumberFormatException e) {
@@ -278,7 +285,6 @@ addButton.setIcon(IconFactory.createPlusIcon());
         if (confirm == JOptionPane.YES_OPTION) {
             int id = Integer.parseInt(tableModel.getValueAt(selectedRow, 0).toString());
             service.deleteInstructor(id);
-            loadInstructorData();
             clearForm();
             JOptionPane.showMessageDialog(this, "Instructor deleted successfully!", "Success", JOptionPane.INFORMATION_MESSAGE);
         }
@@ -1,7 +1,9 @@
 package view;
 
 import model.*;
+import service.ServiceSnapshot;
 import service.TimetableService;
+import service.TimetableService.Change;
 import controller.TimetableGenerator;
 import javax.swing.*;
 import javax.swing.border.*;
@@ -12,6 +14,7 @@ import java.awt.event.*;
 import java.util.*;
 import java.util.List;
 import java.io.File;
+import java.util.concurrent.ExecutionException;
 import static view.UIConstants.*;
 import util.IconFactory;
 
@@ -22,7 +25,13 @@ public class TimetableGenerationPanel extends JPanel {
     private JButton generateButton, downloadButton, saveButton;
     private JTabbedPane timetableTabs;
     private JTextArea conflictsArea;
-    private Map<String, Map<Integer, JTable>> domainYearTables;
+    private Map<String, Map<Integer, LazyTimetableTab>> domainYearTabs;
+    private JProgressBar displayProgress;
+    // Builds the weekly and table views off the EDT; replaced when a newer timetable arrives
+    private SwingWorker<Map<String, Map<Integer, Object[][]>>, Object[]> displayWorker;
+    private static final int ROW_CHUNK = 500;
+    // Grid columns after the time column, in the generator's day order
+    private static final String[] DAYS = TimetableGenerator.getAllDays();
     private JTabbedPane viewTabs;
 private JPanel weeklyViewPanel;
 private JPanel tableViewPanel;
@@ -30,10 +39,21 @@ private JTable subjectsTable;
 private DefaultTableModel subjectsTableModel;
 
     
-    public TimetableGenerationPanel() {
-        service = new TimetableService();
-        domainYearTables = new HashMap<>();
+    public TimetableGenerationPanel(TimetableService service) {
+        this.service = service;
+        domainYearTabs = new HashMap<>();
         initializeUI();
+        service.addListener(change -> SwingUtilities.invokeLater(() -> serviceChanged(change)));
+    }
+    
+    // Redraw when the timetable is regenerated or rescheduled (course and
+    // classroom edits reschedule it), or when instructor names change
+    private void serviceChanged(Change change) {
+        if (service.getTimetable() == null || (change != Change.TIMETABLE && change != Change.INSTRUCTORS)) {
+            return;
+        }
+        updateTimetableDisplay();
+        updateConflictsDisplay();
     }
     
     private void initializeUI() {
@@ -91,6 +111,13 @@ private DefaultTableModel subjectsTableModel;
     ));
     timetablePanel.add(viewTabs, BorderLayout.CENTER);
     
+    // Shown while the views of a new timetable are built in the background
+    displayProgress = new JProgressBar(0, 100);
+    displayProgress.setStringPainted(true);
+    displayProgress.setString("Building timetable views...");
+    displayProgress.setVisible(false);
+    timetablePanel.add(displayProgress, BorderLayout.SOUTH);
+    
     // Settings panel
     JPanel settingsPanel = new JPanel(new GridBagLayout());
     settingsPanel.setBackground(WHITE_COLOR);
@@ -247,7 +274,7 @@ private DefaultTableModel subjectsTableModel;
         
         // Clear existing timetable displays
         timetableTabs.removeAll();
-        domainYearTables.clear();
+        domainYearTabs.clear();
         
         SwingWorker<Void, Void> worker = new SwingWorker<Void, Void>() {
             @Override
@@ -258,8 +285,7 @@ private DefaultTableModel subjectsTableModel;
             
             @Override
             protected void done() {
-                updateTimetableDisplay();
-                updateConflictsDisplay();
+                // The new timetable was already drawn by serviceChanged
                 generateButton.setEnabled(true);
                 generateButton.setText("Generate Timetable");
                 generateButton.setIcon(IconFactory.createClockIcon());
@@ -271,258 +297,234 @@ private DefaultTableModel subjectsTableModel;
     }
     
     private void updateTimetableDisplay() {
-    List<TimetableEntry> timetable = service.getTimetable();
-    
-    // Group entries for weekly view
-    Map<String, Map<Integer, List<TimetableEntry>>> domainYearEntries = new HashMap<>();
-    Map<String, Set<Integer>> domainsAndYears = new HashMap<>();
-    
-    // Clear table view
-    subjectsTableModel.setRowCount(0);
-    
-    for (TimetableEntry entry : timetable) {
-        String courseCode = entry.getCourseCode();
-        Course course = findCourseByCode(courseCode);
+        if (displayWorker != null) {
+            displayWorker.cancel(true);
+        }
         
-        if (course != null) {
-            String domain = course.getDomain();
-            int year = course.getYear();
-            String subject = course.getSubject();
-            
-            // Update domains and years map for weekly view
-            if (!domainsAndYears.containsKey(domain)) {
-                domainsAndYears.put(domain, new HashSet<>());
+        // The worker only reads one published snapshot, whose timetable and
+        // index belong together and never change
+        final ServiceSnapshot snapshot = service.getSnapshot();
+        final List<TimetableEntry> timetable = snapshot.getTimetable();
+        final CatalogueIndex index = snapshot.getCatalogueIndex();
+        
+        subjectsTableModel.setRowCount(0);
+        timetableTabs.removeAll();
+        domainYearTabs.clear();
+        displayProgress.setValue(0);
+        displayProgress.setVisible(true);
+        
+        displayWorker = new SwingWorker<Map<String, Map<Integer, Object[][]>>, Object[]>() {
+            @Override
+            protected Map<String, Map<Integer, Object[][]>> doInBackground() {
+                // Group entries for the weekly view and publish table view rows in chunks
+                Map<String, Map<Integer, List<TimetableEntry>>> domainYearEntries = new TreeMap<>();
+                List<Object[]> chunk = new ArrayList<>(ROW_CHUNK);
+                for (int i = 0; i < timetable.size() && !isCancelled(); i++) {
+                    TimetableEntry entry = timetable.get(i);
+                    Course course = index.getCourse(entry.getCourseCode());
+                    if (course == null) {
+                        continue;
+                    }
+                    
+                    domainYearEntries.computeIfAbsent(course.getDomain(), d -> new TreeMap<>())
+                                     .computeIfAbsent(course.getYear(), y -> new ArrayList<>())
+                                     .add(entry);
+                    
+                    String instructorName = index.getInstructorName(entry.getInstructorId(), "Unknown");
+                    chunk.add(new Object[] {course.getDomain(), course.getYear(), entry.getCourseCode(), course.getSubject(),
+                                            entry.getDay(), entry.getTime(), "Room " + entry.getRoomId(),
+                                            instructorName, entry.getSessionType()});
+                    if (chunk.size() == ROW_CHUNK) {
+                        publish(chunk.toArray(new Object[0][]));
+                        chunk.clear();
+                        setProgress(50 * (i + 1) / timetable.size());
+                    }
+                }
+                publish(chunk.toArray(new Object[0][]));
+                
+                // Weekly grids; their tables are only created when a tab is first shown
+                Map<String, Map<Integer, Object[][]>> grids = new TreeMap<>();
+                int built = 0;
+                int total = 0;
+                for (Map<Integer, List<TimetableEntry>> yearEntries : domainYearEntries.values()) {
+                    total += yearEntries.size();
+                }
+                for (Map.Entry<String, Map<Integer, List<TimetableEntry>>> domain : domainYearEntries.entrySet()) {
+                    Map<Integer, Object[][]> yearGrids = new TreeMap<>();
+                    for (Map.Entry<Integer, List<TimetableEntry>> year : domain.getValue().entrySet()) {
+                        if (isCancelled()) {
+                            return grids;
+                        }
+                        yearGrids.put(year.getKey(), buildWeekGrid(year.getValue(), index));
+                        setProgress(50 + 50 * ++built / total);
+                    }
+                    grids.put(domain.getKey(), yearGrids);
+                }
+                return grids;
             }
-            domainsAndYears.get(domain).add(year);
             
-            if (!domainYearEntries.containsKey(domain)) {
-                domainYearEntries.put(domain, new HashMap<>());
+            @Override
+            protected void process(List<Object[]> rows) {
+                if (!isCancelled()) {
+                    addSubjectRows(rows);
+                }
             }
             
-            Map<Integer, List<TimetableEntry>> yearEntries = domainYearEntries.get(domain);
-            if (!yearEntries.containsKey(year)) {
-                yearEntries.put(year, new ArrayList<>());
+            @Override
+            protected void done() {
+                if (isCancelled()) {
+                    return;
+                }
+                displayProgress.setVisible(false);
+                
+                Map<String, Map<Integer, Object[][]>> grids;
+                try {
+                    grids = get();
+                } catch (InterruptedException | ExecutionException e) {
+                    e.printStackTrace();
+                    return;
+                }
+                
+                for (Map.Entry<String, Map<Integer, Object[][]>> domain : grids.entrySet()) {
+                    JTabbedPane yearTabs = new JTabbedPane();
+                    yearTabs.setFont(NORMAL_FONT);
+                    
+                    Map<Integer, LazyTimetableTab> yearTabMap = new TreeMap<>();
+                    domainYearTabs.put(domain.getKey(), yearTabMap);
+                    
+                    for (Map.Entry<Integer, Object[][]> year : domain.getValue().entrySet()) {
+                        LazyTimetableTab tab = new LazyTimetableTab(year.getValue());
+                        yearTabMap.put(year.getKey(), tab);
+                        yearTabs.addTab("Year " + year.getKey(), tab);
+                    }
+                    
+                    timetableTabs.addTab(domain.getKey(), yearTabs);
+                }
             }
-            
-            yearEntries.get(year).add(entry);
-            
-            // Add to table view
-            String day = entry.getDay();
-            String time = entry.getTime();
-            String roomName = "Room " + entry.getRoomId();
-            String instructorName = getInstructorName(entry.getInstructorId());
-            String sessionType = entry.getSessionType();
-            
-            Object[] row = {domain, year, courseCode, subject, day, time, roomName, instructorName, sessionType};
-            subjectsTableModel.addRow(row);
-        }
-    }
-    
-    // Update weekly view
-    timetableTabs.removeAll();
-    domainYearTables.clear();
-    
-    for (String domain : domainsAndYears.keySet()) {
-        JTabbedPane yearTabs = new JTabbedPane();
-        yearTabs.setFont(NORMAL_FONT);
-        
-        Map<Integer, JTable> yearTableMap = new HashMap<>();
-        domainYearTables.put(domain, yearTableMap);
-        
-        Set<Integer> years = domainsAndYears.get(domain);
-        for (int year : years) {
-            JTable yearTable = createTimetableTable();
-            yearTableMap.put(year, yearTable);
-            
-            fillTimetableTable(yearTable, domainYearEntries.get(domain).get(year));
-            
-            JScrollPane scrollPane = new JScrollPane(yearTable);
-            scrollPane.setBorder(BorderFactory.createLineBorder(new Color(220, 220, 220)));
-            
-            yearTabs.addTab("Year " + year, scrollPane);
-        }
-        
-        timetableTabs.addTab(domain, yearTabs);
-    }
-}
-
-    
-    private Course findCourseByCode(String code) {
-        for (Course course : service.getAllCourses()) {
-            if (course.getCode().equals(code)) {
-                return course;
+        };
+        displayWorker.addPropertyChangeListener(e -> {
+            if ("progress".equals(e.getPropertyName())) {
+                displayProgress.setValue((Integer) e.getNewValue());
             }
-        }
-        return null;
+        });
+        displayWorker.execute();
     }
     
-    private JTable createTimetableTable() {
-    // Create column names: first column for time slots, rest for days
-    String[] days = {"Monday", "Tuesday", "Wednesday", "Thursday", "Friday", "Saturday"};
-    String[] columnNames = new String[days.length + 1];
-    columnNames[0] = "Time / Day";
-    System.arraycopy(days, 0, columnNames, 1, days.length);
-    
-    // Use only lecture time slots (1-hour blocks)
-    String[] timeSlots = TimetableGenerator.getLectureTimeSlots();
-    
-    DefaultTableModel tableModel = new DefaultTableModel(columnNames, timeSlots.length) {
-        @Override
-        public boolean isCellEditable(int row, int column) {
-            return false;
+    // Appends a chunk of rows with one table event instead of one per row
+    @SuppressWarnings("unchecked")
+    private void addSubjectRows(List<Object[]> rows) {
+        if (rows.isEmpty()) {
+            return;
         }
-    };
-    
-    // Set time slots in first column
-    for (int i = 0; i < timeSlots.length; i++) {
-        tableModel.setValueAt(timeSlots[i], i, 0);
-    }
-    
-    JTable table = new JTable(tableModel);
-    table.setRowHeight(80);
-    table.setShowGrid(true);
-    table.setGridColor(new Color(220, 220, 220));
-    table.setFont(NORMAL_FONT);
-    
-    // Set column widths
-    table.getColumnModel().getColumn(0).setPreferredWidth(150);
-    for (int i = 1; i <= days.length; i++) {
-        table.getColumnModel().getColumn(i).setPreferredWidth(200);
+        int first = subjectsTableModel.getRowCount();
+        for (Object[] row : rows) {
+            subjectsTableModel.getDataVector().add(new Vector<>(Arrays.asList(row)));
+        }
+        subjectsTableModel.fireTableRowsInserted(first, subjectsTableModel.getRowCount() - 1);
     }
     
-    // Set custom renderer for cells
-    table.setDefaultRenderer(Object.class, new TimetableCellRenderer());
-    
-    return table;
-}
-
-    
-    private void fillTimetableTable(JTable table, List<TimetableEntry> entries) {
-    DefaultTableModel model = (DefaultTableModel) table.getModel();
-    
-    // Clear existing content (except first column)
-    for (int row = 0; row < model.getRowCount(); row++) {
-        for (int col = 1; col < model.getColumnCount(); col++) {
-            model.setValueAt(null, row, col);
+    // Holds one domain/year grid and creates its table the first time the tab is shown
+    private class LazyTimetableTab extends JPanel {
+        private Object[][] cells;
+        
+        LazyTimetableTab(Object[][] cells) {
+            super(new BorderLayout());
+            this.cells = cells;
+            addHierarchyListener(e -> {
+                if ((e.getChangeFlags() & HierarchyEvent.SHOWING_CHANGED) != 0 && isShowing() && this.cells != null) {
+                    JScrollPane scrollPane = new JScrollPane(createTimetableTable(this.cells));
+                    scrollPane.setBorder(BorderFactory.createLineBorder(new Color(220, 220, 220)));
+                    this.cells = null;
+                    add(scrollPane, BorderLayout.CENTER);
+                    revalidate();
+                }
+            });
         }
     }
     
-    // Fill in timetable entries
-    for (TimetableEntry entry : entries) {
-        String day = entry.getDay();
-        String time = entry.getTime();
-        String courseCode = entry.getCourseCode();
-        int roomId = entry.getRoomId();
-        int instructorId = entry.getInstructorId();
-        String sessionType = entry.getSessionType();
+    private JTable createTimetableTable(Object[][] cells) {
+        // Create column names: first column for time slots, rest for days
+        String[] columnNames = new String[DAYS.length + 1];
+        columnNames[0] = "Time / Day";
+        System.arraycopy(DAYS, 0, columnNames, 1, DAYS.length);
         
-        // Find column index for day
-        int dayIndex = -1;
-        for (int col = 1; col < model.getColumnCount(); col++) {
-            if (model.getColumnName(col).equals(day)) {
-                dayIndex = col;
-                break;
+        DefaultTableModel tableModel = new DefaultTableModel(cells, columnNames) {
+            @Override
+            public boolean isCellEditable(int row, int column) {
+                return false;
             }
+        };
+        
+        JTable table = new JTable(tableModel);
+        table.setRowHeight(80);
+        table.setShowGrid(true);
+        table.setGridColor(new Color(220, 220, 220));
+        table.setFont(NORMAL_FONT);
+        
+        // Set column widths
+        table.getColumnModel().getColumn(0).setPreferredWidth(150);
+        for (int i = 1; i <= DAYS.length; i++) {
+            table.getColumnModel().getColumn(i).setPreferredWidth(200);
         }
         
-        // Find row index for starting time
-        int startRowIndex = -1;
-        for (int row = 0; row < model.getRowCount(); row++) {
-            String cellTime = (String) model.getValueAt(row, 0);
-            if (cellTime != null && time.startsWith(cellTime.split(" - ")[0])) {
-                startRowIndex = row;
-                break;
-            }
+        // Set custom renderer for cells
+        table.setDefaultRenderer(Object.class, new TimetableCellRenderer());
+        
+        return table;
+    }
+    
+    // Cell values of one weekly grid: time slots in the first column, then one column per day.
+    // Touches no Swing state, so it runs on the display worker.
+    private Object[][] buildWeekGrid(List<TimetableEntry> entries, CatalogueIndex index) {
+        // Use only lecture time slots (1-hour blocks)
+        String[] timeSlots = TimetableGenerator.getLectureTimeSlots();
+        Object[][] grid = new Object[timeSlots.length][DAYS.length + 1];
+        for (int i = 0; i < timeSlots.length; i++) {
+            grid[i][0] = timeSlots[i];
         }
         
-        if (dayIndex > 0 && startRowIndex >= 0) {
-            String instructorName = getInstructorName(instructorId);
-            String roomName = "Room " + roomId;
+        // Fill in timetable entries; day and time labels map straight to a
+        // column and a period range
+        for (TimetableEntry entry : entries) {
+            int dayIndex = TimetableGenerator.getDayIndex(entry.getDay());
+            PeriodRange range = TimetableGenerator.getPeriodRange(entry.getTime());
+            if (dayIndex < 0 || range == null) {
+                continue;
+            }
             
-            TimetableCell cell = new TimetableCell(courseCode, roomName, instructorName, sessionType);
-            model.setValueAt(cell, startRowIndex, dayIndex);
+            int column = dayIndex + 1;
+            String courseCode = entry.getCourseCode();
+            String sessionType = entry.getSessionType();
+            String instructorName = index.getInstructorName(entry.getInstructorId(), "Unknown");
+            String roomName = "Room " + entry.getRoomId();
             
-            // For labs, fill additional cells based on duration
+            grid[range.getStart()][column] = new TimetableCell(courseCode, roomName, instructorName, sessionType);
+            
+            // Labs also fill the cells of their remaining periods
             if (sessionType.equals("Lab")) {
-                // Calculate duration in hours
-                int duration = calculateDuration(time);
-                
-                // Fill additional cells for the lab's duration
-                for (int i = 1; i < duration && (startRowIndex + i) < model.getRowCount(); i++) {
-                    // Create a continuation cell
-                    TimetableCell contCell = new TimetableCell(
-                        courseCode, roomName, instructorName, sessionType + " (cont.)"
-                    );
-                    model.setValueAt(contCell, startRowIndex + i, dayIndex);
+                for (int row = range.getStart() + 1; row <= range.getEnd(); row++) {
+                    grid[row][column] = new TimetableCell(courseCode, roomName, instructorName, sessionType + " (cont.)");
                 }
             }
         }
+        return grid;
     }
-}
-
-private int calculateDuration(String timeSlot) {
-    try {
-        String[] parts = timeSlot.split(" - ");
-        String startTime = parts[0];
-        String endTime = parts[1];
-        
-        // Parse hours
-        int startHour = parseHour(startTime);
-        int endHour = parseHour(endTime);
-        
-        // Calculate duration
-        int duration = endHour - startHour;
-        if (duration <= 0) {
-            duration += 12; // Handle cases crossing noon
-        }
-        return duration;
-    } catch (Exception e) {
-        // Default to 1 hour if parsing fails
-        return 1;
-    }
-}
-
-private int parseHour(String timeStr) {
-    try {
-        timeStr = timeStr.trim();
-        
-        // Handle different time formats
-        if (timeStr.contains(":")) {
-            return Integer.parseInt(timeStr.split(":")[0]);
-        } else {
-            return Integer.parseInt(timeStr);
-        }
-    } catch (Exception e) {
-        return 0;
-    }
-}
-
-
-// Helper method to calculate duration in hours
 
-
-    
-    private String getInstructorName(int instructorId) {
-        for (Instructor instructor : service.getAllInstructors()) {
-            if (instructor.getId() == instructorId) {
-                return instructor.getFirstName() + " " + instructor.getLastName();
-            }
-        }
-        return "Unknown";
-    }
-    
     private void updateConflictsDisplay() {
-        List<String> conflicts = service.getConflicts();
+        ServiceSnapshot snapshot = service.getSnapshot();
+        ConflictReport conflicts = snapshot.getConflicts();
         conflictsArea.setText("");
         
         if (conflicts.isEmpty()) {
             conflictsArea.setText("No conflicts detected. The timetable has been generated successfully!");
         } else {
             StringBuilder sb = new StringBuilder();
-            sb.append("Conflicts detected:\n\n");
+            sb.append("Conflicts detected: ").append(conflicts.summary()).append("\n\n");
             
-            for (String conflict : conflicts) {
-                sb.append("• ").append(conflict).append("\n");
+            // Messages are only built here, for the report that is shown
+            CatalogueIndex catalogue = snapshot.getCatalogueIndex();
+            for (Conflict conflict : conflicts) {
+                sb.append("• ").append(conflict.format(catalogue)).append("\n");
             }
             
             conflictsArea.setText(sb.toString());
@@ -541,7 +543,7 @@ private int parseHour(String timeStr) {
     if (timetableTabs.getTabCount() > 0) {
         timetableTabs.removeAll();
         
-        for (String domain : domainYearTables.keySet()) {
+        for (String domain : domainYearTabs.keySet()) {
             if (!showAllDomains && !domain.equals(selectedDomain)) {
                 continue;
             }
@@ -549,17 +551,13 @@ private int parseHour(String timeStr) {
             JTabbedPane yearTabs = new JTabbedPane();
             yearTabs.setFont(NORMAL_FONT);
             
-            Map<Integer, JTable> yearTableMap = domainYearTables.get(domain);
-            for (int year : yearTableMap.keySet()) {
+            Map<Integer, LazyTimetableTab> yearTabMap = domainYearTabs.get(domain);
+            for (int year : yearTabMap.keySet()) {
                 if (!showAllYears && year != Integer.parseInt(selectedYear)) {
                     continue;
                 }
                 
-                JTable yearTable = yearTableMap.get(year);
-                JScrollPane scrollPane = new JScrollPane(yearTable);
-                scrollPane.setBorder(BorderFactory.createLineBorder(new Color(220, 220, 220)));
-                
-                yearTabs.addTab("Year " + year, scrollPane);
+                yearTabs.addTab("Year " + year, yearTabMap.get(year));
             }
             
             if (yearTabs.getTabCount() > 0) {
@@ -633,82 +631,161 @@ private int parseHour(String timeStr) {
         }
     }
     
-    // Custom cell renderer and helper class for timetable cells
+    /**
+     * Renderer for the weekly grids. It is called for every visible cell on
+     * every repaint, so it allocates nothing: fonts, colours and the border
+     * are constants, one {@link CellView} paints every session cell, and
+     * the text of a session, clipped to the column width, is cached on its
+     * {@link TimetableCell}.
+     */
     static class TimetableCellRenderer extends DefaultTableCellRenderer {
-    @Override
-    public Component getTableCellRendererComponent(JTable table, Object value, 
-                                                 boolean isSelected, boolean hasFocus, 
-                                                 int row, int column) {
-        Component c = super.getTableCellRendererComponent(table, value, isSelected, hasFocus, row, column);
+        private static final Font CODE_FONT = new Font("Segoe UI", Font.BOLD, 14);
+        private static final Font DETAIL_FONT = new Font("Segoe UI", Font.PLAIN, 12);
+        private static final Font TYPE_FONT = new Font("Segoe UI", Font.ITALIC, 12);
+        private static final Font TIME_FONT = new Font("Segoe UI", Font.BOLD, 14);
+        private static final Font EMPTY_FONT = new Font("Segoe UI", Font.PLAIN, 14);
+        private static final Color LECTURE_COLOR = new Color(217, 234, 255);
+        private static final Color LAB_COLOR = new Color(255, 234, 217);
+        private static final Color TIME_COLOR = new Color(245, 245, 245);
+        private static final Border GRID_BORDER = BorderFactory.createLineBorder(new Color(220, 220, 220));
+        
+        private final CellView cellView = new CellView();
         
-        if (value instanceof TimetableCell) {
-            TimetableCell cell = (TimetableCell) value;
-            JPanel panel = new JPanel();
-            panel.setLayout(new BoxLayout(panel, BoxLayout.Y_AXIS));
+        @Override
+        public Component getTableCellRendererComponent(JTable table, Object value, 
+                                                     boolean isSelected, boolean hasFocus, 
+                                                     int row, int column) {
+            if (value instanceof TimetableCell) {
+                TimetableCell cell = (TimetableCell) value;
+                
+                // A lab directly below a session of the same course continues it
+                boolean isContinuation = false;
+                if (row > 0 && cell.getSessionType().equals("Lab")) {
+                    Object aboveCell = table.getValueAt(row - 1, column);
+                    if (aboveCell instanceof TimetableCell && 
+                        ((TimetableCell) aboveCell).getCourseCode().equals(cell.getCourseCode())) {
+                        isContinuation = true;
+                    }
+                }
+                
+                cellView.cell = cell;
+                cellView.continuation = isContinuation;
+                cellView.setBackground(cell.getSessionType().equals("Lecture") ? LECTURE_COLOR : LAB_COLOR);
+                return cellView;
+            }
             
-            // Color coding by session type
-            Color bgColor = cell.getSessionType().equals("Lecture") ? 
-                new Color(217, 234, 255) : new Color(255, 234, 217);
-            panel.setBackground(bgColor);
-            panel.setBorder(BorderFactory.createEmptyBorder(5, 5, 5, 5));
+            // Set up the label directly; the default implementation looks up
+            // colours and borders in UIManager on every call
+            setForeground(isSelected ? table.getSelectionForeground() : table.getForeground());
+            if (column == 0) {
+                // Time column styling
+                setText(value == null ? "" : value.toString());
+                setFont(TIME_FONT);
+                setBackground(TIME_COLOR);
+                setHorizontalAlignment(SwingConstants.RIGHT);
+            } else {
+                // Empty cells
+                setFont(EMPTY_FONT);
+                setText("");
+                setBackground(Color.WHITE);
+            }
             
-            JLabel codeLabel = new JLabel(cell.getCourseCode());
-            codeLabel.setFont(new Font("Segoe UI", Font.BOLD, 14));
-            codeLabel.setAlignmentX(Component.LEFT_ALIGNMENT);
+            setBorder(GRID_BORDER);
+            return this;
+        }
+        
+        // Paints one session: code, room, instructor and type, or a single
+        // "continued" line, laid out as a column of labels with 5px padding
+        static class CellView extends JComponent {
+            private static final int PADDING = 5;
+            private static final int LINE_GAP = 2;
             
-            JLabel roomLabel = new JLabel(cell.getRoomName());
-            roomLabel.setFont(new Font("Segoe UI", Font.PLAIN, 12));
-            roomLabel.setAlignmentX(Component.LEFT_ALIGNMENT);
+            private final Color labelColor = UIManager.getColor("Label.foreground");
+            private final Font labelFont = UIManager.getFont("Label.font");
+            private final Map<?, ?> textHints =
+                (Map<?, ?>) Toolkit.getDefaultToolkit().getDesktopProperty("awt.font.desktophints");
             
-            JLabel instructorLabel = new JLabel(cell.getInstructorName());
-            instructorLabel.setFont(new Font("Segoe UI", Font.PLAIN, 12));
-            instructorLabel.setAlignmentX(Component.LEFT_ALIGNMENT);
+            private TimetableCell cell;
+            private boolean continuation;
             
-            JLabel typeLabel = new JLabel(cell.getSessionType());
-            typeLabel.setFont(new Font("Segoe UI", Font.ITALIC, 12));
-            typeLabel.setForeground(Color.DARK_GRAY);
-            typeLabel.setAlignmentX(Component.LEFT_ALIGNMENT);
+            CellView() {
+                setOpaque(true);
+            }
             
-            // Check if this is a continuing cell from the row above
-            boolean isContinuation = false;
-            if (row > 0 && cell.getSessionType().equals("Lab")) {
-                Object aboveCell = table.getValueAt(row - 1, column);
-                if (aboveCell instanceof TimetableCell && 
-                    ((TimetableCell)aboveCell).getCourseCode().equals(cell.getCourseCode())) {
-                    isContinuation = true;
+            @Override
+            protected void paintComponent(Graphics g) {
+                g.setColor(getBackground());
+                g.fillRect(0, 0, getWidth(), getHeight());
+                if (textHints != null) {
+                    ((Graphics2D) g).addRenderingHints(textHints);
+                }
+                
+                String[] lines = layout(g, getWidth() - 2 * PADDING);
+                if (continuation) {
+                    drawLine(g, lines[4], labelFont, labelColor, PADDING);
+                    return;
                 }
+                int y = PADDING;
+                y = drawLine(g, lines[0], CODE_FONT, labelColor, y) + LINE_GAP;
+                y = drawLine(g, lines[1], DETAIL_FONT, labelColor, y) + LINE_GAP;
+                y = drawLine(g, lines[2], DETAIL_FONT, labelColor, y) + LINE_GAP;
+                drawLine(g, lines[3], TYPE_FONT, Color.DARK_GRAY, y);
             }
             
-            // For lab continuation cells, show simplified info
-            if (isContinuation) {
-                panel.add(new JLabel("↑ " + cell.getCourseCode() + " (continued)"));
-            } else {
-                panel.add(codeLabel);
-                panel.add(Box.createRigidArea(new Dimension(0, 2)));
-                panel.add(roomLabel);
-                panel.add(Box.createRigidArea(new Dimension(0, 2)));
-                panel.add(instructorLabel);
-                panel.add(Box.createRigidArea(new Dimension(0, 2)));
-                panel.add(typeLabel);
+            // Draws text with its top at y; returns the y below it
+            private static int drawLine(Graphics g, String text, Font font, Color color, int y) {
+                FontMetrics metrics = g.getFontMetrics(font);
+                g.setFont(font);
+                g.setColor(color);
+                g.drawString(text, PADDING, y + metrics.getAscent());
+                return y + metrics.getHeight();
             }
             
-            return panel;
-        } else if (column == 0) {
-            // Time column styling
-            setFont(new Font("Segoe UI", Font.BOLD, 14));
-            setBackground(new Color(245, 245, 245));
-            setHorizontalAlignment(SwingConstants.RIGHT);
-        } else {
-            // Empty cells
-            setFont(new Font("Segoe UI", Font.PLAIN, 14));
-            setText("");
-            setBackground(Color.WHITE);
+            // The cell's lines clipped to the width, recomputed only when the column is resized
+            private String[] layout(Graphics g, int width) {
+                if (cell.clippedWidth != width) {
+                    String[] lines = new String[5];
+                    lines[0] = clip(cell.getCourseCode(), g.getFontMetrics(CODE_FONT), width);
+                    lines[1] = clip(cell.getRoomName(), g.getFontMetrics(DETAIL_FONT), width);
+                    lines[2] = clip(cell.getInstructorName(), g.getFontMetrics(DETAIL_FONT), width);
+                    lines[3] = clip(cell.getSessionType(), g.getFontMetrics(TYPE_FONT), width);
+                    lines[4] = clip("↑ " + cell.getCourseCode() + " (continued)", g.getFontMetrics(labelFont), width);
+                    cell.clippedLines = lines;
+                    cell.clippedWidth = width;
+                }
+                return cell.clippedLines;
+            }
+            
+            // Shortens text that does not fit with "...", as JLabel does
+            private static String clip(String text, FontMetrics metrics, int width) {
+                if (metrics.stringWidth(text) <= width) {
+                    return text;
+                }
+                int ellipsis = metrics.stringWidth("...");
+                int end = text.length();
+                while (end > 0 && metrics.stringWidth(text.substring(0, end)) + ellipsis > width) {
+                    end--;
+                }
+                return text.substring(0, end) + "...";
+            }
+            
+            // Rendering stamps are painted once per cell; skip the usual repaint bookkeeping
+            @Override
+            public void invalidate() {}
+            
+            @Override
+            public void validate() {}
+            
+            @Override
+            public void revalidate() {}
+            
+            @Override
+            public void repaint(long tm, int x, int y, int width, int height) {}
+            
+            @Override
+            public void repaint(Rectangle r) {}
         }
-        
-        setBorder(BorderFactory.createLineBorder(new Color(220, 220, 220)));
-        return this;
     }
-}
 
     
     // Helper class for timetable cell data
@@ -718,6 +795,10 @@ private int parseHour(String timeStr) {
         private String instructorName;
         private String sessionType;
         
+        // Text clipped to the column width, cached by TimetableCellRenderer
+        private String[] clippedLines;
+        private int clippedWidth = -1;
+        
         public TimetableCell(String courseCode, String roomName, String instructorName, String sessionType) {
             this.courseCode = courseCode;
             this.roomName = roomName;